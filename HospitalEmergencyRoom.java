@@ -40,6 +40,7 @@ class Node
 {
     Patient patient;
     Node prev, next;
+    int heapIndex = -1;
 
     Node(Patient patient) 
     {
@@ -48,16 +49,134 @@ class Node
 }
 
 
+// Binary min-heap of Nodes ordered by triage priority. Every node remembers its
+// slot in heapIndex, so re-triage and removal by ID are O(log n) instead of the
+// linear scan PriorityQueue.remove(Object) does.
+class IndexedHeap 
+{
+    private Node[] heap = new Node[16];
+    private int size;
+    private final Comparator<Patient> order;
+
+    IndexedHeap(Comparator<Patient> order) 
+    {
+        this.order = order;
+    }
+
+    public boolean isEmpty() 
+    {
+        return size == 0;
+    }
+
+    public int size() 
+    {
+        return size;
+    }
+
+    public Node peek() 
+    {
+        return size == 0 ? null : heap[0];
+    }
+
+    public void offer(Node node) 
+    {
+        if (size == heap.length) heap = Arrays.copyOf(heap, size * 2);
+        heap[size] = node;
+        node.heapIndex = size;
+        siftUp(size++);
+    }
+
+    public Node poll() 
+    {
+        if (size == 0) return null;
+        Node top = heap[0];
+        removeAt(0);
+        return top;
+    }
+
+    public boolean remove(Node node) 
+    {
+        int i = node.heapIndex;
+        if (i < 0 || i >= size || heap[i] != node) return false;
+        removeAt(i);
+        return true;
+    }
+
+    // Restores heap order after the node's severity changed, whichever way it moved.
+    public void update(Node node) 
+    {
+        int i = node.heapIndex;
+        if (i < 0 || i >= size || heap[i] != node) return;
+        if (!siftUp(i)) siftDown(i);
+    }
+
+    public List<Patient> inOrder() 
+    {
+        List<Patient> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) list.add(heap[i].patient);
+        list.sort(order);
+        return list;
+    }
+
+    private void removeAt(int i) 
+    {
+        Node removed = heap[i];
+        Node last = heap[--size];
+        heap[size] = null;
+        removed.heapIndex = -1;
+        if (i == size) return;
+        heap[i] = last;
+        last.heapIndex = i;
+        if (!siftUp(i)) siftDown(i);
+    }
+
+    private boolean siftUp(int i) 
+    {
+        Node node = heap[i];
+        int start = i;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (order.compare(node.patient, heap[parent].patient) >= 0) break;
+            place(heap[parent], i);
+            i = parent;
+        }
+        place(node, i);
+        return i != start;
+    }
+
+    private void siftDown(int i) 
+    {
+        Node node = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && order.compare(heap[right].patient, heap[child].patient) < 0) child = right;
+            if (order.compare(node.patient, heap[child].patient) <= 0) break;
+            place(heap[child], i);
+            i = child;
+        }
+        place(node, i);
+    }
+
+    private void place(Node node, int i) 
+    {
+        heap[i] = node;
+        node.heapIndex = i;
+    }
+}
+
+
 class HospitalER 
 {
     private Node head, tail;
     private HashMap<Integer, Node> patientMap = new HashMap<>();
-    private PriorityQueue<Patient> pq;
+    private IndexedHeap pq;
     private int idCounter = 1;
 
     HospitalER() 
     {
-        pq = new PriorityQueue<>((a, b) -> {
+        pq = new IndexedHeap((a, b) -> {
             if (b.severity != a.severity) return b.severity - a.severity;
             return a.arrivalTime.compareTo(b.arrivalTime);
         });
@@ -114,7 +233,7 @@ class HospitalER
         Node node = new Node(p);
         addToDoublyLinkedList(node);
         patientMap.put(p.id, node);
-        pq.offer(p);
+        pq.offer(node);
         System.out.println("Added: " + p);
     }
 
@@ -131,9 +250,8 @@ class HospitalER
             System.out.println("Patient not found.");
             return;
         }
-        pq.remove(node.patient);
         node.patient.severity = clampSeverity(newSeverity);
-        pq.offer(node.patient);
+        pq.update(node);
         System.out.println("Severity updated: " + node.patient);
     }
 
@@ -144,7 +262,7 @@ class HospitalER
             System.out.println("Patient not found.");
             return;
         }
-        pq.remove(node.patient);
+        pq.remove(node);
         removeFromDoublyLinkedList(node);
         patientMap.remove(id);
         System.out.println("Removed: " + node.patient);
@@ -156,12 +274,10 @@ class HospitalER
             System.out.println("No patients to treat.");
             return;
         }
-        Patient p = pq.poll();
-        Node node = patientMap.get(p.id);
-        if (node != null) {
-            removeFromDoublyLinkedList(node);
-            patientMap.remove(p.id);
-        }
+        Node node = pq.poll();
+        Patient p = node.patient;
+        removeFromDoublyLinkedList(node);
+        patientMap.remove(p.id);
         System.out.println("Treating: " + p);
     }
 
@@ -184,9 +300,8 @@ class HospitalER
             return;
         }
         System.out.println("Patients by Severity Order:");
-        PriorityQueue<Patient> tempPQ = new PriorityQueue<>(pq);
-        while (!tempPQ.isEmpty()) {
-            System.out.println("   " + tempPQ.poll());
+        for (Patient p : pq.inOrder()) {
+            System.out.println("   " + p);
         }
     }
 
@@ -212,7 +327,7 @@ class HospitalER
     public void viewNextToTreat() 
     {
         if (pq.isEmpty()) System.out.println("No patients in queue.");
-        else System.out.println("➡ Next to treat: " + pq.peek());
+        else System.out.println("➡ Next to treat: " + pq.peek().patient);
     }
 
 }
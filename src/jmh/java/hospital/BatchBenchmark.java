@@ -0,0 +1,76 @@
+package hospital;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+// A mass-casualty intake of `batch` patients followed by `batch` doctors coming
+// free, on a persistent HospitalER (journal and treated log in a temp dir)
+// holding `size` waiting patients: one call per patient versus the batch APIs.
+// Each invocation admits and then treats `batch` patients, so the board stays
+// at `size`; compare the two scores at the same batch size.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class BatchBenchmark
+{
+    @Param({"10000"})
+    public int size;
+
+    @Param({"1", "10", "40", "200"})
+    public int batch;
+
+    @Param({"STRICT", "BUCKETED"})
+    public String policy;
+
+    private File dir;
+    private HospitalER er;
+    private SplittableRandom rand;
+
+    @Setup(Level.Trial)
+    public void fill() throws Exception
+    {
+        dir = Files.createTempDirectory("er-batch").toFile();
+        er = new HospitalER(TriagePolicy.valueOf(policy).newQueue(), dir);
+        er.setQuiet(true);
+        rand = new SplittableRandom(42);
+        for (int i = 0; i < size; i++) er.addPatient(HospitalERBenchmark.NAMES[i % HospitalERBenchmark.NAMES.length], severity());
+    }
+
+    @TearDown(Level.Trial)
+    public void cleanUp()
+    {
+        er.close();
+        for (File f : dir.listFiles()) f.delete();
+        dir.delete();
+    }
+
+    @Benchmark
+    public int oneByOne()
+    {
+        int last = 0;
+        for (int i = 0; i < batch; i++) last = er.addPatient("Kabir", severity());
+        for (int i = 0; i < batch; i++) er.treatNextPatient();
+        return last;
+    }
+
+    @Benchmark
+    public List<Patient> batched()
+    {
+        List<Patient> intake = new ArrayList<>(batch);
+        for (int i = 0; i < batch; i++) intake.add(new Patient(0, "Kabir", severity()));
+        er.addPatients(intake);
+        return er.treatNext(batch);
+    }
+
+    private int severity()
+    {
+        return rand.nextInt(10) + 1;
+    }
+}
@@ -0,0 +1,105 @@
+package hospital;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.openjdk.jmh.annotations.*;
+
+// What a ChangeFeed adds to the mutation path: the seeded triage workload of
+// TraceRecorder.record on an ER with no feed, with snapshots only, and with
+// `subscribers` dashboards (a tenth of them slow, one item per millisecond).
+// Flat out the feed cannot keep up on few cores, so most subscribers get
+// fresh snapshots; the cost to the ER thread is what this measures.
+// ChangeFeedTest checks that the dashboards converge.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class ChangeFeedBenchmark
+{
+    private static final int STEADY = 10_000;
+    private static final int OPS = 1000;
+
+    @Param({"NONE", "SNAPSHOTS", "FEED"})
+    public String mode;
+
+    @Param({"200"})
+    public int subscribers;
+
+    private HospitalER er;
+    private ManualClock clock;
+    private SplittableRandom rand;
+    private ChangeFeed feed;
+    private Thread ticker;
+
+    // Takes every item it is offered and drops it; a slow one is topped up by the ticker.
+    private static final class Dashboard implements Flow.Subscriber<ErChange>
+    {
+        final boolean slow;
+        volatile Flow.Subscription subscription;
+
+        Dashboard(boolean slow)
+        {
+            this.slow = slow;
+        }
+
+        public void onSubscribe(Flow.Subscription subscription)
+        {
+            this.subscription = subscription;
+            subscription.request(slow ? 1 : Long.MAX_VALUE);
+        }
+
+        public void onNext(ErChange c) {}
+
+        public void onError(Throwable e) {}
+
+        public void onComplete() {}
+    }
+
+    @Setup(Level.Trial)
+    public void fill()
+    {
+        clock = new ManualClock();
+        er = new HospitalER(TriagePolicy.STRICT.newQueue(), false);
+        er.setQuiet(true);
+        er.setClock(clock);
+        rand = new SplittableRandom(42);
+        TraceRecorder.record(er, clock, rand, 4 * STEADY, STEADY);
+        if (mode.equals("SNAPSHOTS")) er.enableSnapshots();
+        if (!mode.equals("FEED")) return;
+
+        feed = er.changeFeed();
+        Dashboard[] dashboards = new Dashboard[subscribers];
+        for (int i = 0; i < subscribers; i++) {
+            dashboards[i] = new Dashboard(i % 10 == 0);
+            feed.subscribe(dashboards[i]);
+        }
+        ticker = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                LockSupport.parkNanos(1_000_000);
+                for (Dashboard d : dashboards) if (d.slow && d.subscription != null) d.subscription.request(1);
+            }
+        }, "slow-dashboards");
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void close()
+    {
+        if (ticker != null) ticker.interrupt();
+        if (feed != null) feed.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPS)
+    public int workload()
+    {
+        TraceRecorder.record(er, clock, rand, OPS, STEADY);
+        return er.size();
+    }
+}
@@ -0,0 +1,114 @@
+package hospital;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.*;
+
+// Multi-threaded throughput of the shared waiting room. In the "triage" group
+// intake desks admit, doctors treat and a charge nurse re-triages, all against
+// one ER holding about `size` patients. LOCKED is HospitalER behind a single
+// lock, the baseline ConcurrentHospitalER has to beat as threads are added.
+// Desks and doctors run at the same count, so the queue stays near `size`;
+// each iteration starts from a freshly filled ER.
+//
+//   gradle jmh -PjmhArgs="ConcurrentBenchmark -p size=100000"
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ConcurrentBenchmark
+{
+    @State(Scope.Group)
+    public static class Room
+    {
+        @Param({"1000", "100000"})
+        public int size;
+
+        @Param({"CONCURRENT", "LOCKED"})
+        public String engine;
+
+        TriageEngine er;
+        final AtomicInteger lastId = new AtomicInteger();
+
+        @Setup(Level.Iteration)
+        public void fill()
+        {
+            er = engine.equals("LOCKED") ? new Locked() : new ConcurrentHospitalER();
+            ThreadLocalRandom rand = ThreadLocalRandom.current();
+            for (int i = 0; i < size; i++) lastId.set(er.addPatient("Kabir", rand.nextInt(10) + 1));
+        }
+    }
+
+    @Benchmark
+    @Group("triage")
+    @GroupThreads(2)
+    public int admit(Room room)
+    {
+        int id = room.er.addPatient("Meera", ThreadLocalRandom.current().nextInt(10) + 1);
+        room.lastId.set(id);
+        return id;
+    }
+
+    @Benchmark
+    @Group("triage")
+    @GroupThreads(2)
+    public int treat(Room room)
+    {
+        return room.er.treatNext();
+    }
+
+    // Re-triages a recent ID; one that has already left is a cheap miss.
+    @Benchmark
+    @Group("triage")
+    @GroupThreads(1)
+    public boolean retriage(Room room)
+    {
+        ThreadLocalRandom rand = ThreadLocalRandom.current();
+        int last = room.lastId.get();
+        return room.er.updateSeverity(last - rand.nextInt(Math.min(last, room.size)), rand.nextInt(10) + 1);
+    }
+
+    // HospitalER with every call under one lock.
+    private static final class Locked implements TriageEngine
+    {
+        private final HospitalER er = new HospitalER(TriagePolicy.STRICT.newQueue(), false);
+
+        Locked()
+        {
+            er.setQuiet(true);
+        }
+
+        public synchronized int addPatient(String name, int severity)
+        {
+            return er.addPatient(name, severity);
+        }
+
+        public synchronized int treatNext()
+        {
+            return er.treatNext();
+        }
+
+        public synchronized int peekNext()
+        {
+            return er.peekNext();
+        }
+
+        public synchronized boolean updateSeverity(int id, int newSeverity)
+        {
+            return er.updateSeverity(id, newSeverity);
+        }
+
+        public synchronized boolean removePatient(int id)
+        {
+            return er.removePatient(id);
+        }
+
+        public synchronized int size()
+        {
+            return er.size();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package hospital;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+// The same steady-state workload against each TriageEngine backing. Run with
+// the default -prof gc to see gc.alloc.rate.norm: the primitive store should
+// report ~0 B/op.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class EngineBenchmark
+{
+    @Param({"100", "10000", "1000000", "10000000"})
+    public int size;
+
+    // "object": HospitalER over SeverityBuckets; "primitive": PrimitivePatientStore;
+    // "offheap": OffHeapPatientStore
+    @Param({"object", "primitive", "offheap"})
+    public String engine;
+
+    private TriageEngine er;
+    private int[] ids;
+    private SplittableRandom rand;
+
+    static TriageEngine create(String engine, int size)
+    {
+        if (engine.equals("primitive")) return new PrimitivePatientStore(size);
+        if (engine.equals("offheap")) return new OffHeapPatientStore(size);
+        HospitalER er = new HospitalER(new SeverityBuckets(), false);
+        er.setQuiet(true);
+        return er;
+    }
+
+    @Setup(Level.Trial)
+    public void fill()
+    {
+        er = create(engine, size);
+        rand = new SplittableRandom(42);
+        ids = new int[size];
+        for (int i = 0; i < size; i++) ids[i] = er.addPatient("Aarav", severity());
+    }
+
+    // Treat the next patient and admit a new one.
+    @Benchmark
+    public int treatAndAdmit()
+    {
+        int treated = er.treatNext();
+        er.addPatient("Isha", severity());
+        return treated;
+    }
+
+    @Benchmark
+    public boolean updateSeverity()
+    {
+        return er.updateSeverity(ids[rand.nextInt(size)], severity());
+    }
+
+    // Discharge a random waiting patient and admit a replacement.
+    @Benchmark
+    public boolean removeAndAdmit()
+    {
+        int slot = rand.nextInt(size);
+        boolean removed = er.removePatient(ids[slot]);
+        ids[slot] = er.addPatient("Rohan", severity());
+        return removed;
+    }
+
+    private int severity()
+    {
+        return rand.nextInt(10) + 1;
+    }
+}
@@ -0,0 +1,137 @@
+package hospital;
+
+import java.lang.management.*;
+import java.util.*;
+import javax.management.*;
+import javax.management.openmbean.CompositeData;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+// GC pauses with a disaster-scale waiting list, per TriageEngine backing:
+// "object" (HospitalER over IndexedHeap), "primitive" (PrimitivePatientStore)
+// and "offheap" (OffHeapPatientStore). Each runs in a fresh JVM with the same
+// heap: admit the waiting list, then churn it at a steady size (admissions,
+// treatments, re-triages, removals) for a fixed time while recording every
+// stop-the-world pause the collector reports and, independently, how late a
+// thread that sleeps 1 ms wakes up (what a board refreshing on a timer would
+// feel). Finally an explicit full GC shows the worst case.
+//
+//   gradle bench -PmainClass=hospital.GcPauseBenchmark --args="[patients] [seconds] [heap]"
+//
+// Defaults: 5,000,000 patients, 30 s of churn, -Xmx3g.
+public class GcPauseBenchmark
+{
+    private static final String[] ENGINES = {"object", "primitive", "offheap"};
+    private static final String[] NAMES = {"Aarav", "Isha", "Rohan", "Simran", "Kabir", "Ananya", "Dev", "Meera"};
+
+    public static void main(String[] args) throws Exception
+    {
+        if (args.length > 0 && args[0].equals("--child")) {
+            runChild(args[1], Integer.parseInt(args[2]), Integer.parseInt(args[3]));
+            return;
+        }
+        int patients = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        String heap = args.length > 2 ? args[2] : "3g";
+
+        String java = ProcessHandle.current().info().command().orElse("java");
+        System.out.printf("%,d waiting, %d s churn, -Xmx%s, %s%n", patients, seconds, heap,
+                ManagementFactory.getGarbageCollectorMXBeans().get(0).getName().replaceAll(" .*", "") + " collector");
+        System.out.printf("%-10s %7s %11s %6s %9s %8s %8s %10s %9s %9s %9s%n", "engine", "fill s", "churn op/s",
+                "GCs", "pause ms", "p99 ms", "max ms", "hiccup ms", "full GC", "heap MB", "direct MB");
+        for (String engine : ENGINES) {
+            Process child = new ProcessBuilder(java, "-Xms" + heap, "-Xmx" + heap, "-cp", System.getProperty("java.class.path"),
+                    GcPauseBenchmark.class.getName(), "--child", engine, String.valueOf(patients), String.valueOf(seconds))
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.INHERIT)
+                    .start();
+            if (child.waitFor() != 0) System.out.printf("%-10s failed (exit %d); try a larger heap%n", engine, child.exitValue());
+        }
+    }
+
+    private static void runChild(String engine, int patients, int seconds) throws Exception
+    {
+        LogHistogram pauses = new LogHistogram();
+        listenForPauses(pauses);
+        LogHistogram hiccups = new LogHistogram();
+        Thread sleeper = new Thread(() -> {
+            while (true) {
+                long t0 = System.nanoTime();
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                hiccups.record((System.nanoTime() - t0) / 1000 - 1000);
+            }
+        }, "hiccup");
+        sleeper.setDaemon(true);
+
+        TriageEngine er = create(engine, patients);
+        SplittableRandom rand = new SplittableRandom(7);
+        long t0 = System.nanoTime();
+        int lastId = 0;
+        for (int i = 0; i < patients; i++) lastId = er.addPatient(NAMES[rand.nextInt(NAMES.length)], rand.nextInt(10) + 1);
+        double fillSecs = (System.nanoTime() - t0) / 1e9;
+
+        pauses.reset();
+        sleeper.start();
+        long ops = 0;
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        t0 = System.nanoTime();
+        while ((ops & 1023) != 0 || System.nanoTime() < deadline) {
+            int roll = rand.nextInt(10);
+            if (roll < 4) lastId = er.addPatient(NAMES[rand.nextInt(NAMES.length)], rand.nextInt(10) + 1);
+            else if (roll < 8) er.treatNext();
+            else if (roll < 9) er.updateSeverity(lastId - rand.nextInt(patients), rand.nextInt(10) + 1);
+            else er.removePatient(lastId - rand.nextInt(patients));
+            ops++;
+        }
+        double churnSecs = (System.nanoTime() - t0) / 1e9;
+        sleeper.interrupt();
+        long gcs = pauses.count(), p99 = pauses.percentile(0.99), worst = pauses.max();
+        double pausedMs = pauses.mean() * gcs / 1000.0;
+
+        long fullStart = System.nanoTime();
+        System.gc();
+        double fullMs = (System.nanoTime() - fullStart) / 1e6;
+        MemoryUsage heapUsage = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        long direct = 0;
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals("direct")) direct = pool.getMemoryUsed();
+        }
+        if (er.size() <= 0) throw new IllegalStateException("waiting list drained");
+
+        System.out.printf("%-10s %7.1f %,11.0f %6d %9.0f %8.1f %8.1f %10.1f %9.0f %9.0f %9.0f%n", engine, fillSecs, ops / churnSecs,
+                gcs, pausedMs, p99 / 1000.0, worst / 1000.0,
+                hiccups.max() / 1000.0, fullMs, heapUsage.getUsed() / 1e6, direct / 1e6);
+    }
+
+    static TriageEngine create(String engine, int patients)
+    {
+        switch (engine) {
+            case "primitive":
+                return new PrimitivePatientStore(patients);
+            case "offheap":
+                return new OffHeapPatientStore(patients);
+            default:
+                HospitalER er = new HospitalER(new IndexedHeap(), false);
+                er.setQuiet(true);
+                return er;
+        }
+    }
+
+    // Records each stop-the-world collection in microseconds. Concurrent
+    // cycles (reported by some collectors as a separate bean) are not pauses.
+    private static void listenForPauses(LogHistogram pauses)
+    {
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (gc.getName().contains("Concurrent") || gc.getName().contains("Cycles")) continue;
+            ((NotificationEmitter) gc).addNotificationListener((notification, handback) -> {
+                if (!notification.getType().equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) return;
+                GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+                pauses.record(info.getGcInfo().getDuration() * 1000);
+            }, null, null);
+        }
+    }
+}
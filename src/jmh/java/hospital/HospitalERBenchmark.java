@@ -0,0 +1,101 @@
+package hospital;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+// Hot paths of an in-memory, quiet HospitalER holding `size` waiting patients.
+// Mutating benchmarks undo their own change so the board stays at `size`.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class HospitalERBenchmark
+{
+    static final String[] NAMES = {
+        "Aarav", "Isha", "Rohan", "Simran", "Kabir", "Ananya", "Dev", "Meera", "Raj", "Priya",
+        "Neha", "Arjun", "Ira", "Vihaan", "Zara", "Vivaan", "Riya", "Kunal", "Tara", "Aditya"
+    };
+
+    @Param({"100", "10000", "1000000", "10000000"})
+    public int size;
+
+    @Param({"STRICT", "BUCKETED", "AGING"})
+    public String policy;
+
+    private HospitalER er;
+    private int[] ids;
+    private SplittableRandom rand;
+
+    @Setup(Level.Trial)
+    public void fill()
+    {
+        er = new HospitalER(TriagePolicy.valueOf(policy).newQueue(), false);
+        er.setQuiet(true);
+        rand = new SplittableRandom(42);
+        ids = new int[size];
+        for (int i = 0; i < size; i++) ids[i] = er.addPatient(NAMES[i % NAMES.length], severity());
+    }
+
+    // Admit, then discharge the same patient.
+    @Benchmark
+    public int addPatient()
+    {
+        int id = er.addPatient("Kabir", severity());
+        er.removePatient(id);
+        return id;
+    }
+
+    // Treat the next patient, then re-admit them at the back of the line.
+    @Benchmark
+    public Patient treatNextPatient()
+    {
+        Patient p = er.treatNextPatient();
+        er.addPatient(p.name, p.severity);
+        return p;
+    }
+
+    @Benchmark
+    public boolean updateSeverity()
+    {
+        return er.updateSeverity(ids[rand.nextInt(size)], severity());
+    }
+
+    // Discharge a random waiting patient and admit a replacement.
+    @Benchmark
+    public boolean removePatient()
+    {
+        int slot = rand.nextInt(size);
+        boolean removed = er.removePatient(ids[slot]);
+        ids[slot] = er.addPatient("Meera", severity());
+        return removed;
+    }
+
+    @Benchmark
+    public List<Patient> searchPatientByName()
+    {
+        return er.searchPatientByName(NAMES[rand.nextInt(NAMES.length)]);
+    }
+
+    // Type-ahead on the first two letters, first 20 matches.
+    @Benchmark
+    public List<Patient> searchPatientsByPrefix()
+    {
+        return er.searchPatientsByPrefix(NAMES[rand.nextInt(NAMES.length)].substring(0, 2), 20);
+    }
+
+    @Benchmark
+    public List<Patient> viewSeverityOrder()
+    {
+        return er.viewSeverityOrder();
+    }
+
+    private int severity()
+    {
+        return rand.nextInt(10) + 1;
+    }
+}
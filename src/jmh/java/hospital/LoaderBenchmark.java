@@ -0,0 +1,104 @@
+package hospital;
+
+import java.io.*;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.util.*;
+
+// Startup cost of a large patients.txt. Writes a snapshot of the given size,
+// then times the old loader (BufferedReader, String.split, DateTimeFormatter,
+// one heap offer per row) against SnapshotLoader with 1, 2, 4 ... threads and
+// a single heapify, and finally a full HospitalER.loadFromFile.
+//
+//   gradle bench -PmainClass=hospital.LoaderBenchmark --args="[rows]"
+public class LoaderBenchmark
+{
+    private static final String[] NAMES = {"Alice Moreno", "Bob Chen", "Charlie Okafor", "Diana Novak", "Ethan Singh", "Fatima Haddad", "George Ito", "Hannah Berg"};
+
+    public static void main(String[] args) throws Exception
+    {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        File dir = Files.createTempDirectory("er-load").toFile();
+        File file = new File(dir, "patients.txt");
+        writeSnapshot(file, rows);
+        System.out.printf("%,d rows, %,d bytes%n", rows, file.length());
+        System.out.printf("%-28s %10s %14s%n", "loader", "ms", "rows/sec");
+
+        for (int round = 0; round < 3; round++) {
+            boolean last = round == 2;  // earlier rounds warm up the JIT
+            time("line-by-line + offer", rows, last, () -> {
+                IndexedHeap heap = new IndexedHeap();
+                for (Patient p : lineByLine(file)) heap.offer(new Node(p));
+                return heap.size();
+            });
+            int cores = Runtime.getRuntime().availableProcessors();
+            for (int threads = 1; threads <= Math.max(2, cores); threads *= 2) {
+                int t = threads;
+                time("mapped x" + t + " + heapify", rows, last, () -> {
+                    List<Patient> patients = SnapshotLoader.load(file, t).patients;
+                    List<Node> nodes = new ArrayList<>(patients.size());
+                    for (Patient p : patients) nodes.add(new Node(p));
+                    IndexedHeap heap = new IndexedHeap();
+                    heap.offerAll(nodes);
+                    return heap.size();
+                });
+            }
+            time("HospitalER.loadFromFile", rows, last, () -> {
+                HospitalER er = new HospitalER(new IndexedHeap(), dir);
+                er.setQuiet(true);
+                er.loadFromFile();
+                er.close();
+                return er.size();
+            });
+        }
+
+        for (File f : dir.listFiles()) f.delete();
+        dir.delete();
+    }
+
+    private interface Load
+    {
+        int run() throws Exception;
+    }
+
+    private static void time(String label, int rows, boolean print, Load load) throws Exception
+    {
+        System.gc();
+        long t0 = System.nanoTime();
+        int loaded = load.run();
+        long nanos = System.nanoTime() - t0;
+        if (loaded != rows) throw new IllegalStateException(label + " loaded " + loaded + " of " + rows + " rows");
+        if (print) System.out.printf("%-28s %10d %14.0f%n", label, nanos / 1_000_000, rows * 1e9 / nanos);
+    }
+
+    private static void writeSnapshot(File file, int rows) throws IOException
+    {
+        Random rand = new Random(7);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 8, 0);
+        try (PrintWriter pw = new PrintWriter(new BufferedWriter(new FileWriter(file), 1 << 16))) {
+            for (int i = 1; i <= rows; i++) {
+                String name = NAMES[rand.nextInt(NAMES.length)];
+                LocalDateTime arrival = start.plusSeconds(i / 4);
+                pw.println(i + "," + name + "," + (rand.nextInt(10) + 1) + "," + arrival.format(HospitalER.FORMATTER) + "," + i);
+            }
+        }
+    }
+
+    // The loader HospitalER used before SnapshotLoader.
+    private static List<Patient> lineByLine(File file) throws IOException
+    {
+        List<Patient> patients = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                String[] parts = line.split(",", 5);
+                if (parts.length < 4) continue;
+                Patient p = new Patient(Integer.parseInt(parts[0].trim()), parts[1].trim(), Integer.parseInt(parts[2].trim()));
+                p.arrivalTime = LocalDateTime.parse(parts[3].trim(), HospitalER.FORMATTER);
+                p.seq = parts.length == 5 ? Long.parseLong(parts[4].trim()) : patients.size() + 1;
+                patients.add(p);
+            }
+        }
+        return patients;
+    }
+}
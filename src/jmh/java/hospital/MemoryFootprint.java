@@ -0,0 +1,44 @@
+package hospital;
+
+import java.util.function.Supplier;
+
+// Retained heap per waiting patient for each TriageEngine backing, measured
+// as the used-heap difference after a full GC. The off-heap store's patients
+// live in direct memory, which this does not count. Each name is a fresh
+// String, as it would be when read from a socket or a file.
+//
+//   gradle bench -PmainClass=hospital.MemoryFootprint --args="[patients]"
+public class MemoryFootprint
+{
+    private static final String[] NAMES = {"Aarav", "Isha", "Rohan", "Simran", "Kabir", "Ananya", "Dev", "Meera"};
+
+    public static void main(String[] args)
+    {
+        int patients = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        System.out.printf("%-12s %14s%n", "engine", "bytes/patient");
+        report("object", patients, () -> {
+            HospitalER er = new HospitalER(new SeverityBuckets(), false);
+            er.setQuiet(true);
+            return er;
+        });
+        report("primitive", patients, PrimitivePatientStore::new);
+        report("offheap", patients, OffHeapPatientStore::new);
+    }
+
+    private static void report(String label, int patients, Supplier<TriageEngine> factory)
+    {
+        long before = usedAfterGc();
+        TriageEngine er = factory.get();
+        for (int i = 0; i < patients; i++) er.addPatient(new String(NAMES[i % NAMES.length]), i % 10 + 1);
+        long after = usedAfterGc();
+        System.out.printf("%-12s %14.1f%n", label, (double) (after - before) / patients);
+        if (er.size() != patients) throw new IllegalStateException();
+    }
+
+    private static long usedAfterGc()
+    {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
@@ -0,0 +1,69 @@
+package hospital;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.*;
+
+// Snapshot write and full restore of patients.txt + patients.journal for a board
+// of `size` patients, in a scratch directory.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class PersistenceBenchmark
+{
+    @Param({"100", "10000", "1000000", "10000000"})
+    public int size;
+
+    @Param({"STRICT", "BUCKETED", "AGING"})
+    public String policy;
+
+    private File dir;
+    private HospitalER er;
+
+    @Setup(Level.Trial)
+    public void fill() throws IOException
+    {
+        dir = Files.createTempDirectory("er-bench").toFile();
+        er = new HospitalER(TriagePolicy.valueOf(policy).newQueue(), dir);
+        er.setQuiet(true);
+        SplittableRandom rand = new SplittableRandom(42);
+        for (int i = 0; i < size; i++) {
+            er.addPatient(HospitalERBenchmark.NAMES[i % HospitalERBenchmark.NAMES.length], rand.nextInt(10) + 1);
+        }
+        er.saveToFile();
+    }
+
+    @TearDown(Level.Trial)
+    public void cleanUp() throws IOException
+    {
+        er.close();
+        try (Stream<Path> files = Files.walk(dir.toPath())) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    public void saveToFile()
+    {
+        er.saveToFile();
+    }
+
+    @Benchmark
+    public int loadFromFile()
+    {
+        HospitalER restored = new HospitalER(TriagePolicy.valueOf(policy).newQueue(), dir);
+        restored.setQuiet(true);
+        restored.loadFromFile();
+        return restored.size();
+    }
+}
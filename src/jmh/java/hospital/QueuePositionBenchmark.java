@@ -0,0 +1,62 @@
+package hospital;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+// "How many are ahead of ID X?": QueuePositions against the only answer there
+// was before, copying the queue in severity order and searching it. The
+// update benchmark is the upkeep, to compare with HospitalERBenchmark.updateSeverity.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class QueuePositionBenchmark
+{
+    @Param({"10000", "1000000"})
+    public int size;
+
+    @Param({"strict", "aging"})
+    public String policy;
+
+    private HospitalER er;
+    private int[] ids;
+    private SplittableRandom rand;
+
+    @Setup(Level.Trial)
+    public void fill()
+    {
+        er = new HospitalER(TriagePolicy.parse(policy).newQueue(), false);
+        er.setQuiet(true);
+        rand = new SplittableRandom(42);
+        ids = new int[size];
+        for (int i = 0; i < size; i++) ids[i] = er.addPatient(HospitalERBenchmark.NAMES[i % HospitalERBenchmark.NAMES.length], rand.nextInt(10) + 1);
+        er.countAhead(ids[0]);
+    }
+
+    @Benchmark
+    public int countAhead()
+    {
+        return er.countAhead(ids[rand.nextInt(size)]);
+    }
+
+    @Benchmark
+    public int countAheadByCopy()
+    {
+        int id = ids[rand.nextInt(size)];
+        List<Patient> order = er.viewSeverityOrder();
+        for (int i = 0; i < order.size(); i++) {
+            if (order.get(i).id == id) return i;
+        }
+        return -1;
+    }
+
+    @Benchmark
+    public boolean updateSeverityWithPositions()
+    {
+        return er.updateSeverity(ids[rand.nextInt(size)], rand.nextInt(10) + 1);
+    }
+}
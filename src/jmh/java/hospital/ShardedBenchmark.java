@@ -0,0 +1,66 @@
+package hospital;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.ThreadParams;
+
+// Scaling of ShardedHospitalER: each benchmark thread is a department's desk
+// and doctor, admitting into its own shard and treating from it, stealing
+// once it runs dry. SKEWED sends every admission to the first department, so
+// the other doctors only ever treat by stealing. Threads beyond `shards` share
+// departments; match them for the one-thread-per-department shape:
+//
+//   gradle jmh -PjmhArgs="ShardedBenchmark -p shards=4 -t 4"
+//
+// ShardedHospitalERTest checks that no patient is lost or treated twice.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@Threads(Threads.MAX)
+public class ShardedBenchmark
+{
+    @State(Scope.Benchmark)
+    public static class Room
+    {
+        @Param({"1", "2", "4", "8"})
+        public int shards;
+
+        @Param({"EVEN", "SKEWED"})
+        public String intake;
+
+        ShardedHospitalER er;
+
+        @Setup(Level.Trial)
+        public void open()
+        {
+            er = new ShardedHospitalER(TriagePolicy.STRICT, shards);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Department
+    {
+        int shard;
+        int admitTo;
+
+        @Setup(Level.Trial)
+        public void join(Room room, ThreadParams thread)
+        {
+            shard = thread.getThreadIndex() % room.shards;
+            admitTo = room.intake.equals("SKEWED") ? 0 : shard;
+        }
+    }
+
+    // One admission and one treatment, so the room stays level.
+    @Benchmark
+    @OperationsPerInvocation(2)
+    public Patient admitAndTreat(Room room, Department department)
+    {
+        room.er.addPatient(department.admitTo, "P", ThreadLocalRandom.current().nextInt(10) + 1);
+        return room.er.treatNextPatient(department.shard);
+    }
+}
@@ -0,0 +1,63 @@
+package hospital;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+// Wall-display reads against the live views, and what publishing snapshots
+// costs the writer. Compare viewSeverityOrder (copy and sort) with walking a
+// snapshot, and updateSeverity here with HospitalERBenchmark.updateSeverity.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class SnapshotBenchmark
+{
+    @Param({"10000", "1000000"})
+    public int size;
+
+    private HospitalER er;
+    private SnapshotPublisher snapshots;
+    private int[] ids;
+    private SplittableRandom rand;
+
+    @Setup(Level.Trial)
+    public void fill()
+    {
+        er = new HospitalER(new IndexedHeap(), false);
+        er.setQuiet(true);
+        rand = new SplittableRandom(42);
+        ids = new int[size];
+        for (int i = 0; i < size; i++) ids[i] = er.addPatient(HospitalERBenchmark.NAMES[i % HospitalERBenchmark.NAMES.length], rand.nextInt(10) + 1);
+        snapshots = er.enableSnapshots();
+    }
+
+    @Benchmark
+    public List<Patient> liveSeverityOrder()
+    {
+        return er.viewSeverityOrder();
+    }
+
+    @Benchmark
+    public void snapshotSeverityOrder(Blackhole bh)
+    {
+        for (Patient p : snapshots.current().severityOrder()) bh.consume(p);
+    }
+
+    // What a wall display actually shows: the next 20.
+    @Benchmark
+    public List<Patient> snapshotNext20()
+    {
+        return snapshots.current().nextToTreat(20);
+    }
+
+    @Benchmark
+    public boolean updateSeverityWithSnapshots()
+    {
+        return er.updateSeverity(ids[rand.nextInt(size)], rand.nextInt(10) + 1);
+    }
+}
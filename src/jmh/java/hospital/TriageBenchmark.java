@@ -0,0 +1,114 @@
+package hospital;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+// The triage queues on their own, without HospitalER around them. Re-triage
+// on java.util.PriorityQueue (remove + offer, linear scan) against IndexedHeap
+// (in-place sift, O(log n)) on the same patients, then a steady admit/treat
+// plus re-triage churn on IndexedHeap against SeverityBuckets (O(1)).
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class TriageBenchmark
+{
+    @State(Scope.Benchmark)
+    public static class Retriage
+    {
+        @Param({"1000", "10000", "100000"})
+        public int size;
+
+        PriorityQueue<Patient> pq;
+        Patient[] patients;
+        IndexedHeap heap;
+        Node[] nodes;
+        SplittableRandom rand;
+
+        @Setup(Level.Trial)
+        public void fill()
+        {
+            // the comparator HospitalER used before packed triage keys
+            pq = new PriorityQueue<>((a, b) -> {
+                if (b.severity != a.severity) return b.severity - a.severity;
+                return a.arrivalTime.compareTo(b.arrivalTime);
+            });
+            heap = new IndexedHeap();
+            patients = new Patient[size];
+            nodes = new Node[size];
+            rand = new SplittableRandom(42);
+            for (int i = 0; i < size; i++) {
+                int severity = rand.nextInt(10) + 1;
+                patients[i] = new Patient(i + 1, "P" + i, severity);
+                nodes[i] = new Node(new Patient(i + 1, "P" + i, severity));
+                nodes[i].patient.seq = i + 1;
+                pq.offer(patients[i]);
+                heap.offer(nodes[i]);
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean retriagePriorityQueue(Retriage s)
+    {
+        Patient p = s.patients[s.rand.nextInt(s.size)];
+        s.pq.remove(p);
+        p.severity = s.rand.nextInt(10) + 1;
+        return s.pq.offer(p);
+    }
+
+    @Benchmark
+    public Node retriageIndexedHeap(Retriage s)
+    {
+        Node node = s.nodes[s.rand.nextInt(s.size)];
+        node.patient.severity = s.rand.nextInt(10) + 1;
+        s.heap.update(node);
+        return node;
+    }
+
+    @State(Scope.Benchmark)
+    public static class Churn
+    {
+        @Param({"1000", "10000", "100000"})
+        public int size;
+
+        @Param({"HEAP", "BUCKETS"})
+        public String queue;
+
+        TriageQueue q;
+        Node[] nodes;
+        SplittableRandom rand;
+
+        @Setup(Level.Trial)
+        public void fill()
+        {
+            q = queue.equals("HEAP") ? new IndexedHeap() : new SeverityBuckets();
+            nodes = new Node[size];
+            rand = new SplittableRandom(7);
+            for (int i = 0; i < size; i++) {
+                nodes[i] = new Node(new Patient(i + 1, "P", rand.nextInt(10) + 1));
+                nodes[i].patient.seq = i + 1;
+                q.offer(nodes[i]);
+            }
+        }
+    }
+
+    // A random re-triage, then the next patient treated and re-admitted, so
+    // the board stays at `size`; two queue operations per call.
+    @Benchmark
+    @OperationsPerInvocation(2)
+    public Node churn(Churn s)
+    {
+        Node node = s.nodes[s.rand.nextInt(s.size)];
+        node.patient.severity = s.rand.nextInt(10) + 1;
+        s.q.update(node);
+
+        Node treated = s.q.poll();
+        treated.patient.severity = s.rand.nextInt(10) + 1;
+        s.q.offer(treated);
+        return treated;
+    }
+}
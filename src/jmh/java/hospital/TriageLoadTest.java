@@ -0,0 +1,206 @@
+package hospital;
+
+import java.io.*;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+// Closed-loop load on TriageService over localhost: each client plays a kiosk
+// or a doctor's screen and sends its next request as soon as the previous one
+// answers. The mix keeps the waiting list roughly level: 35% admissions, 30%
+// treatments, 15% peeks, 10% re-triages, 5% lookups by id and 5% removals.
+// Reports requests/sec and latency percentiles overall and per endpoint;
+// exits with status 1 if any request failed. TriageServiceTest covers the
+// same mix for correctness.
+//
+//   gradle bench -PmainClass=hospital.TriageLoadTest --args="[clients] [seconds] [url]"
+//
+// Without a url an in-memory service is started in this process on a free
+// port, with 10,000 patients already waiting.
+public class TriageLoadTest
+{
+    private static final String[] NAMES = {"Aarav", "Isha", "Rohan", "Simran", "Kabir", "Ananya", "Dev", "Meera"};
+    private static final String[] OPS = {"admit", "treat", "peek", "retriage", "lookup", "remove"};
+    private static final int[] MIX = {35, 30, 15, 10, 5, 5};
+
+    private final String host;
+    private final int port;
+    private final LogHistogram all = new LogHistogram();
+    private final LogHistogram[] perOp = new LogHistogram[OPS.length];
+    private final AtomicLong failures = new AtomicLong();
+    // highest id handed out so far; re-triage, lookup and remove pick near it
+    private final AtomicInteger lastId = new AtomicInteger(1);
+
+    TriageLoadTest(URI base)
+    {
+        this.host = base.getHost();
+        this.port = base.getPort() < 0 ? 80 : base.getPort();
+        for (int i = 0; i < OPS.length; i++) perOp[i] = new LogHistogram();
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        TriageService service = null;
+        URI base;
+        if (args.length > 2) {
+            base = URI.create(args[2]);
+        } else {
+            HospitalER er = new HospitalER(TriagePolicy.STRICT.newQueue(), false);
+            er.setQuiet(true);
+            Random rand = new Random(3);
+            for (int i = 0; i < 10_000; i++) er.addPatient(NAMES[rand.nextInt(NAMES.length)], rand.nextInt(10) + 1);
+            service = new TriageService(er, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            base = URI.create("http://127.0.0.1:" + service.port());
+        }
+
+        TriageLoadTest test = new TriageLoadTest(base);
+        System.out.printf("%d clients for %d s against %s (%s)%n", clients, seconds, base,
+                service == null ? "remote" : "in-process, " + (TriageService.virtualThreads() ? "virtual threads" : "thread pool"));
+        test.run(clients, Math.max(1, seconds / 5), false);
+        long elapsedNanos = test.run(clients, seconds, true);
+        test.report(elapsedNanos);
+        if (service != null) service.close();
+        System.exit(test.failures.get() == 0 ? 0 : 1);
+    }
+
+    // Runs the mix for the given time; the warm-up pass records nothing.
+    private long run(int clients, int seconds, boolean record) throws InterruptedException
+    {
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(seconds);
+        for (int c = 0; c < clients; c++) {
+            long seed = c;
+            pool.execute(() -> {
+                SplittableRandom rand = new SplittableRandom(seed);
+                Connection conn = null;
+                while (System.nanoTime() < deadline) {
+                    int op = pick(rand.nextInt(100));
+                    long t0 = System.nanoTime();
+                    boolean ok;
+                    try {
+                        if (conn == null) conn = new Connection(host, port);
+                        ok = send(conn, op, rand);
+                    } catch (IOException e) {
+                        if (record && failures.get() == 0) System.out.println("Error sending " + OPS[op] + ": " + e);
+                        if (conn != null) conn.close();
+                        conn = null;
+                        ok = false;
+                    }
+                    long micros = (System.nanoTime() - t0) / 1000;
+                    if (!record) continue;
+                    if (!ok) failures.incrementAndGet();
+                    all.record(micros);
+                    perOp[op].record(micros);
+                }
+                if (conn != null) conn.close();
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(seconds + 60L, TimeUnit.SECONDS);
+        return System.nanoTime() - start;
+    }
+
+    private static int pick(int roll)
+    {
+        for (int i = 0; i < MIX.length; i++) {
+            if (roll < MIX[i]) return i;
+            roll -= MIX[i];
+        }
+        return 0;
+    }
+
+    // A 404 on re-triage, lookup or remove is expected (the patient may have
+    // been treated meanwhile) and counts as a success.
+    private boolean send(Connection conn, int op, SplittableRandom rand) throws IOException
+    {
+        int someone = Math.max(1, lastId.get() - rand.nextInt(5000));
+        int status = switch (op) {
+            case 0 -> conn.request("POST", "/patients", "{\"name\":\"" + NAMES[rand.nextInt(NAMES.length)] + "\",\"severity\":" + (rand.nextInt(10) + 1) + "}");
+            case 1 -> conn.request("POST", "/treat", null);
+            case 2 -> conn.request("GET", "/next", null);
+            case 3 -> conn.request("PUT", "/patients/" + someone + "/severity", "{\"severity\":" + (rand.nextInt(10) + 1) + "}");
+            case 4 -> conn.request("GET", "/patients/" + someone, null);
+            default -> conn.request("DELETE", "/patients/" + someone, null);
+        };
+        if (op == 0 && status == 201) lastId.accumulateAndGet(Integer.parseInt(conn.body.replaceAll("\\D", "")), Math::max);
+        return status < 300 || (status == 404 && op >= 3);
+    }
+
+    // One persistent HTTP/1.1 connection, like a kiosk that stays connected.
+    // Just enough protocol for TriageService: Content-Length bodies only.
+    private static final class Connection
+    {
+        private final Socket socket;
+        private final BufferedInputStream in;
+        private final OutputStream out;
+        private final String hostHeader;
+        String body;
+
+        Connection(String host, int port) throws IOException
+        {
+            socket = new Socket(host, port);
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(10_000);
+            in = new BufferedInputStream(socket.getInputStream(), 8192);
+            out = new BufferedOutputStream(socket.getOutputStream(), 8192);
+            hostHeader = host + ":" + port;
+        }
+
+        int request(String method, String path, String json) throws IOException
+        {
+            byte[] payload = json == null ? new byte[0] : json.getBytes(StandardCharsets.UTF_8);
+            String head = method + " " + path + " HTTP/1.1\r\nHost: " + hostHeader + "\r\nContent-Length: " + payload.length
+                    + (json == null ? "" : "\r\nContent-Type: application/json") + "\r\n\r\n";
+            out.write(head.getBytes(StandardCharsets.US_ASCII));
+            out.write(payload);
+            out.flush();
+
+            String status = readLine();
+            if (status == null || status.length() < 12) throw new EOFException("connection closed by server");
+            int length = 0;
+            for (String line; (line = readLine()) != null && !line.isEmpty(); ) {
+                if (line.regionMatches(true, 0, "Content-Length:", 0, 15)) length = Integer.parseInt(line.substring(15).trim());
+            }
+            body = new String(in.readNBytes(length), StandardCharsets.UTF_8);
+            return Integer.parseInt(status, 9, 12, 10);
+        }
+
+        private String readLine() throws IOException
+        {
+            StringBuilder sb = new StringBuilder(64);
+            for (int c; (c = in.read()) != '\n'; ) {
+                if (c < 0) return sb.length() == 0 ? null : sb.toString();
+                if (c != '\r') sb.append((char) c);
+            }
+            return sb.toString();
+        }
+
+        void close()
+        {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private void report(long elapsedNanos)
+    {
+        double secs = elapsedNanos / 1e9;
+        System.out.printf("%,d requests in %.1f s: %,.0f requests/sec, %d failed%n", all.count(), secs, all.count() / secs, failures.get());
+        System.out.printf("%-10s %10s %10s %10s %10s %10s%n", "endpoint", "requests", "p50 us", "p99 us", "p99.9 us", "max us");
+        for (int i = 0; i < OPS.length; i++) row(OPS[i], perOp[i]);
+        row("all", all);
+    }
+
+    private static void row(String name, LogHistogram h)
+    {
+        System.out.printf("%-10s %10d %10d %10d %10d %10d%n", name, h.count(), h.percentile(0.50), h.percentile(0.99), h.percentile(0.999), h.max());
+    }
+}
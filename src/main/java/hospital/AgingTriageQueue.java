@@ -0,0 +1,105 @@
+package hospital;
+
+import java.time.*;
+import java.util.*;
+
+// Aging triage: a patient's effective priority is severity + waited / step, so
+// a severity-2 patient who has waited 8 steps outranks a fresh severity-10.
+//
+// Every patient ages at the same rate, so for any two patients the difference
+// in effective priority never changes while both wait. Ordering them by the
+// fixed key  arrival - severity * step  is therefore the same as ordering by
+// effective priority at any moment, and nothing has to be re-keyed as the
+// clock moves. Each level is kept in key order, i.e. by arrival, so only the
+// ten bucket heads are candidates: peek and poll compare at most ten keys.
+//
+// A re-triaged patient keeps aging from their original arrival, so unlike in
+// SeverityBuckets they are filed into their new level by key, not at its back.
+// Each level also keeps its nodes in a TreeSet ordered by (key, seq, id), which
+// finds the patient's predecessor in O(log n); the linked list stays for the
+// O(1) heads and in-order walks. Every link and unlink is O(log n) in the size
+// of the level, re-triage included.
+class AgingTriageQueue extends SeverityBuckets 
+{
+    private static final Comparator<Node> BY_KEY = Comparator.<Node>comparingLong(n -> n.key)
+            .thenComparingLong(n -> n.patient.seq)
+            .thenComparingInt(n -> n.patient.id);
+
+    private final long stepMillis;
+    private final TreeSet<Node>[] levels;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    AgingTriageQueue(Duration step) 
+    {
+        this.stepMillis = step.toMillis();
+        levels = new TreeSet[LEVELS + 1];
+        for (int level = 1; level <= LEVELS; level++) levels[level] = new TreeSet<>(BY_KEY);
+    }
+
+    long stepMillis() 
+    {
+        return stepMillis;
+    }
+
+    @Override
+    long keyOf(Patient p) 
+    {
+        return agingKey(p);
+    }
+
+    @Override
+    void link(Node node, int level) 
+    {
+        Node tail = tails[level];
+        // new arrivals belong at the back; skip the search for them
+        Node prev = tail == null || BY_KEY.compare(tail, node) < 0 ? tail : levels[level].lower(node);
+        levels[level].add(node);
+        linkAfter(node, level, prev);
+    }
+
+    @Override
+    void unlink(Node node) 
+    {
+        levels[node.bucket].remove(node);
+        super.unlink(node);
+    }
+
+    @Override
+    int nextLevel() 
+    {
+        int best = -1;
+        long bestKey = Long.MAX_VALUE;
+        for (int bits = nonEmpty; bits != 0; bits &= bits - 1) {
+            int level = Integer.numberOfTrailingZeros(bits);
+            // ties go to the higher severity, which is scanned last
+            if (heads[level].key <= bestKey) {
+                bestKey = heads[level].key;
+                best = level;
+            }
+        }
+        return best;
+    }
+
+    // Merges the levels by key, i.e. the order repeated polls would produce now.
+    @Override
+    public List<Patient> inOrder() 
+    {
+        List<Patient> list = new ArrayList<>(size());
+        Node[] cursor = heads.clone();
+        while (true) {
+            Node best = null;
+            for (int level = 1; level <= LEVELS; level++) {
+                Node n = cursor[level];
+                if (n != null && (best == null || n.key <= best.key)) best = n;
+            }
+            if (best == null) return list;
+            list.add(best.patient);
+            cursor[best.bucket] = best.qNext;
+        }
+    }
+
+    private long agingKey(Patient p) 
+    {
+        return p.arrivalMillis - p.severity * stepMillis;
+    }
+}
@@ -0,0 +1,332 @@
+package hospital;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.*;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+// Long-lived background writer for treated_log.txt. Callers only enqueue a line;
+// one thread keeps the file open, writes records in batches and commits them
+// once a batch fills up or the oldest pending record reaches maxDelayMs.
+// Callers never block: the queue is bounded, and when a stalled disk lets it
+// fill up further records are dropped and counted (dropped()) rather than
+// holding up treatment. A writer thread that dies on an error (file cannot be
+// opened or rotated, encoder failure) is restarted by the next log call, at
+// most once a second.
+//
+// With a Rotation the live file is closed once it reaches maxBytes or maxAge,
+// renamed to name-yyyyMMdd-HHmmss.ext and gzipped in the background to
+// name-yyyyMMdd-HHmmss.ext.gz; writing continues in a fresh file right away.
+class AsyncLogWriter 
+{
+    static final class Rotation 
+    {
+        // 64 MB or one day, whichever comes first
+        static final Rotation DEFAULT = new Rotation(64L << 20, Duration.ofDays(1), true);
+
+        final long maxBytes;
+        final Duration maxAge;
+        final boolean compress;
+
+        Rotation(long maxBytes, Duration maxAge, boolean compress) 
+        {
+            this.maxBytes = maxBytes;
+            this.maxAge = maxAge;
+            this.compress = compress;
+        }
+    }
+
+    // Optional per-file rewriting of entries, applied on the writer thread just
+    // before they are written: lets a format define something (a name code,
+    // say) once per file, so each file, archives included, reads on its own.
+    interface FileEncoder 
+    {
+        // A new file (or a new session appending to the old one) begins.
+        void startFile();
+
+        String encode(String entry);
+    }
+
+    private static final long RESTART_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final DateTimeFormatter ARCHIVE_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    enum Durability 
+    {
+        NONE,   // leave records in the stream buffer until it fills or we close
+        FLUSH,  // hand every batch to the OS
+        FSYNC   // force every batch to the device
+    }
+
+    private final File file;
+    private final int batchSize;
+    private final long maxDelayNanos;
+    private final Durability durability;
+    private final BlockingQueue<String> queue;
+    private final Rotation rotation;
+    private final FileEncoder encoder;
+
+    // worker, closed and restartedNanos change under this; log() enqueues
+    // under it too, so nothing is queued after close() has begun
+    private Thread worker;
+    private volatile boolean closed;
+    private volatile boolean workerFailed;
+    private long restartedNanos;
+    private final AtomicLong dropped = new AtomicLong();
+    private ExecutorService compressor;
+
+    // state of the live file, touched only by the writer thread
+    private FileOutputStream fos;
+    private Writer out;
+    private long fileBytes;
+    private long fileOpenedNanos;
+
+    AsyncLogWriter(File file) 
+    {
+        this(file, null);
+    }
+
+    AsyncLogWriter(File file, Rotation rotation) 
+    {
+        this(file, rotation, null);
+    }
+
+    AsyncLogWriter(File file, Rotation rotation, FileEncoder encoder) 
+    {
+        this(file, Durability.FLUSH, rotation, encoder);
+    }
+
+    AsyncLogWriter(File file, Durability durability, Rotation rotation, FileEncoder encoder) 
+    {
+        this(file, 4096, 64, 50, durability, rotation, encoder);
+    }
+
+    AsyncLogWriter(File file, int capacity, int batchSize, long maxDelayMs, Durability durability) 
+    {
+        this(file, capacity, batchSize, maxDelayMs, durability, null, null);
+    }
+
+    AsyncLogWriter(File file, int capacity, int batchSize, long maxDelayMs, Durability durability, Rotation rotation, FileEncoder encoder) 
+    {
+        this.file = file;
+        this.batchSize = batchSize;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+        this.durability = durability;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.rotation = rotation;
+        this.encoder = encoder;
+    }
+
+    public void log(String record) 
+    {
+        synchronized (this) {
+            if (closed) {
+                System.out.println("Error writing log: writer is closed");
+                return;
+            }
+            ensureWorker();
+            if (queue.offer(record)) return;
+        }
+        if (dropped.getAndIncrement() == 0) System.out.println("Error writing log: queue full, dropping records");
+    }
+
+    // Records lost so far: queue full, or in a batch the writer failed on.
+    public long dropped() 
+    {
+        return dropped.get();
+    }
+
+    // Queues a batch of records as one entry, so it costs one hand-off and
+    // lands in the file contiguously.
+    public void logAll(List<String> records) 
+    {
+        if (!records.isEmpty()) log(String.join(System.lineSeparator(), records));
+    }
+
+    // Drains everything still queued, commits it and stops the writer thread.
+    public void close() 
+    {
+        Thread t;
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+            // a writer that died still gets one last try at the queue
+            if (workerFailed && !queue.isEmpty()) startWorker();
+            t = worker;
+        }
+        if (t == null) return;
+        try {
+            t.join();
+            if (compressor != null) {
+                compressor.shutdown();
+                compressor.awaitTermination(1, TimeUnit.MINUTES);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        dropped.addAndGet(queue.size());
+        queue.clear();
+        if (dropped.get() > 0) System.out.println("Error writing log: " + dropped.get() + " records dropped");
+    }
+
+    // Called under this: starts the writer, or restarts one that failed.
+    private void ensureWorker() 
+    {
+        if (worker != null && !workerFailed) return;
+        if (worker != null && System.nanoTime() - restartedNanos < RESTART_INTERVAL_NANOS) return;
+        startWorker();
+    }
+
+    private void startWorker() 
+    {
+        restartedNanos = System.nanoTime();
+        workerFailed = false;
+        worker = new Thread(this::run, "treated-log-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    private void run() 
+    {
+        List<String> batch = new ArrayList<>(batchSize);
+        String separator = System.lineSeparator();
+        try 
+        {
+            openFile();
+            int pending = 0;
+            long oldestPending = 0;
+            while (!closed || !queue.isEmpty()) 
+            {
+                String first = queue.poll(pending == 0 ? maxDelayNanos : Math.max(0, oldestPending + maxDelayNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (first != null) {
+                    if (pending == 0) oldestPending = System.nanoTime();
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                    for (String record : batch) {
+                        if (encoder != null) record = encoder.encode(record);
+                        out.write(record);
+                        out.write(separator);
+                        // chars, not bytes: close enough for a rotation threshold
+                        fileBytes += record.length() + separator.length();
+                    }
+                    pending += batch.size();
+                    batch.clear();
+                }
+                if (pending > 0 && (pending >= batchSize || System.nanoTime() - oldestPending >= maxDelayNanos)) {
+                    commit();
+                    pending = 0;
+                }
+                if (rotationDue()) {
+                    rotate();
+                    pending = 0;
+                }
+            }
+            closeFile();
+        } 
+        catch (IOException | RuntimeException e) 
+        {
+            System.out.println("Error writing log: " + e);
+            dropped.addAndGet(batch.size());
+            closeQuietly();
+            workerFailed = true;
+        } 
+        catch (InterruptedException e) 
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void closeQuietly() 
+    {
+        try {
+            if (out != null) out.close();
+        } catch (IOException e) {
+            // already failing; the next worker opens the file afresh
+        }
+        out = null;
+        fos = null;
+    }
+
+    private void commit() throws IOException 
+    {
+        if (durability == Durability.NONE) return;
+        out.flush();
+        if (durability == Durability.FSYNC) fos.getChannel().force(false);
+    }
+
+    private void openFile() throws IOException 
+    {
+        fos = new FileOutputStream(file, true);
+        out = new BufferedWriter(new OutputStreamWriter(fos, StandardCharsets.UTF_8));
+        fileBytes = file.length();
+        fileOpenedNanos = System.nanoTime();
+        if (encoder != null) encoder.startFile();
+    }
+
+    // Everything written so far reaches the file (and the device under FSYNC).
+    private void closeFile() throws IOException 
+    {
+        out.flush();
+        if (durability == Durability.FSYNC) fos.getChannel().force(false);
+        out.close();
+    }
+
+    private boolean rotationDue() 
+    {
+        if (rotation == null || fileBytes == 0) return false;
+        return fileBytes >= rotation.maxBytes || System.nanoTime() - fileOpenedNanos >= rotation.maxAge.toNanos();
+    }
+
+    private void rotate() throws IOException 
+    {
+        closeFile();
+        File archive = archiveFile();
+        Files.move(file.toPath(), archive.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        openFile();
+        if (!rotation.compress) return;
+        if (compressor == null) {
+            compressor = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "log-compressor");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        compressor.execute(() -> gzip(archive));
+    }
+
+    // name-yyyyMMdd-HHmmss.ext next to the live file, with -2, -3 ... on a clash.
+    private File archiveFile() 
+    {
+        String name = file.getName();
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        String ext = dot > 0 ? name.substring(dot) : "";
+        String stamp = base + "-" + LocalDateTime.now().format(ARCHIVE_STAMP);
+        File archive = new File(file.getParentFile(), stamp + ext);
+        for (int n = 2; archive.exists() || new File(archive.getPath() + ".gz").exists(); n++) {
+            archive = new File(file.getParentFile(), stamp + "-" + n + ext);
+        }
+        return archive;
+    }
+
+    // Writes archive.gz next to the archive, then deletes the plain copy.
+    private static void gzip(File archive) 
+    {
+        File gz = new File(archive.getPath() + ".gz");
+        File tmp = new File(gz.getPath() + ".tmp");
+        try {
+            try (InputStream in = new FileInputStream(archive);
+                 OutputStream zout = new GZIPOutputStream(new FileOutputStream(tmp), 1 << 16)) {
+                in.transferTo(zout);
+            }
+            Files.move(tmp.toPath(), gz.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            Files.delete(archive.toPath());
+        } catch (IOException e) {
+            System.out.println("Error compressing log " + archive.getName() + ": " + e.getMessage());
+        }
+    }
+}
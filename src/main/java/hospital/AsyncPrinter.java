@@ -0,0 +1,135 @@
+package hospital;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+// Background console writer. Callers only enqueue a message; one daemon thread
+// renders it (toString), writes whole batches in one print and flushes once
+// the queue runs dry. The queue is bounded: a flood of messages makes callers
+// wait for the printer rather than grow the heap, but never once the printer
+// thread is gone. A message whose toString throws is reported in its place.
+class AsyncPrinter implements Closeable
+{
+    private static final Object STOP = new Object();
+    private static final int BATCH = 256;
+
+    private final PrintStream out;
+    private final BlockingQueue<Object> queue;
+    private final Thread worker;
+    private long queued;    // guarded by this
+    private long written;   // guarded by this
+    private volatile boolean closed;
+
+    AsyncPrinter(PrintStream out)
+    {
+        this(out, 8192);
+    }
+
+    AsyncPrinter(PrintStream out, int capacity)
+    {
+        this.out = out;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        worker = new Thread(this::run, "console-printer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    // Prints message.toString() and a line separator, later, on the printer thread.
+    public void print(Object message)
+    {
+        if (closed) return;
+        // counted before the offer so written never passes queued, and taken
+        // back if the message never makes it, or flush() would wait for it
+        synchronized (this) {
+            queued++;
+        }
+        try {
+            while (!queue.offer(message, 100, TimeUnit.MILLISECONDS)) {
+                if (!worker.isAlive()) {
+                    dropped();
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            dropped();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private synchronized void dropped()
+    {
+        queued--;
+        notifyAll();
+    }
+
+    // Waits until everything queued before this call has been written, so
+    // synchronous output (a menu, a prompt) does not overtake it.
+    public void flush()
+    {
+        synchronized (this) {
+            long target = queued;
+            while (written < target && worker.isAlive()) {
+                try {
+                    wait(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    // Writes what is still queued and stops the printer thread.
+    public void close()
+    {
+        if (closed) return;
+        closed = true;
+        try {
+            queue.put(STOP);
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run()
+    {
+        List<Object> batch = new ArrayList<>(BATCH);
+        StringBuilder sb = new StringBuilder();
+        try {
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch, BATCH - 1);
+                boolean stop = false;
+                int messages = 0;
+                for (Object message : batch) {
+                    if (message == STOP) {
+                        stop = true;
+                        continue;
+                    }
+                    int mark = sb.length();
+                    try {
+                        sb.append(message);
+                    } catch (RuntimeException e) {
+                        sb.setLength(mark);
+                        sb.append("Error printing message: ").append(e);
+                    }
+                    sb.append(System.lineSeparator());
+                    messages++;
+                }
+                out.print(sb);
+                if (queue.isEmpty() || stop) out.flush();
+                sb.setLength(0);
+                batch.clear();
+                synchronized (this) {
+                    written += messages;
+                    notifyAll();
+                }
+                if (stop) return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package hospital;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+// Push feed of an ER's changes for wall displays and bed management, so they
+// stop polling viewWaitingList. Obtain it from HospitalER.changeFeed(); every
+// subscriber starts with a SNAPSHOT and then receives deltas (see ErChange).
+//
+// The mutation path never blocks and does not depend on the number of
+// subscribers: the ER thread freezes the change once, writes it to a shared
+// ring and, unless a wake-up is already pending, hands one to the executor.
+// Each subscription keeps its own read position in the ring and is drained by
+// a task of its own, only as far as it has requested, so a subscriber that
+// keeps up costs one array read per change. One that does not keep up has
+// what it is behind on folded into a map, coalesced per patient; once more
+// than `capacity` patients are pending, or the ring has lapped it, it is sent
+// a fresh SNAPSHOT instead, so memory per subscriber stays bounded. Loading
+// from file, which makes changes without listener callbacks, resynchronises
+// every subscriber the same way; replicated records are fed in one by one.
+//
+// Writes to the ring come from the ER's callbacks and so are as single-threaded
+// as the ER itself. onNext runs on the feed's executor; subscribers that do
+// slow work (socket writes, say) should hand it to their own thread, as
+// TriageService does.
+class ChangeFeed implements Flow.Publisher<ErChange>, ErListener, AutoCloseable
+{
+    static final int DEFAULT_CAPACITY = 1024;
+    private static final int RING = 1 << 14;
+    private static final int MASK = RING - 1;
+
+    // A ring entry; seq tells a lapped reader that its slot was reused.
+    private static final class Slot
+    {
+        final long seq;
+        final ErChange change;
+
+        Slot(long seq, ErChange change)
+        {
+            this.seq = seq;
+            this.change = change;
+        }
+    }
+
+    private final SnapshotPublisher snapshots;
+    private final Executor executor;
+    private final int capacity;
+
+    private final Slot[] ring = new Slot[RING];
+    private volatile long head;   // next sequence number to write
+    private final AtomicLong resyncs = new AtomicLong();
+    private final AtomicBoolean wakeUpPending = new AtomicBoolean();
+    private volatile Subscription[] subscribers = new Subscription[0];
+    private volatile boolean closed;
+
+    ChangeFeed(SnapshotPublisher snapshots)
+    {
+        this(snapshots, defaultExecutor(), DEFAULT_CAPACITY);
+    }
+
+    // capacity: pending patients per subscriber before it is resynchronised.
+    ChangeFeed(SnapshotPublisher snapshots, Executor executor, int capacity)
+    {
+        this.snapshots = snapshots;
+        this.executor = executor;
+        this.capacity = capacity;
+    }
+
+    // Daemon threads that exit when idle, so a feed nobody listens to costs
+    // no threads and needs no shutdown.
+    private static Executor defaultExecutor()
+    {
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "er-change-feed");
+            t.setDaemon(true);
+            return t;
+        });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    public void subscribe(Flow.Subscriber<? super ErChange> subscriber)
+    {
+        Objects.requireNonNull(subscriber);
+        Subscription s = new Subscription(subscriber);
+        synchronized (this) {
+            if (!closed) {
+                Subscription[] now = Arrays.copyOf(subscribers, subscribers.length + 1);
+                now[now.length - 1] = s;
+                subscribers = now;
+            }
+        }
+        subscriber.onSubscribe(s);
+        if (closed) s.complete();
+    }
+
+    public int subscriberCount()
+    {
+        return subscribers.length;
+    }
+
+    // Completes every subscription; the ER keeps working without the feed.
+    public void close()
+    {
+        Subscription[] all;
+        synchronized (this) {
+            closed = true;
+            all = subscribers;
+            subscribers = new Subscription[0];
+        }
+        for (Subscription s : all) s.complete();
+    }
+
+    // Every subscriber gets a fresh SNAPSHOT instead of what it has not yet
+    // been sent. HospitalER calls this after changes made without callbacks.
+    void resync()
+    {
+        resyncs.incrementAndGet();
+        wakeUp();
+    }
+
+    private synchronized void unsubscribe(Subscription s)
+    {
+        List<Subscription> rest = new ArrayList<>(Arrays.asList(subscribers));
+        rest.remove(s);
+        subscribers = rest.toArray(new Subscription[0]);
+    }
+
+
+    // ===================== ER SIDE =====================
+    // ErListener callbacks, on the thread that changed the ER.
+
+    public void onAdmitted(Patient p)
+    {
+        publish(ErChange.Kind.ADMITTED, p, p.severity);
+    }
+
+    public void onRetriaged(Patient p, int oldSeverity)
+    {
+        publish(ErChange.Kind.RETRIAGED, p, oldSeverity);
+    }
+
+    public void onRemoved(Patient p)
+    {
+        publish(ErChange.Kind.REMOVED, p, p.severity);
+    }
+
+    public void onTreated(Patient p)
+    {
+        publish(ErChange.Kind.TREATED, p, p.severity);
+    }
+
+    private void publish(ErChange.Kind kind, Patient p, int oldSeverity)
+    {
+        // a subscriber that joins later starts from a snapshot that has it
+        if (subscribers.length == 0) return;
+        // HospitalER publishes the snapshot before it calls listeners
+        ErChange change = ErChange.delta(kind, snapshots.current().version, p, oldSeverity);
+        long seq = head;
+        ring[(int) seq & MASK] = new Slot(seq, change);
+        head = seq + 1;
+        wakeUp();
+    }
+
+    private void wakeUp()
+    {
+        if (wakeUpPending.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::wakeSubscribers);
+            } catch (RejectedExecutionException e) {
+                wakeUpPending.set(false);
+            }
+        }
+    }
+
+    // Subscribers without demand are left alone; request() wakes them.
+    private void wakeSubscribers()
+    {
+        wakeUpPending.set(false);
+        for (Subscription s : subscribers) {
+            if (s.demand.get() > 0) s.signal();
+        }
+    }
+
+
+    // ===================== SUBSCRIBER SIDE =====================
+    private final class Subscription implements Flow.Subscription
+    {
+        private final Flow.Subscriber<? super ErChange> subscriber;
+        final AtomicLong demand = new AtomicLong();
+        // drain requests outstanding; whoever raises it from 0 starts the task
+        private final AtomicInteger work = new AtomicInteger();
+        private volatile boolean cancelled;
+        private volatile boolean completing;
+        private volatile long badRequest;
+
+        // owned by the running drain task
+        private long cursor;
+        private boolean snapshotDue = true;
+        private long snapshotVersion;
+        private long resyncsSeen;
+        private final LinkedHashMap<Integer, ErChange> pending = new LinkedHashMap<>();
+
+        Subscription(Flow.Subscriber<? super ErChange> subscriber)
+        {
+            this.subscriber = subscriber;
+        }
+
+        public void request(long n)
+        {
+            if (n <= 0) {
+                badRequest = n;
+            } else {
+                demand.accumulateAndGet(n, (d, add) -> d + add < 0 ? Long.MAX_VALUE : d + add);
+            }
+            signal();
+        }
+
+        public void cancel()
+        {
+            if (cancelled) return;
+            cancelled = true;
+            unsubscribe(this);
+        }
+
+        // onComplete goes through drain, so it never overlaps an onNext.
+        void complete()
+        {
+            completing = true;
+            signal();
+        }
+
+        void signal()
+        {
+            if (cancelled) return;
+            if (work.getAndIncrement() == 0) {
+                try {
+                    executor.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    work.set(0);
+                    System.out.println("Error in change feed: " + e.getMessage());
+                }
+            }
+        }
+
+        private void drain()
+        {
+            int missed = 1;
+            do {
+                deliver();
+                missed = work.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void deliver()
+        {
+            while (!cancelled) {
+                if (completing) {
+                    cancelled = true;
+                    subscriber.onComplete();
+                    return;
+                }
+                if (badRequest != 0) {
+                    cancel();
+                    subscriber.onError(new IllegalArgumentException("request(" + badRequest + "): demand must be positive"));
+                    return;
+                }
+                if (demand.get() == 0) return;
+                ErChange next = next();
+                if (next == null) return;
+                if (demand.get() != Long.MAX_VALUE) demand.decrementAndGet();
+                try {
+                    subscriber.onNext(next);
+                } catch (RuntimeException e) {
+                    cancel();
+                    System.out.println("Error in change feed subscriber: " + e.getMessage());
+                }
+            }
+        }
+
+        // The next item for this subscriber, or null when it is up to date.
+        private ErChange next()
+        {
+            while (true) {
+                long r = resyncs.get();
+                if (r != resyncsSeen) {
+                    resyncsSeen = r;
+                    snapshotDue = true;
+                }
+                if (snapshotDue) {
+                    // every change before h is in the snapshot; later ones
+                    // that are too get skipped by version
+                    long h = head;
+                    ErSnapshot current = snapshots.current();
+                    cursor = h;
+                    snapshotVersion = current.version;
+                    snapshotDue = false;
+                    pending.clear();
+                    return ErChange.snapshot(current);
+                }
+
+                long h = head;
+                // behind by more than it asked for: coalesce what is waiting
+                if (!pending.isEmpty() || h - cursor > demand.get()) {
+                    if (!absorb(h)) continue;
+                    Iterator<ErChange> it = pending.values().iterator();
+                    if (!it.hasNext()) return null;
+                    ErChange c = it.next();
+                    it.remove();
+                    return c;
+                }
+                while (cursor < h) {
+                    ErChange c = read(cursor);
+                    if (c == null) break;
+                    cursor++;
+                    if (c.version > snapshotVersion) return c;
+                }
+                if (cursor >= h) return null;
+                // lapped by the ring
+                snapshotDue = true;
+            }
+        }
+
+        // Folds ring entries up to h into pending; false when this subscriber
+        // has to be resynchronised instead.
+        private boolean absorb(long h)
+        {
+            for (; cursor < h; cursor++) {
+                ErChange c = read(cursor);
+                if (c == null || (pending.size() >= capacity && !pending.containsKey(c.patient.id))) {
+                    snapshotDue = true;
+                    return false;
+                }
+                if (c.version <= snapshotVersion) continue;
+                // re-inserted at the end, so versions still arrive in order
+                ErChange before = pending.remove(c.patient.id);
+                ErChange merged = before == null ? c : before.then(c);
+                if (merged != null) pending.put(c.patient.id, merged);
+            }
+            return true;
+        }
+
+        private ErChange read(long seq)
+        {
+            Slot s = ring[(int) seq & MASK];
+            return s != null && s.seq == seq ? s.change : null;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package hospital;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+// Thread-safe waiting room for several intake desks and doctors at once.
+// IDs come from an AtomicInteger, lookups from a ConcurrentHashMap, and the
+// triage order from one lock-free FIFO per severity level. Every queued entry
+// carries a state word; whoever moves it from WAITING with a CAS owns the
+// patient, so a patient is treated, removed or re-triaged exactly once no
+// matter how callers interleave. An entry claimed by a re-triage or removal
+// stays in its stripe as a tombstone. A doctor drops it on reaching it, and a
+// stripe whose tombstones outnumber its waiting entries is compacted at once,
+// so re-triaging without treating cannot grow the stripes without bound.
+//
+// Like SeverityBuckets, a re-triaged patient joins the back of the new level.
+// This variant keeps everything in memory; it does not write patients.txt.
+class ConcurrentHospitalER implements TriageEngine 
+{
+    private static final int LEVELS = 10;
+
+    private static final class Entry 
+    {
+        // TAKEN: polled and treated. BURIED: claimed in place, a tombstone
+        // until a doctor or a compaction takes it out (REAPED).
+        static final int WAITING = 0, TAKEN = 1, BURIED = 2, REAPED = 3;
+
+        final Patient patient;
+        final int severity;
+        final AtomicInteger state = new AtomicInteger(WAITING);
+
+        Entry(Patient patient, int severity) 
+        {
+            this.patient = patient;
+            this.severity = severity;
+        }
+
+        boolean claim(int to) 
+        {
+            return state.get() == WAITING && state.compareAndSet(WAITING, to);
+        }
+
+        boolean reap() 
+        {
+            return state.get() == BURIED && state.compareAndSet(BURIED, REAPED);
+        }
+    }
+
+    // Fewer tombstones than this are left for the doctors to drop.
+    private static final int MIN_COMPACT = 64;
+
+    private final AtomicInteger idCounter = new AtomicInteger(1);
+    private final ConcurrentHashMap<Integer, Entry> waiting = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Entry>[] stripes;
+    // per level: WAITING entries, tombstones, and whether a compaction is running
+    private final AtomicIntegerArray live = new AtomicIntegerArray(LEVELS + 1);
+    private final AtomicIntegerArray tombstones = new AtomicIntegerArray(LEVELS + 1);
+    private final AtomicIntegerArray compacting = new AtomicIntegerArray(LEVELS + 1);
+
+    ConcurrentHospitalER() 
+    {
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        ConcurrentLinkedQueue<Entry>[] levels = new ConcurrentLinkedQueue[LEVELS + 1];
+        stripes = levels;
+        for (int level = 1; level <= LEVELS; level++) stripes[level] = new ConcurrentLinkedQueue<>();
+    }
+
+    public int addPatient(String name, int severity) 
+    {
+        Patient p = new Patient(idCounter.getAndIncrement(), name, clampSeverity(severity));
+        Entry entry = new Entry(p, p.severity);
+        waiting.put(p.id, entry);
+        enqueue(entry);
+        return p.id;
+    }
+
+    public int addEmergencyPatient(String name, int severity) 
+    {
+        return addPatient(name, Math.max(severity, LEVELS));
+    }
+
+    public boolean updateSeverity(int id, int newSeverity) 
+    {
+        int severity = clampSeverity(newSeverity);
+        while (true) {
+            Entry current = waiting.get(id);
+            if (current == null) return false;
+            if (current.claim(Entry.BURIED)) {
+                Entry moved = new Entry(current.patient, severity);
+                current.patient.severity = severity;
+                waiting.replace(id, current, moved);
+                enqueue(moved);
+                buried(current);
+                return true;
+            }
+            // someone else owns the old entry; wait for them to republish or drop it
+            Thread.onSpinWait();
+        }
+    }
+
+    public boolean removePatient(int id) 
+    {
+        while (true) {
+            Entry current = waiting.get(id);
+            if (current == null) return false;
+            if (current.claim(Entry.BURIED)) {
+                waiting.remove(id, current);
+                buried(current);
+                return true;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    // Returns the treated patient, or null when nobody is waiting.
+    public Patient treatNextPatient() 
+    {
+        for (int level = LEVELS; level >= 1; level--) {
+            ConcurrentLinkedQueue<Entry> stripe = stripes[level];
+            Entry entry;
+            while ((entry = stripe.poll()) != null) {
+                if (entry.claim(Entry.TAKEN)) {
+                    live.decrementAndGet(level);
+                    waiting.remove(entry.patient.id, entry);
+                    return entry.patient;
+                }
+                if (entry.reap()) tombstones.decrementAndGet(level);
+            }
+        }
+        return null;
+    }
+
+    public int treatNext() 
+    {
+        Patient p = treatNextPatient();
+        return p == null ? -1 : p.id;
+    }
+
+    public int peekNext() 
+    {
+        Patient p = peekNextPatient();
+        return p == null ? -1 : p.id;
+    }
+
+    public Patient peekNextPatient() 
+    {
+        for (int level = LEVELS; level >= 1; level--) {
+            for (Entry entry : stripes[level]) {
+                if (entry.state.get() == Entry.WAITING) return entry.patient;
+            }
+        }
+        return null;
+    }
+
+    public Patient searchPatientById(int id) 
+    {
+        Entry entry = waiting.get(id);
+        return entry == null ? null : entry.patient;
+    }
+
+    public boolean isEmpty() 
+    {
+        return waiting.isEmpty();
+    }
+
+    public int size() 
+    {
+        return waiting.size();
+    }
+
+    // Entries in the stripes, tombstones included.
+    int queued() 
+    {
+        int queued = 0;
+        for (int level = 1; level <= LEVELS; level++) queued += stripes[level].size();
+        return queued;
+    }
+
+    private void enqueue(Entry entry) 
+    {
+        live.incrementAndGet(entry.severity);
+        stripes[entry.severity].offer(entry);
+    }
+
+    // An entry claimed in place; compacts its stripe once tombstones outnumber
+    // the patients still waiting there.
+    private void buried(Entry entry) 
+    {
+        int level = entry.severity;
+        int dead = tombstones.incrementAndGet(level);
+        int alive = live.decrementAndGet(level);
+        if (dead < MIN_COMPACT || dead <= alive) return;
+        if (!compacting.compareAndSet(level, 0, 1)) return;
+        try {
+            // reap() settles the count when a doctor polls the same entry meanwhile
+            stripes[level].removeIf(e -> {
+                if (!e.reap()) return false;
+                tombstones.decrementAndGet(level);
+                return true;
+            });
+        } finally {
+            compacting.set(level, 0);
+        }
+    }
+
+    private int clampSeverity(int s) 
+    {
+        return Math.max(1, Math.min(s, LEVELS));
+    }
+}
@@ -0,0 +1,79 @@
+package hospital;
+
+import java.io.Closeable;
+import java.time.LocalDateTime;
+
+// Console view of an ER's waiting list: one line per admission, re-triage,
+// removal and treatment, worded as HospitalER used to print them itself.
+// The listener only copies the event's fields on the triage thread; the
+// AsyncPrinter formats and writes them on its own thread. Headless runs and
+// benchmarks simply don't attach one.
+class ConsoleListener implements ErListener, Closeable
+{
+    private final AsyncPrinter printer;
+
+    ConsoleListener()
+    {
+        this(new AsyncPrinter(System.out));
+    }
+
+    ConsoleListener(AsyncPrinter printer)
+    {
+        this.printer = printer;
+    }
+
+    public void onAdmitted(Patient p)
+    {
+        printer.print(new Line("Added: ", p));
+    }
+
+    public void onRetriaged(Patient p, int oldSeverity)
+    {
+        printer.print(new Line("Severity updated: ", p));
+    }
+
+    public void onRemoved(Patient p)
+    {
+        printer.print(new Line("Removed: ", p));
+    }
+
+    public void onTreated(Patient p)
+    {
+        printer.print(new Line("Treating: ", p));
+    }
+
+    // Waits until every event so far is on the console.
+    public void flush()
+    {
+        printer.flush();
+    }
+
+    public void close()
+    {
+        printer.close();
+    }
+
+    // The patient as of the event; later changes to p don't leak into the line.
+    private static final class Line
+    {
+        final String label;
+        final int id;
+        final String name;
+        final int severity;
+        final LocalDateTime arrivalTime;
+
+        Line(String label, Patient p)
+        {
+            this.label = label;
+            this.id = p.id;
+            this.name = p.name;
+            this.severity = p.severity;
+            this.arrivalTime = p.arrivalTime;
+        }
+
+        public String toString()
+        {
+            return label + Patient.describe(id, name, severity, arrivalTime);
+        }
+    }
+}
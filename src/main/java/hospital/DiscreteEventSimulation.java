@@ -0,0 +1,237 @@
+package hospital;
+
+import java.util.*;
+
+// Discrete-event simulation of an ER shift on a virtual clock. Patients arrive
+// as a Poisson process, get a severity from a weighted distribution, and N
+// doctors treat them through the regular HospitalER API with exponentially
+// distributed treatment times. Nothing sleeps and nothing prints per event, so
+// a year of operation runs in about a second.
+//
+//   gradle run -PmainClass=hospital.DiscreteEventSimulation --args="hours=8760 arrivalsPerHour=12 doctors=6 seed=42 policy=strict|bucketed|aging"
+public class DiscreteEventSimulation
+{
+    static class Config
+    {
+        double hours = 24 * 365;
+        double arrivalsPerHour = 12;
+        int doctors = 6;
+        long seed = 42;
+        String policy = "strict";
+        // relative frequency of severity 1..10 at intake
+        double[] severityWeights = {14, 14, 13, 12, 11, 10, 9, 8, 6, 3};
+        // mean minutes a doctor spends on a patient of severity 1..10
+        double[] treatmentMinutes = {10, 12, 15, 18, 22, 26, 32, 40, 50, 60};
+
+        static Config parse(String[] args)
+        {
+            Config c = new Config();
+            for (String arg : args) {
+                String[] kv = arg.split("=", 2);
+                if (kv.length < 2) continue;
+                switch (kv[0]) {
+                    case "hours" -> c.hours = Double.parseDouble(kv[1]);
+                    case "arrivalsPerHour" -> c.arrivalsPerHour = Double.parseDouble(kv[1]);
+                    case "doctors" -> c.doctors = Integer.parseInt(kv[1]);
+                    case "seed" -> c.seed = Long.parseLong(kv[1]);
+                    case "policy" -> c.policy = kv[1];
+                    default -> System.out.println("Ignoring unknown option: " + kv[0]);
+                }
+            }
+            return c;
+        }
+    }
+
+    private static final int ARRIVAL = 0;
+    private static final int DOCTOR_FREE = 1;
+    private static final int MAX_WAIT_MINUTES = 7 * 24 * 60;
+
+    private final Config config;
+    private final Random rand;
+    private final HospitalER er;
+    private final ManualClock clock = new ManualClock();
+    private final double[] severityCdf = new double[10];
+
+    // pending events: a tiny binary heap keyed by virtual time (minutes)
+    private double[] eventTime = new double[8];
+    private int[] eventKind = new int[8];
+    private int events;
+
+    private double[] arrivedAt = new double[1024];
+    private int idleDoctors;
+    private double now;
+
+    private long wallNanos;
+    private long processed;
+    private long treated;
+    private double busyMinutes;
+    private double queueArea;
+    private int maxQueue;
+    private final long[] treatedBySeverity = new long[11];
+    private final double[] waitSum = new double[11];
+    private final double[] waitMax = new double[11];
+    private final int[][] waitHistogram = new int[11][MAX_WAIT_MINUTES + 1];
+
+    DiscreteEventSimulation(Config config)
+    {
+        this.config = config;
+        this.rand = new Random(config.seed);
+        this.er = new HospitalER(TriagePolicy.parse(config.policy).newQueue(), false);
+        er.setQuiet(true);
+        // arrival times in virtual time, so AGING ages patients by simulated waits
+        er.setClock(clock);
+
+        double total = 0;
+        for (double w : config.severityWeights) total += w;
+        double acc = 0;
+        for (int i = 0; i < 10; i++) {
+            acc += config.severityWeights[i] / total;
+            severityCdf[i] = acc;
+        }
+    }
+
+    public static void main(String[] args)
+    {
+        new DiscreteEventSimulation(Config.parse(args)).run().printReport();
+    }
+
+    public DiscreteEventSimulation run()
+    {
+        long wallStart = System.nanoTime();
+        double end = config.hours * 60;
+        idleDoctors = config.doctors;
+        schedule(exponential(60 / config.arrivalsPerHour), ARRIVAL);
+
+        while (events > 0 && eventTime[0] <= end) {
+            double t = eventTime[0];
+            int kind = eventKind[0];
+            popEvent();
+
+            int waiting = er.size();
+            queueArea += waiting * (t - now);
+            now = t;
+            clock.setMillis(ManualClock.EPOCH.toEpochMilli() + (long) (now * 60_000));
+            processed++;
+
+            if (kind == ARRIVAL) {
+                int id = er.addPatient("Patient", sampleSeverity());
+                if (id >= arrivedAt.length) arrivedAt = Arrays.copyOf(arrivedAt, arrivedAt.length * 2);
+                arrivedAt[id] = now;
+                maxQueue = Math.max(maxQueue, er.size());
+                if (idleDoctors > 0) {
+                    idleDoctors--;
+                    startTreatment();
+                }
+                schedule(now + exponential(60 / config.arrivalsPerHour), ARRIVAL);
+            } else if (!er.isEmpty()) {
+                startTreatment();
+            } else {
+                idleDoctors++;
+            }
+        }
+        queueArea += er.size() * (end - now);
+        now = end;
+        wallNanos = System.nanoTime() - wallStart;
+        return this;
+    }
+
+    private void startTreatment()
+    {
+        Patient p = er.treatNextPatient();
+        double wait = now - arrivedAt[p.id];
+        int s = p.severity;
+        treated++;
+        treatedBySeverity[s]++;
+        waitSum[s] += wait;
+        waitMax[s] = Math.max(waitMax[s], wait);
+        waitHistogram[s][(int) Math.min(wait, MAX_WAIT_MINUTES)]++;
+
+        double duration = exponential(config.treatmentMinutes[s - 1]);
+        busyMinutes += duration;
+        schedule(now + duration, DOCTOR_FREE);
+    }
+
+    public void printReport()
+    {
+        double minutes = config.hours * 60;
+        System.out.printf("Simulated %.0f hours: %d events in %d ms (%.2f M events/sec)%n",
+                config.hours, processed, wallNanos / 1_000_000, processed / (wallNanos / 1e9) / 1e6);
+        System.out.printf("Doctors: %d   Arrivals/hour: %.1f   Policy: %s   Seed: %d%n",
+                config.doctors, config.arrivalsPerHour, config.policy, config.seed);
+        System.out.printf("Treated: %d (%.2f/hour)   Doctor utilization: %.1f%%%n",
+                treated, treated / config.hours, 100 * Math.min(busyMinutes, minutes * config.doctors) / (minutes * config.doctors));
+        System.out.printf("Queue length: avg %.2f, max %d, still waiting %d%n", queueArea / minutes, maxQueue, er.size());
+        System.out.println();
+        System.out.printf("%8s %10s %10s %8s %8s %8s %10s%n", "severity", "treated", "mean min", "p50", "p90", "p99", "max min");
+        for (int s = 10; s >= 1; s--) {
+            long n = treatedBySeverity[s];
+            if (n == 0) continue;
+            System.out.printf("%8d %10d %10.1f %8s %8s %8s %10.1f%n", s, n, waitSum[s] / n,
+                    percentile(s, 0.50), percentile(s, 0.90), percentile(s, 0.99), waitMax[s]);
+        }
+    }
+
+    // Wait-time percentile in whole minutes; the last bin collects everything
+    // beyond a week.
+    private String percentile(int severity, double q)
+    {
+        long target = (long) Math.ceil(q * treatedBySeverity[severity]);
+        long seen = 0;
+        int[] bins = waitHistogram[severity];
+        for (int m = 0; m < bins.length; m++) {
+            seen += bins[m];
+            if (seen >= target) return m == MAX_WAIT_MINUTES ? ">" + m : Integer.toString(m);
+        }
+        return "-";
+    }
+
+    private int sampleSeverity()
+    {
+        double u = rand.nextDouble();
+        for (int i = 0; i < 9; i++) {
+            if (u < severityCdf[i]) return i + 1;
+        }
+        return 10;
+    }
+
+    private double exponential(double mean)
+    {
+        return -mean * Math.log(1 - rand.nextDouble());
+    }
+
+    private void schedule(double time, int kind)
+    {
+        if (events == eventTime.length) {
+            eventTime = Arrays.copyOf(eventTime, events * 2);
+            eventKind = Arrays.copyOf(eventKind, events * 2);
+        }
+        int i = events++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (eventTime[parent] <= time) break;
+            eventTime[i] = eventTime[parent];
+            eventKind[i] = eventKind[parent];
+            i = parent;
+        }
+        eventTime[i] = time;
+        eventKind[i] = kind;
+    }
+
+    private void popEvent()
+    {
+        double time = eventTime[--events];
+        int kind = eventKind[events];
+        int i = 0;
+        int half = events >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < events && eventTime[child + 1] < eventTime[child]) child++;
+            if (time <= eventTime[child]) break;
+            eventTime[i] = eventTime[child];
+            eventKind[i] = eventKind[child];
+            i = child;
+        }
+        eventTime[i] = time;
+        eventKind[i] = kind;
+    }
+}
@@ -0,0 +1,66 @@
+package hospital;
+
+// One item of a ChangeFeed. A subscriber first gets a SNAPSHOT (the whole
+// waiting list as an ErSnapshot, shared, never copied) and then the deltas
+// that follow it; after falling too far behind it gets a fresh SNAPSHOT
+// instead of the deltas it missed. version is the ErSnapshot version that
+// first includes the change, so a delta never repeats what its SNAPSHOT
+// already showed.
+//
+// Deltas a subscriber has not taken yet are coalesced per patient: admitted
+// then re-triaged arrives as one ADMITTED with the new severity, several
+// re-triages as one RETRIAGED from the first old severity, and a patient
+// admitted and gone before delivery not at all. Versions still only increase,
+// and applying the deltas in order always yields the current waiting list.
+final class ErChange
+{
+    enum Kind { SNAPSHOT, ADMITTED, RETRIAGED, REMOVED, TREATED }
+
+    final Kind kind;
+    final long version;
+    // frozen copy as of this change; null for SNAPSHOT
+    final Patient patient;
+    // RETRIAGED only, otherwise the patient's severity
+    final int oldSeverity;
+    // SNAPSHOT only
+    final ErSnapshot snapshot;
+
+    private ErChange(Kind kind, long version, Patient patient, int oldSeverity, ErSnapshot snapshot)
+    {
+        this.kind = kind;
+        this.version = version;
+        this.patient = patient;
+        this.oldSeverity = oldSeverity;
+        this.snapshot = snapshot;
+    }
+
+    static ErChange snapshot(ErSnapshot snapshot)
+    {
+        return new ErChange(Kind.SNAPSHOT, snapshot.version, null, 0, snapshot);
+    }
+
+    static ErChange delta(Kind kind, long version, Patient p, int oldSeverity)
+    {
+        return new ErChange(kind, version, p.frozenCopy(), oldSeverity, null);
+    }
+
+    // This pending change followed by next for the same patient, as one
+    // change; null when they cancel out.
+    ErChange then(ErChange next)
+    {
+        if (kind == Kind.ADMITTED) {
+            if (next.kind == Kind.RETRIAGED) return new ErChange(Kind.ADMITTED, next.version, next.patient, next.patient.severity, null);
+            if (next.kind == Kind.TREATED || next.kind == Kind.REMOVED) return null;
+        }
+        if (kind == Kind.RETRIAGED && next.kind == Kind.RETRIAGED) {
+            return new ErChange(Kind.RETRIAGED, next.version, next.patient, oldSeverity, null);
+        }
+        return next;
+    }
+
+    public String toString()
+    {
+        return kind == Kind.SNAPSHOT ? "SNAPSHOT v" + version + " (" + snapshot.size + " waiting)"
+                : kind + " v" + version + " " + patient + (kind == Kind.RETRIAGED ? " from " + oldSeverity : "");
+    }
+}
@@ -0,0 +1,16 @@
+package hospital;
+
+// Callbacks for every change to a HospitalER's waiting list, made on the
+// thread that called into the ER, right after the change was applied and
+// journaled. Listeners must be quick: they run inside the triage call.
+interface ErListener 
+{
+    default void onAdmitted(Patient p) {}
+
+    // p.severity already holds the new severity.
+    default void onRetriaged(Patient p, int oldSeverity) {}
+
+    default void onRemoved(Patient p) {}
+
+    default void onTreated(Patient p) {}
+}
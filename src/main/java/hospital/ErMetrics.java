@@ -0,0 +1,199 @@
+package hospital;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.time.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import javax.management.ObjectName;
+
+// Operational metrics for one HospitalER: operation counters, queue-depth
+// gauges, wait-time histograms per severity and latency histograms per
+// operation. Everything is lock-free so HospitalER can record on its hot path
+// and JMX or the periodic dump can read concurrently.
+public class ErMetrics implements ErMetricsMBean 
+{
+    enum Op { ADD, TREAT, UPDATE, REMOVE }
+
+    private static final int LEVELS = 10;
+
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder treated = new LongAdder();
+    private final LongAdder removed = new LongAdder();
+    private final LongAdder retriaged = new LongAdder();
+    private final LongAdder criticalBreaches = new LongAdder();
+    private final AtomicIntegerArray depth = new AtomicIntegerArray(LEVELS + 1);
+    private final LogHistogram[] waitMillis = new LogHistogram[LEVELS + 1];
+    private final LogHistogram[] latencyNanos = new LogHistogram[Op.values().length];
+
+    private final int criticalSeverity = 9;
+    private volatile long criticalWaitTargetMillis = Duration.ofMinutes(10).toMillis();
+
+    private ScheduledExecutorService dumper;
+
+    ErMetrics() 
+    {
+        for (int s = 1; s <= LEVELS; s++) waitMillis[s] = new LogHistogram();
+        for (int i = 0; i < latencyNanos.length; i++) latencyNanos[i] = new LogHistogram();
+    }
+
+    // ----- recording, called by HospitalER -----
+
+    void admitted(int severity, long nanos) 
+    {
+        admitted.increment();
+        depth.incrementAndGet(severity);
+        latencyNanos[Op.ADD.ordinal()].record(nanos);
+    }
+
+    void treated(int severity, long waitedMillis, long nanos) 
+    {
+        treated.increment();
+        depth.decrementAndGet(severity);
+        waitMillis[severity].record(waitedMillis);
+        if (severity >= criticalSeverity && waitedMillis > criticalWaitTargetMillis) criticalBreaches.increment();
+        latencyNanos[Op.TREAT.ordinal()].record(nanos);
+    }
+
+    void retriaged(int oldSeverity, int newSeverity, long nanos) 
+    {
+        retriaged.increment();
+        depth.decrementAndGet(oldSeverity);
+        depth.incrementAndGet(newSeverity);
+        latencyNanos[Op.UPDATE.ordinal()].record(nanos);
+    }
+
+    void removed(int severity, long nanos) 
+    {
+        removed.increment();
+        depth.decrementAndGet(severity);
+        latencyNanos[Op.REMOVE.ordinal()].record(nanos);
+    }
+
+    // Counts a patient already waiting when metrics were attached.
+    void waiting(int severity) 
+    {
+        depth.incrementAndGet(severity);
+    }
+
+    // ----- publishing -----
+
+    public void registerMBean(String name) 
+    {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName("hospital:type=ErMetrics,name=" + ObjectName.quote(name)));
+        } catch (Exception e) {
+            System.out.println("Error registering metrics MBean: " + e.getMessage());
+        }
+    }
+
+    // Prints dump() every period on a daemon thread until stopDump().
+    public synchronized void startDump(Duration period, PrintStream out) 
+    {
+        if (dumper != null) return;
+        dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "er-metrics-dump");
+            t.setDaemon(true);
+            return t;
+        });
+        long ms = period.toMillis();
+        dumper.scheduleAtFixedRate(() -> out.print(dump()), ms, ms, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stopDump() 
+    {
+        if (dumper == null) return;
+        dumper.shutdownNow();
+        dumper = null;
+    }
+
+    // ----- MBean attributes -----
+
+    public long getAdmitted() { return admitted.sum(); }
+
+    public long getTreated() { return treated.sum(); }
+
+    public long getRemoved() { return removed.sum(); }
+
+    public long getRetriaged() { return retriaged.sum(); }
+
+    public int getQueueDepth() 
+    {
+        int total = 0;
+        for (int s = 1; s <= LEVELS; s++) total += depth.get(s);
+        return total;
+    }
+
+    public int[] getQueueDepthBySeverity() 
+    {
+        int[] out = new int[LEVELS + 1];
+        for (int s = 1; s <= LEVELS; s++) out[s] = depth.get(s);
+        return out;
+    }
+
+    public long[] getWaitP50MillisBySeverity() { return waitBySeverity(0.50); }
+
+    public long[] getWaitP99MillisBySeverity() { return waitBySeverity(0.99); }
+
+    public long[] getWaitMaxMillisBySeverity() { return waitBySeverity(1.0); }
+
+    public int getCriticalSeverity() { return criticalSeverity; }
+
+    public long getCriticalWaitTargetMillis() { return criticalWaitTargetMillis; }
+
+    public void setCriticalWaitTargetMillis(long millis) { criticalWaitTargetMillis = millis; }
+
+    public long getCriticalWaitBreaches() { return criticalBreaches.sum(); }
+
+    public long getAddLatencyP99Nanos() { return latencyNanos[Op.ADD.ordinal()].percentile(0.99); }
+
+    public long getTreatLatencyP99Nanos() { return latencyNanos[Op.TREAT.ordinal()].percentile(0.99); }
+
+    public long getUpdateLatencyP99Nanos() { return latencyNanos[Op.UPDATE.ordinal()].percentile(0.99); }
+
+    public long getRemoveLatencyP99Nanos() { return latencyNanos[Op.REMOVE.ordinal()].percentile(0.99); }
+
+    LogHistogram waitHistogram(int severity) 
+    {
+        return waitMillis[severity];
+    }
+
+    public String dump() 
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("=== ER metrics %s ===%n", LocalDateTime.now().withNano(0)));
+        sb.append(String.format("waiting=%d admitted=%d treated=%d removed=%d retriaged=%d critical-breaches=%d%n",
+                getQueueDepth(), getAdmitted(), getTreated(), getRemoved(), getRetriaged(), getCriticalWaitBreaches()));
+        sb.append(String.format("%-8s %7s %9s %9s %9s %9s%n", "severity", "waiting", "treated", "p50 ms", "p99 ms", "max ms"));
+        for (int s = LEVELS; s >= 1; s--) {
+            LogHistogram h = waitMillis[s];
+            if (h.count() == 0 && depth.get(s) == 0) continue;
+            sb.append(String.format("%-8d %7d %9d %9d %9d %9d%n", s, depth.get(s), h.count(), h.percentile(0.5), h.percentile(0.99), h.max()));
+        }
+        sb.append(String.format("%-8s %9s %9s %9s %9s%n", "op", "count", "p50 ns", "p99 ns", "max ns"));
+        for (Op op : Op.values()) {
+            LogHistogram h = latencyNanos[op.ordinal()];
+            sb.append(String.format("%-8s %9d %9d %9d %9d%n", op.name().toLowerCase(), h.count(), h.percentile(0.5), h.percentile(0.99), h.max()));
+        }
+        return sb.toString();
+    }
+
+    // Clears counters and histograms; queue-depth gauges keep tracking the board.
+    public void reset() 
+    {
+        admitted.reset();
+        treated.reset();
+        removed.reset();
+        retriaged.reset();
+        criticalBreaches.reset();
+        for (int s = 1; s <= LEVELS; s++) waitMillis[s].reset();
+        for (LogHistogram h : latencyNanos) h.reset();
+    }
+
+    private long[] waitBySeverity(double q) 
+    {
+        long[] out = new long[LEVELS + 1];
+        for (int s = 1; s <= LEVELS; s++) out[s] = q >= 1.0 ? waitMillis[s].max() : waitMillis[s].percentile(q);
+        return out;
+    }
+}
@@ -0,0 +1,46 @@
+package hospital;
+
+// JMX view of ErMetrics (ObjectName hospital:type=ErMetrics,name=...).
+// Per-severity arrays are indexed by severity, so slot 0 is always unused.
+public interface ErMetricsMBean 
+{
+    long getAdmitted();
+
+    long getTreated();
+
+    long getRemoved();
+
+    long getRetriaged();
+
+    int getQueueDepth();
+
+    int[] getQueueDepthBySeverity();
+
+    long[] getWaitP50MillisBySeverity();
+
+    long[] getWaitP99MillisBySeverity();
+
+    long[] getWaitMaxMillisBySeverity();
+
+    // Severity at or above which a patient counts as critical.
+    int getCriticalSeverity();
+
+    long getCriticalWaitTargetMillis();
+
+    void setCriticalWaitTargetMillis(long millis);
+
+    // Critical patients treated after waiting longer than the target.
+    long getCriticalWaitBreaches();
+
+    long getAddLatencyP99Nanos();
+
+    long getTreatLatencyP99Nanos();
+
+    long getUpdateLatencyP99Nanos();
+
+    long getRemoveLatencyP99Nanos();
+
+    String dump();
+
+    void reset();
+}
@@ -0,0 +1,60 @@
+package hospital;
+
+import java.util.*;
+
+// One immutable version of an ER's waiting list, for displays and reports
+// that read while triage goes on. Both orders are persistent treaps shared
+// with neighbouring versions, so taking a snapshot copies nothing and
+// iterating one needs no lock. The Patients inside are frozen copies; do not
+// modify them.
+//
+// Obtain snapshots from HospitalER.enableSnapshots().current().
+class ErSnapshot
+{
+    static final ErSnapshot EMPTY = new ErSnapshot(0, 0, null, null);
+
+    final long version;
+    final int size;
+    private final PersistentTreap.Node byArrival;
+    private final PersistentTreap.Node bySeverity;
+
+    ErSnapshot(long version, int size, PersistentTreap.Node byArrival, PersistentTreap.Node bySeverity)
+    {
+        this.version = version;
+        this.size = size;
+        this.byArrival = byArrival;
+        this.bySeverity = bySeverity;
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    // Waiting patients in arrival order.
+    public Iterable<Patient> arrivalOrder()
+    {
+        return () -> PersistentTreap.iterator(byArrival);
+    }
+
+    // Waiting patients, next-to-treat first.
+    public Iterable<Patient> severityOrder()
+    {
+        return () -> PersistentTreap.iterator(bySeverity);
+    }
+
+    // The first `limit` patients in treatment order, e.g. for a wall display.
+    public List<Patient> nextToTreat(int limit)
+    {
+        List<Patient> list = new ArrayList<>(Math.min(limit, size));
+        Iterator<Patient> it = PersistentTreap.iterator(bySeverity);
+        while (list.size() < limit && it.hasNext()) list.add(it.next());
+        return list;
+    }
+
+    public Patient next()
+    {
+        PersistentTreap.Node first = PersistentTreap.first(bySeverity);
+        return first == null ? null : first.value;
+    }
+}
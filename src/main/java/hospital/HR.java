@@ -0,0 +1,275 @@
+package hospital;
+
+import java.util.*;
+import java.time.*;
+import java.io.*;
+
+public class HR
+{
+    private static final String[] SAMPLE_NAMES = {
+        "Aarav", "Isha", "Rohan", "Simran", "Kabir", "Ananya", "Dev", "Meera", "Raj", "Priya",
+        "Neha", "Arjun", "Ira", "Vihaan", "Zara", "Vivaan", "Riya", "Kunal", "Tara", "Aditya"
+    };
+    private static Random RAND = new Random();
+
+    public static void main(String[] args) throws InterruptedException {
+        Scanner sc = new Scanner(System.in);
+        // optional arguments: the triage policy (strict, bucketed, aging) and,
+        // for treated_log.txt, durability=none|flush|fsync and rotateMB=N (0
+        // never rotates), e.g. gradle run --args="aging durability=fsync"
+        TriagePolicy policy = TriagePolicy.STRICT;
+        AsyncLogWriter.Durability durability = AsyncLogWriter.Durability.FLUSH;
+        AsyncLogWriter.Rotation rotation = AsyncLogWriter.Rotation.DEFAULT;
+        for (String arg : args) {
+            String[] kv = arg.split("=", 2);
+            if (kv.length < 2) {
+                policy = TriagePolicy.parse(arg);
+                continue;
+            }
+            switch (kv[0]) {
+                case "durability" -> durability = AsyncLogWriter.Durability.valueOf(kv[1].trim().toUpperCase(Locale.ROOT));
+                case "rotateMB" -> {
+                    long mb = Long.parseLong(kv[1].trim());
+                    rotation = mb > 0 ? new AsyncLogWriter.Rotation(mb << 20, AsyncLogWriter.Rotation.DEFAULT.maxAge, true) : null;
+                }
+                default -> System.out.println("Ignoring unknown option: " + kv[0]);
+            }
+        }
+        // -Der.seed=N makes runs reproducible: seeded choices, a ManualClock
+        // that moves with the simulation, and an in-memory ER, so patients.txt
+        // is neither read nor changed
+        Long seed = Long.getLong("er.seed");
+        HospitalER er = seed != null ? new HospitalER(policy.newQueue(), false)
+                : new HospitalER(policy.newQueue(), new File("."), durability, rotation);
+        ManualClock simClock = null;
+        if (seed != null) {
+            RAND = new Random(seed);
+            simClock = new ManualClock();
+            er.setClock(simClock);
+        }
+        er.loadFromFile();
+        ConsoleListener console = new ConsoleListener();
+        er.addListener(console);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            er.close();
+            console.close();
+        }));
+
+        // JMX always; a periodic console dump with -Der.metrics.dumpSeconds=N
+        ErMetrics metrics = new ErMetrics();
+        metrics.registerMBean("HR");
+        er.setMetrics(metrics);
+        long dumpSeconds = Long.getLong("er.metrics.dumpSeconds", 0);
+        if (dumpSeconds > 0) metrics.startDump(Duration.ofSeconds(dumpSeconds), System.out);
+
+        System.out.println("=== Hospital Emergency Room ===");
+        System.out.println("1. Manual Mode");
+        System.out.println("2. Auto-Simulation Mode");
+        System.out.println("3. Shift Simulation (discrete-event, one year)");
+        System.out.print("Choose: ");
+        int mode = safeNextInt(sc, 1);
+
+        if (mode == 1) manualMode(sc, er, console);
+        else if (mode == 3) DiscreteEventSimulation.main(shiftArgs(policy, seed));
+        else autoSimulation(er, console, 20, 800, simClock);
+    }
+
+    // The shift simulation runs on its own ER; hand it the policy (and seed) chosen here.
+    static String[] shiftArgs(TriagePolicy policy, Long seed) 
+    {
+        String policyArg = "policy=" + policy.name().toLowerCase(Locale.ROOT);
+        return seed != null ? new String[] {policyArg, "seed=" + seed} : new String[] {policyArg};
+    }
+
+    private static void manualMode(Scanner sc, HospitalER er, ConsoleListener console) 
+    {
+        while (true) 
+        {
+            console.flush();
+            System.out.println("\n=== Menu ===");
+            System.out.println("1. Add Patient");
+            System.out.println("2. Emergency Add Patient");
+            System.out.println("3. Update Patient Severity");
+            System.out.println("4. Remove Patient");
+            System.out.println("5. Treat Next Patient");
+            System.out.println("6. View Waiting List (Arrival Order)");
+            System.out.println("7. View Patients by Severity Order");
+            System.out.println("8. Search Patient by Name");
+            System.out.println("9. Search Patient by ID");
+            System.out.println("10. View Next Patient to Treat");
+            System.out.println("11. Search Patient by Name Prefix");
+            System.out.println("12. Mass Intake (several patients at once)");
+            System.out.println("13. Treat Next k Patients");
+            System.out.println("14. Queue Position of Patient");
+            System.out.println("15. Exit");
+            System.out.print("Choose: ");
+
+            int choice = safeNextInt(sc, 1);
+            sc.nextLine();
+
+            switch (choice) {
+                case 1 -> {
+                    System.out.print("Enter name: ");
+                    String name = sc.nextLine();
+                    System.out.print("Enter severity (1-10): ");
+                    int severity = safeNextInt(sc, 1);
+                    try {
+                        er.addPatient(name, severity);
+                    } catch (IllegalArgumentException e) {
+                        System.out.println("Error adding patient: " + e.getMessage());
+                    }
+                }
+                case 2 -> {
+                    System.out.print("Enter name: ");
+                    String eName = sc.nextLine();
+                    System.out.print("Enter severity (1-10): ");
+                    int eSeverity = safeNextInt(sc, 1);
+                    try {
+                        er.addEmergencyPatient(eName, eSeverity);
+                    } catch (IllegalArgumentException e) {
+                        System.out.println("Error adding patient: " + e.getMessage());
+                    }
+                }
+                case 3 -> {
+                    System.out.print("Enter patient ID: ");
+                    int editId = safeNextInt(sc, 1);
+                    System.out.print("Enter new severity (1-10): ");
+                    int newSeverity = safeNextInt(sc, 1);
+                    er.updateSeverity(editId, newSeverity);
+                }
+                case 4 -> {
+                    System.out.print("Enter patient ID: ");
+                    int removeId = safeNextInt(sc, 1);
+                    er.removePatient(removeId);
+                }
+                case 5 -> er.treatNextPatient();
+                case 6 -> er.viewWaitingList();
+                case 7 -> er.viewSeverityOrder();
+                case 8 -> {
+                    System.out.print("Enter patient name: ");
+                    String searchName = sc.nextLine();
+                    er.searchPatientByName(searchName);
+                }
+                case 9 -> {
+                    System.out.print("Enter patient ID: ");
+                    int searchId = safeNextInt(sc, 1);
+                    er.searchPatientById(searchId);
+                }
+                case 10 -> er.viewNextToTreat();
+                case 11 -> {
+                    System.out.print("Enter name prefix: ");
+                    String prefix = sc.nextLine();
+                    er.searchPatientsByPrefix(prefix, 20);
+                }
+                case 12 -> {
+                    System.out.print("How many patients? ");
+                    int count = safeNextInt(sc, 0);
+                    sc.nextLine();
+                    List<Patient> intake = new ArrayList<>(Math.max(0, count));
+                    for (int i = 1; i <= count; i++) {
+                        System.out.print("Patient " + i + " name: ");
+                        String name = sc.nextLine();
+                        System.out.print("Patient " + i + " severity (1-10): ");
+                        int severity = safeNextInt(sc, 1);
+                        sc.nextLine();
+                        intake.add(new Patient(0, name, severity));
+                    }
+                    try {
+                        er.addPatients(intake);
+                    } catch (IllegalArgumentException e) {
+                        System.out.println("Error adding patients: " + e.getMessage());
+                    }
+                }
+                case 13 -> {
+                    System.out.print("How many doctors are free? ");
+                    er.treatNext(safeNextInt(sc, 1));
+                }
+                case 14 -> {
+                    System.out.print("Enter patient ID: ");
+                    printPosition(er, safeNextInt(sc, 1));
+                }
+                case 15 -> {
+                    System.out.println("Exiting system...");
+                    return;
+                }
+                default -> System.out.println("Invalid choice.");
+            }
+        }
+    }
+
+    private static void printPosition(HospitalER er, int id) 
+    {
+        int ahead = er.countAhead(id);
+        if (ahead < 0) {
+            System.out.println("⚠ No patient found with ID: " + id);
+            return;
+        }
+        Duration wait = er.estimatedWait(id);
+        System.out.println("Position " + (ahead + 1) + " (" + ahead + " ahead of them), "
+                + (wait == null ? "no wait estimate yet" : "about " + Math.max(1, wait.toMinutes()) + " min to wait"));
+    }
+
+    // One state line per step; the full waiting list only once at the end.
+    // simClock, when seeded, advances by the step delay. With
+    // -Der.trace=FILE every call is recorded for TraceReplayer.
+    private static void autoSimulation(HospitalER er, ConsoleListener console, int steps, int delayMs, ManualClock simClock) throws InterruptedException 
+    {
+        TraceRecorder trace = null;
+        String traceFile = System.getProperty("er.trace");
+        if (traceFile != null) {
+            try {
+                trace = new TraceRecorder(er, simClock != null ? simClock : Clock.systemDefaultZone(), new File(traceFile));
+            } catch (IOException e) {
+                System.out.println("Error opening trace: " + e.getMessage());
+            }
+        }
+        TriageEngine engine = trace != null ? trace : er;
+
+        System.out.println("Auto-Simulation started (" + steps + " steps)...");
+        for (int i = 1; i <= steps; i++) {
+            int action = RAND.nextInt(5);
+            if (er.isEmpty() && (action == 3 || action == 4)) action = RAND.nextInt(3);
+
+            switch (action) {
+                case 0 -> engine.addPatient(randomName(), RAND.nextInt(10) + 1);
+                case 1 -> engine.addPatient(randomName(), 10);  // emergency
+                case 2 -> {
+                    List<Integer> ids = er.getAllPatientIds();
+                    if (!ids.isEmpty()) {
+                        int id = ids.get(RAND.nextInt(ids.size()));
+                        engine.updateSeverity(id, RAND.nextInt(10) + 1);
+                    }
+                }
+                case 3 -> engine.treatNext();
+                case 4 -> {
+                    List<Integer> ids2 = er.getAllPatientIds();
+                    if (!ids2.isEmpty()) {
+                        int id = ids2.get(RAND.nextInt(ids2.size()));
+                        engine.removePatient(id);
+                    }
+                }
+            }
+
+            console.flush();
+            int next = engine.peekNext();
+            System.out.println("--- step " + i + ": " + er.size() + " waiting, next ID " + (next < 0 ? "-" : next) + " ---");
+
+            Thread.sleep(delayMs);
+            if (simClock != null) simClock.advance(delayMs);
+        }
+        if (trace != null) trace.close();
+        er.viewWaitingList();
+        System.out.println("Auto-Simulation finished.");
+    }
+
+    private static String randomName() { return SAMPLE_NAMES[RAND.nextInt(SAMPLE_NAMES.length)]; }
+
+    private static int safeNextInt(Scanner sc, int defaultVal) 
+    {
+        while (!sc.hasNextInt()) {
+            System.out.print("Please enter a valid integer: ");
+            sc.next();
+        }
+        return sc.nextInt();
+    }
+}
@@ -0,0 +1,763 @@
+package hospital;
+
+import java.util.*;
+import java.time.*;
+import java.time.format.DateTimeFormatter;
+import java.io.*;
+
+class HospitalER implements TriageEngine 
+{
+    private Node head, tail;
+    private HashMap<Integer, Node> patientMap = new HashMap<>();
+    private final TriageQueue pq;
+    private final NameIndex nameIndex = new NameIndex();
+    private int idCounter = 1;
+    private long seqCounter = 1;
+    private final File dataDir;
+    private final PatientJournal journal;
+    private final AsyncLogWriter treatLog;
+    private boolean quiet;
+    private ErMetrics metrics;
+    private ErListener[] listeners = new ErListener[0];
+    private SnapshotPublisher snapshots;
+    private ChangeFeed changeFeed;
+    private QueuePositions positions;
+    private final TreatmentRate treatmentRate = new TreatmentRate();
+    private Clock clock = Clock.systemDefaultZone();
+
+
+    private static final String PATIENT_FILE = "patients.txt";
+    private static final String JOURNAL_FILE = "patients.journal";
+    private static final String LOG_FILE = "treated_log.txt";
+    static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    static final Comparator<Patient> TRIAGE_ORDER = Comparator.comparingLong(Patient::triageKey);
+
+    HospitalER() 
+    {
+        this(TriagePolicy.STRICT);
+    }
+
+    HospitalER(TriagePolicy policy) 
+    {
+        this(policy.newQueue());
+    }
+
+    HospitalER(TriageQueue queue) 
+    {
+        this(queue, true);
+    }
+
+    // A non-persistent ER keeps everything in memory: no patients.txt, no
+    // journal, no treated_log.txt. Used by simulations and benchmarks.
+    HospitalER(TriageQueue queue, boolean persistent) 
+    {
+        this(queue, persistent ? new File(".") : null);
+    }
+
+    // Keeps patients.txt, patients.journal and treated_log.txt in dataDir;
+    // a null dataDir means in-memory only.
+    HospitalER(TriageQueue queue, File dataDir) 
+    {
+        this(queue, dataDir, AsyncLogWriter.Durability.FLUSH, AsyncLogWriter.Rotation.DEFAULT);
+    }
+
+    // durability and rotation apply to treated_log.txt (see AsyncLogWriter); a
+    // null rotation keeps appending to the one file.
+    HospitalER(TriageQueue queue, File dataDir, AsyncLogWriter.Durability durability, AsyncLogWriter.Rotation rotation) 
+    {
+        pq = queue;
+        this.dataDir = dataDir;
+        journal = dataDir != null ? new PatientJournal(new File(dataDir, PATIENT_FILE), new File(dataDir, JOURNAL_FILE)) : null;
+        treatLog = dataDir != null ? new AsyncLogWriter(new File(dataDir, LOG_FILE), durability, rotation, new TreatedLog.NameDefinitions()) : null;
+    }
+
+    // Starts recording into metrics (null stops); patients already waiting are
+    // counted into its queue-depth gauges.
+    public void setMetrics(ErMetrics metrics) 
+    {
+        this.metrics = metrics;
+        if (metrics == null) return;
+        for (Node n = head; n != null; n = n.next) metrics.waiting(n.patient.severity);
+    }
+
+    // Starts publishing an immutable ErSnapshot after every change and returns
+    // the source of them; current() can be called from any thread without
+    // locking. Costs O(log n) extra work per change, so it is off by default.
+    public SnapshotPublisher enableSnapshots() 
+    {
+        if (snapshots == null) snapshots = new SnapshotPublisher(pq, head);
+        return snapshots;
+    }
+
+    // Pushes every change to subscribers (dashboards, TriageService /changes)
+    // without blocking triage; enables snapshots, which it starts each
+    // subscriber with. See ChangeFeed.
+    public ChangeFeed changeFeed() 
+    {
+        if (changeFeed == null) {
+            changeFeed = new ChangeFeed(enableSnapshots());
+            addListener(changeFeed);
+        }
+        return changeFeed;
+    }
+
+    public void addListener(ErListener listener) 
+    {
+        listeners = Arrays.copyOf(listeners, listeners.length + 1);
+        listeners[listeners.length - 1] = listener;
+    }
+
+    public void removeListener(ErListener listener) 
+    {
+        List<ErListener> rest = new ArrayList<>(Arrays.asList(listeners));
+        rest.remove(listener);
+        listeners = rest.toArray(new ErListener[0]);
+    }
+
+    // Source of arrival times, treated-log timestamps and measured waits;
+    // the system clock unless a simulation or replay supplies its own (see
+    // ManualClock). Operation latencies are still timed with System.nanoTime.
+    public void setClock(Clock clock) 
+    {
+        this.clock = clock;
+    }
+
+    // Admissions, re-triages, removals and treatments never print here; attach
+    // a ConsoleListener to see them. Quiet mode also silences the view and search
+    // listings (which still return their results) and the not-found notices.
+    public void setQuiet(boolean quiet) 
+    {
+        this.quiet = quiet;
+    }
+
+    public void loadFromFile() 
+    {
+        if (dataDir == null) return;
+        File file = new File(dataDir, PATIENT_FILE);
+        try 
+        {
+            SnapshotLoader.Result loaded = null;
+            if (file.exists()) 
+            {
+                loaded = SnapshotLoader.load(file);
+                insertAllLoaded(loaded.patients);
+                if (loaded.skipped > 0) System.out.println("Error loading file: skipped " + loaded.skipped + " malformed lines");
+            }
+            journal.replay(this::applyJournalEntry);
+            if (snapshots != null) snapshots.publish();
+            if (changeFeed != null) changeFeed.resync();
+            if (size() > 0 && !quiet) {
+                System.out.println("Loaded existing patients from file.");
+                if (loaded != null) System.out.printf("   %d rows in %d ms (%.0f rows/sec)%n",
+                        loaded.patients.size(), loaded.nanos / 1_000_000, loaded.rowsPerSecond());
+            }
+        } 
+        catch (Exception e) 
+        {
+            System.out.println("Error loading file: " + e.getMessage());
+        }
+    }
+
+    // Writes a full snapshot to patients.txt and starts a fresh journal.
+    public void saveToFile() 
+    {
+        if (journal == null) return;
+        try {
+            journal.writeSnapshot(head);
+        } catch (Exception e) {
+            System.out.println("Error saving to file: " + e.getMessage());
+        }
+    }
+
+    // End of every operation that changed the waiting list.
+    private void afterChange() 
+    {
+        compactIfNeeded();
+        if (snapshots != null) snapshots.publish();
+    }
+
+    private void compactIfNeeded() 
+    {
+        if (journal != null && journal.shouldCompact(size())) saveToFile();
+    }
+
+    // Journal replay must be idempotent: after a crash mid-compaction the tail
+    // can repeat records the snapshot already reflects.
+    private void applyJournalEntry(String[] f) 
+    {
+        try {
+            int id = Integer.parseInt(f[1]);
+            Node node = patientMap.get(id);
+            switch (f[0]) {
+                case "A" -> {
+                    if (node == null) {
+                        boolean legacy = f.length == 5;
+                        long seq = legacy ? seqCounter : Long.parseLong(f[4]);
+                        insertLoaded(id, legacy ? f[4] : f[5], Integer.parseInt(f[2]), LocalDateTime.parse(f[3], FORMATTER), seq);
+                    }
+                }
+                case "U" -> {
+                    if (node != null) {
+                        int oldSeverity = node.patient.severity;
+                        node.patient.severity = clampSeverity(Integer.parseInt(f[2]));
+                        pq.update(node);
+                        if (snapshots != null) snapshots.retriaged(node);
+                        if (positions != null) positions.retriaged(node, oldSeverity);
+                    }
+                }
+                case "R", "T" -> {
+                    if (node != null) unlinkPatient(node);
+                }
+                case "C" -> {
+                    idCounter = Math.max(idCounter, id);
+                    seqCounter = Math.max(seqCounter, Long.parseLong(f[2]));
+                }
+            }
+        } catch (RuntimeException e) {
+            // torn or foreign line; the rest of the journal still applies
+        }
+    }
+
+    // Applies a record shipped from another ER (see ReplicationLeader): the same
+    // change as the original call, journaled here too, but not logged or printed.
+    void applyRecord(String record) 
+    {
+        String[] f = PatientJournal.fields(record);
+        Node before = nodeOf(f);
+        int oldSeverity = before != null ? before.patient.severity : 0;
+        applyJournalEntry(f);
+        if (journal != null) journal.append(record);
+        afterChange();
+        // no listener callbacks for replicated records, but the change feed
+        // still gets each change as a delta
+        if (changeFeed != null) feedReplicated(f[0], before, oldSeverity, nodeOf(f));
+    }
+
+    private Node nodeOf(String[] record) 
+    {
+        try {
+            return patientMap.get(Integer.parseInt(record[1]));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private void feedReplicated(String kind, Node before, int oldSeverity, Node after) 
+    {
+        switch (kind) {
+            case "A" -> {
+                if (before == null && after != null) changeFeed.onAdmitted(after.patient);
+            }
+            case "U" -> {
+                if (after != null) changeFeed.onRetriaged(after.patient, oldSeverity);
+            }
+            case "R" -> {
+                if (before != null && after == null) changeFeed.onRemoved(before.patient);
+            }
+            case "T" -> {
+                if (before != null && after == null) changeFeed.onTreated(before.patient);
+            }
+        }
+    }
+
+    private void insertLoaded(int id, String name, int severity, LocalDateTime time, long seq) 
+    {
+        Patient p = new Patient(id, name, severity, time, Patient.epochMillis(time, clock.getZone()), seq);
+        linkPatient(new Node(p));
+        idCounter = Math.max(idCounter, id + 1);
+        seqCounter = Math.max(seqCounter, seq + 1);
+    }
+
+    // insertLoaded for a whole snapshot: link every patient, then hand all nodes
+    // to the queue at once so a heap is built in O(n). Rows without a seq
+    // (older files) are numbered in file order.
+    private void insertAllLoaded(List<Patient> patients) 
+    {
+        if (patientMap.isEmpty()) patientMap = new HashMap<>(Math.max(16, (int) (patients.size() / 0.75f) + 1));
+        List<Node> nodes = new ArrayList<>(patients.size());
+        // SnapshotLoader read the times in the JVM's zone
+        ZoneId zone = clock.getZone().equals(ZoneId.systemDefault()) ? null : clock.getZone();
+        for (Patient p : patients) {
+            if (p.seq < 0) p.seq = seqCounter;
+            if (zone != null) p.arrivalMillis = Patient.epochMillis(p.arrivalTime, zone);
+            Node node = new Node(p);
+            addToDoublyLinkedList(node);
+            patientMap.put(p.id, node);
+            p.holdName();
+            nameIndex.add(node);
+            nodes.add(node);
+            idCounter = Math.max(idCounter, p.id + 1);
+            seqCounter = Math.max(seqCounter, p.seq + 1);
+        }
+        pq.offerAll(nodes);
+        if (snapshots != null) for (Node node : nodes) snapshots.added(node);
+        if (positions != null) for (Node node : nodes) positions.added(node);
+    }
+
+    private void linkPatient(Node node) 
+    {
+        addToDoublyLinkedList(node);
+        patientMap.put(node.patient.id, node);
+        pq.offer(node);
+        node.patient.holdName();
+        nameIndex.add(node);
+        if (snapshots != null) snapshots.added(node);
+        if (positions != null) positions.added(node);
+    }
+
+    private void unlinkPatient(Node node) 
+    {
+        pq.remove(node);
+        removeFromDoublyLinkedList(node);
+        patientMap.remove(node.patient.id);
+        nameIndex.remove(node);
+        node.patient.dropName();
+        if (snapshots != null) snapshots.removed(node);
+        if (positions != null) positions.removed(node);
+    }
+
+    private void logAction(char action, Patient p) 
+    {
+        if (treatLog == null) return;
+        long now = clock.millis();
+        treatLog.log(action == TreatedLog.TREATED ? TreatedLog.treated(p, now) : TreatedLog.removed(p, now));
+    }
+
+    // Drains the treatment log and releases the journal; call before exiting.
+    public void close() 
+    {
+        if (treatLog != null) treatLog.close();
+        if (journal != null) journal.close();
+    }
+
+
+    // Returns the new patient's ID.
+    public int addPatient(String name, int severity) 
+    {
+        return admit(idCounter, name, severity, seqCounter).id;
+    }
+
+    // Admits with an ID and arrival sequence assigned by the caller, e.g. a
+    // coordinator that shares one ID space and one FIFO order across several ERs.
+    Patient admit(int id, String name, int severity, long seq) 
+    {
+        long start = metrics != null ? System.nanoTime() : 0;
+        long now = clock.millis();
+        Patient p = new Patient(id, checkName(name), clampSeverity(severity), wallClock(now), now, seq);
+        idCounter = Math.max(idCounter, id + 1);
+        seqCounter = Math.max(seqCounter, seq + 1);
+        linkPatient(new Node(p));
+        if (journal != null) journal.admitted(p);
+        afterChange();
+        if (metrics != null) metrics.admitted(p.severity, System.nanoTime() - start);
+        for (ErListener l : listeners) l.onAdmitted(p);
+        return p;
+    }
+
+    public int addEmergencyPatient(String name, int severity) 
+    {
+        if (severity < 10) severity = 10;
+        return addPatient(name, severity);
+    }
+
+    public boolean updateSeverity(int id, int newSeverity) 
+    {
+        long start = metrics != null ? System.nanoTime() : 0;
+        Node node = patientMap.get(id);
+        if (node == null) {
+            if (!quiet) System.out.println("Patient not found.");
+            return false;
+        }
+        int oldSeverity = node.patient.severity;
+        node.patient.severity = clampSeverity(newSeverity);
+        pq.update(node);
+        if (snapshots != null) snapshots.retriaged(node);
+        if (positions != null) positions.retriaged(node, oldSeverity);
+        if (journal != null) journal.severityChanged(node.patient);
+        afterChange();
+        if (metrics != null) metrics.retriaged(oldSeverity, node.patient.severity, System.nanoTime() - start);
+        for (ErListener l : listeners) l.onRetriaged(node.patient, oldSeverity);
+        return true;
+    }
+
+    public boolean removePatient(int id) 
+    {
+        long start = metrics != null ? System.nanoTime() : 0;
+        Node node = patientMap.get(id);
+        if (node == null) {
+            if (!quiet) System.out.println("Patient not found.");
+            return false;
+        }
+        unlinkPatient(node);
+        logAction(TreatedLog.REMOVED, node.patient);
+        if (journal != null) journal.removed(node.patient);
+        afterChange();
+        if (metrics != null) metrics.removed(node.patient.severity, System.nanoTime() - start);
+        for (ErListener l : listeners) l.onRemoved(node.patient);
+        return true;
+    }
+
+    // Returns the treated patient, or null when nobody is waiting.
+    public Patient treatNextPatient() 
+    {
+        long start = metrics != null ? System.nanoTime() : 0;
+        if (pq.isEmpty()) {
+            if (!quiet) System.out.println("No patients to treat.");
+            return null;
+        }
+        Node node = pq.peek();
+        Patient p = node.patient;
+        unlinkPatient(node);
+        treatmentRate.treated(1, clockNanos(), pq.isEmpty());
+        logAction(TreatedLog.TREATED, p);
+        if (journal != null) journal.treated(p);
+        afterChange();
+        if (metrics != null) {
+            long waited = clock.millis() - p.arrivalMillis;
+            metrics.treated(p.severity, waited, System.nanoTime() - start);
+        }
+        for (ErListener l : listeners) l.onTreated(p);
+        return p;
+    }
+
+
+    // ===================== BATCH OPERATIONS =====================
+    // Admits a whole intake at once, e.g. after a bus crash. Each Patient brings
+    // its name and severity and is left as it is; the ER admits a new Patient
+    // for it with ID, arrival sequence and arrival time (the ER's clock, as for
+    // addPatient) assigned in collection order. The queue takes the nodes in
+    // bulk and the journal gets one write for the batch. Returns the new IDs
+    // in order.
+    public int[] addPatients(Collection<Patient> intake) 
+    {
+        long start = metrics != null ? System.nanoTime() : 0;
+        // all or nothing: check every name before admitting anyone
+        for (Patient p : intake) checkName(p.name);
+        int[] ids = new int[intake.size()];
+        List<Node> nodes = new ArrayList<>(intake.size());
+        long arrivedMillis = clock.millis();
+        LocalDateTime arrived = wallClock(arrivedMillis);
+        for (Patient in : intake) {
+            Patient p = new Patient(idCounter++, in.name, clampSeverity(in.severity), arrived, arrivedMillis, seqCounter++);
+            Node node = new Node(p);
+            addToDoublyLinkedList(node);
+            patientMap.put(p.id, node);
+            p.holdName();
+            nameIndex.add(node);
+            ids[nodes.size()] = p.id;
+            nodes.add(node);
+        }
+        pq.offerAll(nodes);
+        if (snapshots != null) for (Node node : nodes) snapshots.added(node);
+        if (positions != null) for (Node node : nodes) positions.added(node);
+        if (journal != null) journal.appendAll(records(nodes, PatientJournal::admittedRecord));
+        afterChange();
+        long each = metrics != null ? (System.nanoTime() - start) / Math.max(1, nodes.size()) : 0;
+        for (Node node : nodes) {
+            if (metrics != null) metrics.admitted(node.patient.severity, each);
+            for (ErListener l : listeners) l.onAdmitted(node.patient);
+        }
+        return ids;
+    }
+
+    // Treats up to k patients at once, e.g. when k doctors come free together,
+    // and returns them in treatment order. One journal write and one treated-log
+    // entry for the batch.
+    public List<Patient> treatNext(int k) 
+    {
+        long start = metrics != null ? System.nanoTime() : 0;
+        List<Node> nodes = new ArrayList<>(Math.max(0, Math.min(k, size())));
+        while (nodes.size() < k && !pq.isEmpty()) {
+            Node node = pq.peek();
+            unlinkPatient(node);
+            nodes.add(node);
+        }
+        List<Patient> treated = new ArrayList<>(nodes.size());
+        for (Node node : nodes) treated.add(node.patient);
+        if (nodes.isEmpty()) {
+            if (!quiet) System.out.println("No patients to treat.");
+            return treated;
+        }
+        treatmentRate.treated(nodes.size(), clockNanos(), pq.isEmpty());
+        if (treatLog != null) {
+            long now = clock.millis();
+            treatLog.logAll(records(nodes, p -> TreatedLog.treated(p, now)));
+        }
+        if (journal != null) journal.appendAll(records(nodes, PatientJournal::treatedRecord));
+        afterChange();
+        if (metrics != null) {
+            long each = (System.nanoTime() - start) / nodes.size();
+            long now = clock.millis();
+            for (Patient p : treated) metrics.treated(p.severity, now - p.arrivalMillis, each);
+        }
+        for (Patient p : treated) {
+            for (ErListener l : listeners) l.onTreated(p);
+        }
+        return treated;
+    }
+
+    // Re-triages several patients at once (patient ID -> new severity) with a
+    // single re-ordering pass and one journal write. Unknown IDs are skipped;
+    // returns how many patients were updated.
+    public int updateSeverities(Map<Integer, Integer> changes) 
+    {
+        long start = metrics != null ? System.nanoTime() : 0;
+        List<Node> nodes = new ArrayList<>(changes.size());
+        int[] oldSeverities = new int[changes.size()];
+        for (Map.Entry<Integer, Integer> change : changes.entrySet()) {
+            Node node = patientMap.get(change.getKey());
+            if (node == null) {
+                if (!quiet) System.out.println("Patient not found: " + change.getKey());
+                continue;
+            }
+            oldSeverities[nodes.size()] = node.patient.severity;
+            node.patient.severity = clampSeverity(change.getValue());
+            nodes.add(node);
+        }
+        if (nodes.isEmpty()) return 0;
+        pq.updateAll(nodes);
+        if (snapshots != null) for (Node node : nodes) snapshots.retriaged(node);
+        if (positions != null) {
+            for (int i = 0; i < nodes.size(); i++) positions.retriaged(nodes.get(i), oldSeverities[i]);
+        }
+        if (journal != null) journal.appendAll(records(nodes, PatientJournal::severityChangedRecord));
+        afterChange();
+        long each = metrics != null ? (System.nanoTime() - start) / nodes.size() : 0;
+        for (int i = 0; i < nodes.size(); i++) {
+            Patient p = nodes.get(i).patient;
+            if (metrics != null) metrics.retriaged(oldSeverities[i], p.severity, each);
+            for (ErListener l : listeners) l.onRetriaged(p, oldSeverities[i]);
+        }
+        return nodes.size();
+    }
+
+    private static List<String> records(List<Node> nodes, java.util.function.Function<Patient, String> format) 
+    {
+        List<String> records = new ArrayList<>(nodes.size());
+        for (Node node : nodes) records.add(format.apply(node.patient));
+        return records;
+    }
+
+
+    public List<Patient> viewWaitingList()
+    {
+        List<Patient> list = waitingPatients();
+        if (quiet) return list;
+        if (list.isEmpty()) {
+            System.out.println("Waiting list is empty.");
+            return list;
+        }
+        System.out.println("Waiting List (Arrival Order):");
+        for (Patient p : list) {
+            System.out.println("   " + p);
+        }
+        return list;
+    }
+
+    TriagePolicy policy() 
+    {
+        return TriagePolicy.of(pq);
+    }
+
+    // The ID and arrival sequence the next admission will get.
+    int nextId() 
+    {
+        return idCounter;
+    }
+
+    long nextSeq() 
+    {
+        return seqCounter;
+    }
+
+    // Waiting patients in arrival order, without printing.
+    List<Patient> waitingPatients() 
+    {
+        List<Patient> list = new ArrayList<>(size());
+        for (Node t = head; t != null; t = t.next) list.add(t.patient);
+        return list;
+    }
+
+    public List<Patient> viewSeverityOrder() 
+    {
+        List<Patient> list = pq.inOrder();
+        if (quiet) return list;
+        if (list.isEmpty()) 
+        {
+            System.out.println("No patients in queue.");
+            return list;
+        }
+        System.out.println("Patients by Severity Order:");
+        for (Patient p : list) {
+            System.out.println("   " + p);
+        }
+        return list;
+    }
+
+    public List<Patient> searchPatientByName(String name) 
+    {
+        List<Patient> found = nameIndex.exact(name);
+        if (!quiet) {
+            for (Patient p : found) System.out.println("Found: " + p);
+            if (found.isEmpty()) System.out.println("No patient found with name: " + name);
+        }
+        return found;
+    }
+
+    // Type-ahead lookup: up to limit patients whose name starts with prefix.
+    public List<Patient> searchPatientsByPrefix(String prefix, int limit) 
+    {
+        List<Patient> found = nameIndex.withPrefix(prefix, limit);
+        if (!quiet) {
+            for (Patient p : found) System.out.println("Found: " + p);
+            if (found.isEmpty()) System.out.println("No patient name starts with: " + prefix);
+        }
+        return found;
+    }
+
+    public Patient searchPatientById(int id) 
+    {
+        Node node = patientMap.get(id);
+        if (!quiet) {
+            if (node != null) System.out.println("Found by ID: " + node.patient);
+            else System.out.println("⚠ No patient found with ID: " + id);
+        }
+        return node == null ? null : node.patient;
+    }
+
+    public int treatNext() 
+    {
+        Patient p = treatNextPatient();
+        return p == null ? -1 : p.id;
+    }
+
+    public int peekNext() 
+    {
+        return pq.isEmpty() ? -1 : pq.peek().patient.id;
+    }
+
+    // Ordering key of the next patient (Node.key), or Long.MAX_VALUE when empty.
+    // Keys from ERs that use the same TriagePolicy compare directly.
+    long headKey() 
+    {
+        return pq.isEmpty() ? Long.MAX_VALUE : pq.peek().key;
+    }
+
+    public Patient viewNextToTreat() 
+    {
+        Patient next = pq.isEmpty() ? null : pq.peek().patient;
+        if (!quiet) {
+            if (next == null) System.out.println("⚠ No patients in queue.");
+            else System.out.println("➡ Next to treat: " + next);
+        }
+        return next;
+    }
+
+
+
+    // ===================== QUEUE POSITION =====================
+    // Built on the first question (O(n)), then kept up to date in O(log n) per
+    // change; see QueuePositions for how each TriagePolicy is counted.
+    private QueuePositions positions() 
+    {
+        if (positions == null) positions = new QueuePositions(pq, head);
+        return positions;
+    }
+
+    // 1 for the next patient to treat; -1 when the ID is not waiting.
+    public int rankOf(int id) 
+    {
+        int ahead = countAhead(id);
+        return ahead < 0 ? -1 : ahead + 1;
+    }
+
+    // Patients who will be treated before this one, -1 when not waiting.
+    public int countAhead(int id) 
+    {
+        Node node = patientMap.get(id);
+        return node == null ? -1 : positions().countAhead(node);
+    }
+
+    public int waitingAtSeverity(int severity) 
+    {
+        return positions().waitingAt(severity);
+    }
+
+    // Rank times the moving average of the time between treatments (see
+    // TreatmentRate). Null when the ID is not waiting or no treatments have
+    // been timed yet. Later arrivals of higher severity are not foreseen.
+    public Duration estimatedWait(int id) 
+    {
+        int ahead = countAhead(id);
+        if (ahead < 0) return null;
+        long nanos = treatmentRate.estimateNanos(ahead, clockNanos());
+        return nanos < 0 ? null : Duration.ofNanos(nanos);
+    }
+
+
+    // ===================== UTILITIES =====================
+    public boolean isEmpty() 
+    { 
+        return pq.isEmpty(); 
+    }
+    public int size() 
+    { 
+        return patientMap.size(); 
+    }
+    public List<Integer> getAllPatientIds() 
+    { 
+        return new ArrayList<>(patientMap.keySet()); 
+    }
+
+    private LocalDateTime wallClock(long millis) 
+    {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), clock.getZone());
+    }
+
+    private long clockNanos() 
+    {
+        Instant now = clock.instant();
+        return now.getEpochSecond() * 1_000_000_000L + now.getNano();
+    }
+
+    private int clampSeverity(int s) 
+    { 
+        return Math.max(1, Math.min(s, 10)); 
+    }
+
+    // Names are written verbatim into line-based records (journal, snapshot,
+    // replication), where a line break would forge extra records; control
+    // characters are refused outright.
+    static String checkName(String name) 
+    {
+        if (name == null) throw new IllegalArgumentException("missing name");
+        for (int i = 0; i < name.length(); i++) {
+            if (Character.isISOControl(name.charAt(i))) throw new IllegalArgumentException("name contains a control character");
+        }
+        return name;
+    }
+
+    private void addToDoublyLinkedList(Node node) 
+    {
+        if (head == null) 
+        {
+            head = tail = node;
+        }
+        else 
+        {
+            tail.next = node;
+            node.prev = tail;
+            tail = node;
+        }
+    }
+
+    private void removeFromDoublyLinkedList(Node node) 
+    {
+        if (node.prev != null) node.prev.next = node.next;
+        else head = node.next;
+        if (node.next != null) node.next.prev = node.prev;
+        else tail = node.prev;
+        node.prev = node.next = null;
+    }
+}
@@ -0,0 +1,156 @@
+package hospital;
+
+import java.util.*;
+
+// Binary min-heap of Nodes ordered by triage key. Every node remembers its
+// slot in heapIndex, so re-triage and removal by ID are O(log n) instead of the
+// linear scan PriorityQueue.remove(Object) does, and each comparison is a
+// single long compare on the cached key.
+class IndexedHeap implements TriageQueue 
+{
+    private Node[] heap = new Node[16];
+    private int size;
+
+    public boolean isEmpty() 
+    {
+        return size == 0;
+    }
+
+    public int size() 
+    {
+        return size;
+    }
+
+    public Node peek() 
+    {
+        return size == 0 ? null : heap[0];
+    }
+
+    public void offer(Node node) 
+    {
+        if (size == heap.length) heap = Arrays.copyOf(heap, size * 2);
+        heap[size] = node;
+        node.heapIndex = size;
+        node.key = node.patient.triageKey();
+        siftUp(size++);
+    }
+
+    // Appends everything, then restores heap order bottom-up in O(n) (Floyd)
+    // when that beats k sift-ups at O(log n) each, as it does for a snapshot.
+    public void offerAll(List<Node> nodes) 
+    {
+        if (size + nodes.size() > heap.length) heap = Arrays.copyOf(heap, Math.max(size + nodes.size(), heap.length * 2));
+        boolean rebuild = rebuildCheaper(nodes.size(), size + nodes.size());
+        for (Node node : nodes) {
+            node.key = node.patient.triageKey();
+            place(node, size++);
+            if (!rebuild) siftUp(size - 1);
+        }
+        if (rebuild) heapify();
+    }
+
+    // Same trade-off for a batch of re-triaged nodes.
+    public void updateAll(List<Node> nodes) 
+    {
+        if (!rebuildCheaper(nodes.size(), size)) {
+            for (Node node : nodes) update(node);
+            return;
+        }
+        for (Node node : nodes) {
+            int i = node.heapIndex;
+            if (i >= 0 && i < size && heap[i] == node) node.key = node.patient.triageKey();
+        }
+        heapify();
+    }
+
+    // Whether one O(n) heapify is cheaper than k sifts of O(log n).
+    private static boolean rebuildCheaper(int k, int n) 
+    {
+        return (long) k * (32 - Integer.numberOfLeadingZeros(n)) > n;
+    }
+
+    private void heapify() 
+    {
+        for (int i = (size >>> 1) - 1; i >= 0; i--) siftDown(i);
+    }
+
+    public Node poll() 
+    {
+        if (size == 0) return null;
+        Node top = heap[0];
+        removeAt(0);
+        return top;
+    }
+
+    public boolean remove(Node node) 
+    {
+        int i = node.heapIndex;
+        if (i < 0 || i >= size || heap[i] != node) return false;
+        removeAt(i);
+        return true;
+    }
+
+    // Restores heap order after the node's severity changed, whichever way it moved.
+    public void update(Node node) 
+    {
+        int i = node.heapIndex;
+        if (i < 0 || i >= size || heap[i] != node) return;
+        node.key = node.patient.triageKey();
+        if (!siftUp(i)) siftDown(i);
+    }
+
+    public List<Patient> inOrder() 
+    {
+        List<Patient> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) list.add(heap[i].patient);
+        list.sort(HospitalER.TRIAGE_ORDER);
+        return list;
+    }
+
+    private void removeAt(int i) 
+    {
+        Node removed = heap[i];
+        Node last = heap[--size];
+        heap[size] = null;
+        removed.heapIndex = -1;
+        if (i == size) return;
+        heap[i] = last;
+        last.heapIndex = i;
+        if (!siftUp(i)) siftDown(i);
+    }
+
+    private boolean siftUp(int i) 
+    {
+        Node node = heap[i];
+        int start = i;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (node.key >= heap[parent].key) break;
+            place(heap[parent], i);
+            i = parent;
+        }
+        place(node, i);
+        return i != start;
+    }
+
+    private void siftDown(int i) 
+    {
+        Node node = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && heap[right].key < heap[child].key) child = right;
+            if (node.key <= heap[child].key) break;
+            place(heap[child], i);
+            i = child;
+        }
+        place(node, i);
+    }
+
+    private void place(Node node, int i) 
+    {
+        heap[i] = node;
+        node.heapIndex = i;
+    }
+}
@@ -0,0 +1,103 @@
+package hospital;
+
+// Open-addressing int -> int map with linear probing and backward-shift
+// deletion: no boxing, no entry objects, no tombstones. Keys must be positive
+// (0 marks an empty cell), which patient IDs always are; get and remove answer
+// -1 for anything else, since a probe for 0 would stop on the first empty cell
+// and hand back whatever value it last held.
+class IntSlotMap 
+{
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    IntSlotMap(int expected) 
+    {
+        int capacity = Integer.highestOneBit(Math.max(4, expected * 2 - 1)) << 1;
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    public int size() 
+    {
+        return size;
+    }
+
+    // Returns the value for key, or -1.
+    public int get(int key) 
+    {
+        if (key <= 0) return -1;
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            int k = keys[i];
+            if (k == key) return values[i];
+            if (k == 0) return -1;
+        }
+    }
+
+    public void put(int key, int value) 
+    {
+        if (key <= 0) throw new IllegalArgumentException("key must be positive: " + key);
+        if (2 * (size + 1) > keys.length) grow();
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            int k = keys[i];
+            if (k == 0) {
+                keys[i] = key;
+                values[i] = value;
+                size++;
+                return;
+            }
+            if (k == key) {
+                values[i] = value;
+                return;
+            }
+        }
+    }
+
+    // Removes key and returns its value, or -1 when absent.
+    public int remove(int key) 
+    {
+        if (key <= 0) return -1;
+        int i = hash(key) & mask;
+        while (keys[i] != key) {
+            if (keys[i] == 0) return -1;
+            i = (i + 1) & mask;
+        }
+        int removed = values[i];
+        size--;
+        // shift later members of the probe run back so lookups never hit a gap
+        for (int gap = i, j = (i + 1) & mask; ; j = (j + 1) & mask) {
+            int k = keys[j];
+            if (k == 0) {
+                keys[gap] = 0;
+                return removed;
+            }
+            int home = hash(k) & mask;
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = k;
+                values[gap] = values[j];
+                gap = j;
+            }
+        }
+    }
+
+    private void grow() 
+    {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        mask = keys.length - 1;
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) put(oldKeys[i], oldValues[i]);
+        }
+    }
+
+    private static int hash(int key) 
+    {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
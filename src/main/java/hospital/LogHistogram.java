@@ -0,0 +1,92 @@
+package hospital;
+
+import java.util.concurrent.atomic.*;
+
+// Lock-free high-dynamic-range histogram for non-negative longs. Values below
+// 64 get their own bucket; above that each power of two is split into 32
+// sub-buckets, so any recorded value is reported within ~3% across the full
+// long range with a fixed 1.9k-slot footprint. Recording is a couple of
+// atomic increments and never allocates.
+class LogHistogram 
+{
+    private static final int SUB_BITS = 5;
+    private static final int SUB = 1 << SUB_BITS;
+    private static final int LINEAR = 2 * SUB;
+    private static final int BUCKETS = LINEAR + (63 - SUB_BITS - 1) * SUB;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long value) 
+    {
+        if (value < 0) value = 0;
+        counts.incrementAndGet(indexOf(value));
+        total.incrementAndGet();
+        sum.addAndGet(value);
+        if (value > max.get()) max.accumulateAndGet(value, Math::max);
+    }
+
+    public long count() 
+    {
+        return total.get();
+    }
+
+    public long max() 
+    {
+        return max.get();
+    }
+
+    public double mean() 
+    {
+        long n = total.get();
+        return n == 0 ? 0 : (double) sum.get() / n;
+    }
+
+    // Value at quantile q (0..1), or 0 when nothing was recorded.
+    public long percentile(double q) 
+    {
+        long n = total.get();
+        if (n == 0) return 0;
+        long target = Math.max(1, (long) Math.ceil(q * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= target) return Math.min(midpoint(i), max.get());
+        }
+        return max.get();
+    }
+
+    public void reset() 
+    {
+        for (int i = 0; i < BUCKETS; i++) counts.set(i, 0);
+        total.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    static int indexOf(long value) 
+    {
+        if (value < LINEAR) return (int) value;
+        int exp = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exp - SUB_BITS)) & (SUB - 1);
+        return LINEAR + (exp - SUB_BITS - 1) * SUB + sub;
+    }
+
+    static long lowerBound(int index) 
+    {
+        if (index < LINEAR) return index;
+        int exp = (index - LINEAR) / SUB + SUB_BITS + 1;
+        int sub = (index - LINEAR) % SUB;
+        return (long) (SUB + sub) << (exp - SUB_BITS);
+    }
+
+    private static long midpoint(int index) 
+    {
+        if (index < LINEAR) return index;
+        long low = lowerBound(index);
+        int exp = (index - LINEAR) / SUB + SUB_BITS + 1;
+        return low + ((1L << (exp - SUB_BITS)) >>> 1);
+    }
+}
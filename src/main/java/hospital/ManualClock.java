@@ -0,0 +1,61 @@
+package hospital;
+
+import java.time.*;
+
+// A Clock that only moves when told to, for runs that must be reproducible:
+// simulations advance it with their virtual time and TraceReplayer sets it to
+// each record's timestamp, so arrival times (and AGING order with them) come
+// out the same on every run. Not thread-safe; one driver thread owns it.
+class ManualClock extends Clock
+{
+    // Fixed starting point for seeded runs.
+    static final Instant EPOCH = Instant.parse("2025-01-01T00:00:00Z");
+
+    private final ZoneId zone;
+    private long millis;
+
+    ManualClock()
+    {
+        this(EPOCH.toEpochMilli(), ZoneId.systemDefault());
+    }
+
+    ManualClock(long millis, ZoneId zone)
+    {
+        this.millis = millis;
+        this.zone = zone;
+    }
+
+    void setMillis(long millis)
+    {
+        this.millis = millis;
+    }
+
+    void advance(long deltaMillis)
+    {
+        millis += deltaMillis;
+    }
+
+    @Override
+    public long millis()
+    {
+        return millis;
+    }
+
+    @Override
+    public Instant instant()
+    {
+        return Instant.ofEpochMilli(millis);
+    }
+
+    @Override
+    public ZoneId getZone()
+    {
+        return zone;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone)
+    {
+        return new ManualClock(millis, zone);
+    }
+}
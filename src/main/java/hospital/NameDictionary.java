@@ -0,0 +1,142 @@
+package hospital;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Concurrent dictionary of patient names. A name that some waiting patient
+// has gets a dense int code, and the dictionary holds the one canonical
+// String for it: a Patient stores that String and its code, so a thousand
+// patients called "Simran" share one String however their names arrived
+// (keyboard, file, socket). Each code also knows the code of its case-folded,
+// trimmed form, which is what NameIndex compares.
+//
+// Entries are reference-counted. Whoever keeps a patient waiting (HospitalER,
+// PrimitivePatientStore) acquires the name when the patient joins and releases
+// it when they leave; the last release drops the entry and its code is handed
+// to the next new name, so the dictionary holds the names of the patients
+// waiting now, not of everyone ever admitted. A code is therefore only
+// meaningful while its holder keeps the reference: a Patient that has left has
+// nameCode -1, and copies handed to other threads carry the name itself.
+//
+// Lookups and acquiring a name that is already held are a ConcurrentHashMap
+// probe plus a CAS and never lock; creating or dropping an entry takes the
+// dictionary's lock. Codes are process-local: files that store codes carry
+// their own definitions (see PatientJournal.writeSnapshot and TreatedLog).
+class NameDictionary
+{
+    static final NameDictionary SHARED = new NameDictionary();
+
+    private static final class Entry
+    {
+        final String name;
+        final int code;
+        final Entry folded;   // itself when the name is already folded
+        // references held; reaches 0 only under the lock, which then drops it
+        final AtomicInteger refs = new AtomicInteger();
+
+        Entry(String name, int code, Entry folded)
+        {
+            this.name = name;
+            this.code = code;
+            this.folded = folded == null ? this : folded;
+        }
+    }
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    // Published by the volatile write of the array reference or, for a slot
+    // filled in place, by the ConcurrentHashMap put that follows it.
+    private volatile Entry[] byCode = new Entry[256];
+    private int[] freeCodes = new int[64];
+    private int freeCount;
+    private int nextCode;
+
+    // Code for name with one more reference on it, creating the entry if the
+    // name is new. Every acquire needs a matching release.
+    public int acquire(String name)
+    {
+        Entry e = entries.get(name);
+        if (e != null) {
+            for (int r = e.refs.get(); r > 0; r = e.refs.get()) {
+                if (e.refs.compareAndSet(r, r + 1)) return e.code;
+            }
+        }
+        return acquireLocked(name).code;
+    }
+
+    // Gives back a reference taken by acquire; the last one drops the entry.
+    public void release(int code)
+    {
+        Entry e = byCode[code];
+        for (int r = e.refs.get(); r > 1; r = e.refs.get()) {
+            if (e.refs.compareAndSet(r, r - 1)) return;
+        }
+        releaseLocked(e);
+    }
+
+    // The canonical instance of name if it is held, else name itself. Takes
+    // no reference, so it creates nothing.
+    public String canonical(String name)
+    {
+        Entry e = name == null ? null : entries.get(name);
+        return e != null ? e.name : name;
+    }
+
+    // Code of a held name, or -1.
+    public int codeOf(String name)
+    {
+        Entry e = entries.get(name);
+        return e != null ? e.code : -1;
+    }
+
+    public String name(int code)
+    {
+        return byCode[code].name;
+    }
+
+    // Code of the trimmed, lower-cased form of code's name.
+    public int folded(int code)
+    {
+        return byCode[code].folded.code;
+    }
+
+    // Names currently held, folded forms included.
+    public int size()
+    {
+        return entries.size();
+    }
+
+    private synchronized Entry acquireLocked(String name)
+    {
+        Entry e = entries.get(name);
+        if (e != null) {
+            e.refs.incrementAndGet();
+            return e;
+        }
+        // the folded form is held by each spelling that folds to it
+        String key = fold(name);
+        Entry folded = key.equals(name) ? null : acquireLocked(key);
+        int code = freeCount > 0 ? freeCodes[--freeCount] : nextCode++;
+        if (code >= byCode.length) byCode = Arrays.copyOf(byCode, byCode.length * 2);
+        e = new Entry(name, code, folded);
+        e.refs.set(1);
+        byCode[code] = e;
+        entries.put(name, e);
+        return e;
+    }
+
+    private synchronized void releaseLocked(Entry e)
+    {
+        if (e.refs.decrementAndGet() > 0) return;
+        entries.remove(e.name);
+        byCode[e.code] = null;
+        if (freeCount == freeCodes.length) freeCodes = Arrays.copyOf(freeCodes, freeCount * 2);
+        freeCodes[freeCount++] = e.code;
+        if (e.folded != e) releaseLocked(e.folded);
+    }
+
+    static String fold(String name)
+    {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+}
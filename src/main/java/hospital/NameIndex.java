@@ -0,0 +1,101 @@
+package hospital;
+
+import java.util.*;
+
+// Case-folded name index over the waiting list, keyed by NameDictionary
+// codes: a patient is filed under the code of their folded name, so matching
+// a name is an int array index rather than a string compare, and admitting
+// or discharging folds nothing. An exact lookup folds the query once; a
+// prefix lookup walks the prefix down a character trie and then only the
+// subtree of names that actually start with it. Each name keeps its
+// patients in arrival order.
+class NameIndex 
+{
+    private static final class TrieNode 
+    {
+        final TreeMap<Character, TrieNode> children = new TreeMap<>();
+        LinkedHashSet<Node> patients;   // non-null when a waiting name ends here
+        int count;                      // waiting patients in this subtree
+    }
+
+    private final NameDictionary names = NameDictionary.SHARED;
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private LinkedHashSet<Node>[] byCode = new LinkedHashSet[64];
+    private final TrieNode root = new TrieNode();
+
+    public void add(Node node) 
+    {
+        int code = names.folded(node.patient.nameCode);
+        String key = names.name(code);
+        TrieNode t = root;
+        t.count++;
+        for (int i = 0; i < key.length(); i++) {
+            t = t.children.computeIfAbsent(key.charAt(i), c -> new TrieNode());
+            t.count++;
+        }
+        if (t.patients == null) {
+            t.patients = new LinkedHashSet<>();
+            if (code >= byCode.length) byCode = Arrays.copyOf(byCode, Math.max(code + 1, byCode.length * 2));
+            byCode[code] = t.patients;
+        }
+        t.patients.add(node);
+    }
+
+    public void remove(Node node) 
+    {
+        int code = names.folded(node.patient.nameCode);
+        String key = names.name(code);
+        LinkedHashSet<Node> set = code < byCode.length ? byCode[code] : null;
+        if (set == null || !set.remove(node)) return;
+        if (set.isEmpty()) byCode[code] = null;
+
+        // walk down decrementing counts and cut the first branch that empties
+        TrieNode t = root;
+        t.count--;
+        for (int i = 0; i < key.length(); i++) {
+            TrieNode child = t.children.get(key.charAt(i));
+            if (--child.count == 0) {
+                t.children.remove(key.charAt(i));
+                return;
+            }
+            t = child;
+        }
+        if (set.isEmpty()) t.patients = null;
+    }
+
+    public List<Patient> exact(String name) 
+    {
+        int code = names.codeOf(NameDictionary.fold(name));
+        LinkedHashSet<Node> set = code >= 0 && code < byCode.length ? byCode[code] : null;
+        if (set == null) return new ArrayList<>();
+        List<Patient> list = new ArrayList<>(set.size());
+        for (Node n : set) list.add(n.patient);
+        return list;
+    }
+
+    // Patients whose name starts with prefix, grouped by name alphabetically,
+    // at most limit of them.
+    public List<Patient> withPrefix(String prefix, int limit) 
+    {
+        List<Patient> list = new ArrayList<>();
+        String key = NameDictionary.fold(prefix);
+        TrieNode t = root;
+        for (int i = 0; i < key.length() && t != null; i++) t = t.children.get(key.charAt(i));
+        if (t != null) collect(t, list, limit);
+        return list;
+    }
+
+    private static void collect(TrieNode t, List<Patient> out, int limit) 
+    {
+        if (t.patients != null) {
+            for (Node n : t.patients) {
+                if (out.size() >= limit) return;
+                out.add(n.patient);
+            }
+        }
+        for (TrieNode child : t.children.values()) {
+            if (out.size() >= limit) return;
+            collect(child, out, limit);
+        }
+    }
+}
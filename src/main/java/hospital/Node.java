@@ -0,0 +1,16 @@
+package hospital;
+
+class Node 
+{
+    Patient patient;
+    Node prev, next;
+    int heapIndex = -1;
+    long key;   // patient.triageKey() as of the last offer/update
+    Node qPrev, qNext;
+    int bucket = -1;
+    int rank = -1;  // slot in QueuePositions, once built
+
+    Node(Patient patient) {
+        this.patient = patient;
+    }
+}
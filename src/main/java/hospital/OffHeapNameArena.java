@@ -0,0 +1,115 @@
+package hospital;
+
+import java.nio.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Off-heap string storage for OffHeapPatientStore. A name is stored as a
+// two-byte length followed by its UTF-8 bytes, in a block of the smallest
+// power-of-two size class (16 B to 64 KB) that fits. Blocks are carved from
+// 1 MB direct chunks and never straddle one; a freed block goes onto its
+// class's free list (the link lives in the block itself), so a steady churn
+// of admissions and discharges reuses the same memory instead of growing.
+//
+// References are longs (chunk << 20 | offset). Names whose UTF-8 form exceeds
+// MAX_BYTES are cut at the last whole character that fits.
+class OffHeapNameArena
+{
+    static final int MAX_BYTES = (1 << 16) - 2;
+
+    private static final int CHUNK_BITS = 20;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int MIN_CLASS_BITS = 4;
+    private static final int CLASSES = 17 - MIN_CLASS_BITS;
+    private static final long NONE = -1;
+
+    private ByteBuffer[] chunks = new ByteBuffer[16];
+    private int chunkCount;
+    private int chunkUsed = CHUNK_SIZE;
+    private final long[] freeLists = new long[CLASSES];
+
+    OffHeapNameArena()
+    {
+        Arrays.fill(freeLists, NONE);
+    }
+
+    public long bytes()
+    {
+        return (long) chunkCount * CHUNK_SIZE;
+    }
+
+    public long store(String name)
+    {
+        byte[] utf8 = name.getBytes(StandardCharsets.UTF_8);
+        int length = utf8.length <= MAX_BYTES ? utf8.length : cut(utf8);
+        long ref = allocate(classOf(length + 2));
+        ByteBuffer chunk = chunks[(int) (ref >>> CHUNK_BITS)];
+        int at = (int) ref & (CHUNK_SIZE - 1);
+        chunk.putShort(at, (short) length);
+        chunk.put(at + 2, utf8, 0, length);
+        return ref;
+    }
+
+    public String load(long ref)
+    {
+        ByteBuffer chunk = chunks[(int) (ref >>> CHUNK_BITS)];
+        int at = (int) ref & (CHUNK_SIZE - 1);
+        byte[] utf8 = new byte[chunk.getShort(at) & 0xFFFF];
+        chunk.get(at + 2, utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    // Compares without decoding; utf8 is the caller's encoded search key.
+    public boolean matches(long ref, byte[] utf8)
+    {
+        ByteBuffer chunk = chunks[(int) (ref >>> CHUNK_BITS)];
+        int at = (int) ref & (CHUNK_SIZE - 1);
+        if ((chunk.getShort(at) & 0xFFFF) != utf8.length) return false;
+        for (int i = 0; i < utf8.length; i++) {
+            if (chunk.get(at + 2 + i) != utf8[i]) return false;
+        }
+        return true;
+    }
+
+    public void free(long ref)
+    {
+        ByteBuffer chunk = chunks[(int) (ref >>> CHUNK_BITS)];
+        int at = (int) ref & (CHUNK_SIZE - 1);
+        int sizeClass = classOf((chunk.getShort(at) & 0xFFFF) + 2);
+        chunk.putLong(at, freeLists[sizeClass]);
+        freeLists[sizeClass] = ref;
+    }
+
+    private long allocate(int sizeClass)
+    {
+        long ref = freeLists[sizeClass];
+        if (ref != NONE) {
+            freeLists[sizeClass] = chunks[(int) (ref >>> CHUNK_BITS)].getLong((int) ref & (CHUNK_SIZE - 1));
+            return ref;
+        }
+        int blockBytes = 1 << (sizeClass + MIN_CLASS_BITS);
+        if (chunkUsed + blockBytes > CHUNK_SIZE) {
+            if (chunkCount == chunks.length) chunks = Arrays.copyOf(chunks, chunkCount * 2);
+            chunks[chunkCount++] = ByteBuffer.allocateDirect(CHUNK_SIZE).order(ByteOrder.nativeOrder());
+            chunkUsed = 0;
+        }
+        ref = ((long) (chunkCount - 1) << CHUNK_BITS) | chunkUsed;
+        chunkUsed += blockBytes;
+        return ref;
+    }
+
+    // Smallest class whose blocks hold blockBytes: 0 for 16 B ... 12 for 64 KB.
+    private static int classOf(int blockBytes)
+    {
+        int bits = 32 - Integer.numberOfLeadingZeros(Math.max(blockBytes, 1 << MIN_CLASS_BITS) - 1);
+        return bits - MIN_CLASS_BITS;
+    }
+
+    // Longest prefix of at most MAX_BYTES that ends on a character boundary.
+    private static int cut(byte[] utf8)
+    {
+        int length = MAX_BYTES;
+        while (length > 0 && (utf8[length] & 0xC0) == 0x80) length--;
+        return length;
+    }
+}
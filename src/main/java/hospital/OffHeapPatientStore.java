@@ -0,0 +1,324 @@
+package hospital;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Waiting room with no per-patient Java objects at all, for disaster-scale
+// simulations where tens of millions of Patient/Node objects make every full
+// GC freeze the board. Everything a patient owns lives in direct memory:
+//
+//   records   OffHeapTable, 48 bytes per slot (layout below); freed slots are
+//             recycled through a free list threaded through NEXT
+//   heap      OffHeapTable of (triage key, slot) pairs: an indexed binary heap
+//             with the same packed key and order as IndexedHeap (STRICT)
+//   IDs       OffHeapSlotMap, ID -> slot
+//   names     OffHeapNameArena
+//
+// The Java heap holds a few hundred ByteBuffer headers however many patients
+// wait, so GC work stays flat. Operations allocate nothing on the heap except
+// the UTF-8 bytes of an admitted name and the Strings that lookups return.
+class OffHeapPatientStore implements TriageEngine
+{
+    private static final int LEVELS = 10;
+    private static final int NONE = -1;
+
+    // record layout
+    private static final int ID = 0, SEVERITY = 4, ARRIVAL = 8, KEY = 16;
+    private static final int PREV = 24, NEXT = 28, HEAP_INDEX = 32, NAME = 40;
+    private static final int RECORD_BYTES = 48;
+    // heap entry layout
+    private static final int H_KEY = 0, H_SLOT = 8, HEAP_BYTES = 16;
+
+    private final OffHeapTable records;
+    private final OffHeapTable heap;
+    private final OffHeapSlotMap slots;
+    private final OffHeapNameArena names = new OffHeapNameArena();
+
+    private int head = NONE, tail = NONE;
+    private int freeHead = NONE;
+    private int used;
+    private int size;
+    private int idCounter = 1;
+    private long seqCounter = 1;
+
+    private final long epochNanosBase = System.currentTimeMillis() * 1_000_000L;
+    private final long nanoTimeBase = System.nanoTime();
+
+    OffHeapPatientStore()
+    {
+        this(1 << 16);
+    }
+
+    OffHeapPatientStore(int expected)
+    {
+        records = new OffHeapTable(RECORD_BYTES, expected);
+        heap = new OffHeapTable(HEAP_BYTES, expected);
+        slots = new OffHeapSlotMap(expected);
+    }
+
+    public int addPatient(String name, int severity)
+    {
+        int slot = allocate();
+        int id = idCounter++;
+        int level = clampSeverity(severity);
+        long key = keyOf(level, seqCounter++);
+        records.putInt(slot, ID, id);
+        records.putInt(slot, SEVERITY, level);
+        records.putLong(slot, ARRIVAL, epochNanosBase + (System.nanoTime() - nanoTimeBase));
+        records.putLong(slot, KEY, key);
+        records.putLong(slot, NAME, names.store(name));
+        linkArrival(slot);
+        heap.ensureCapacity(size + 1L);
+        place(key, slot, size);
+        siftUp(size++);
+        slots.put(id, slot);
+        return id;
+    }
+
+    public int treatNext()
+    {
+        if (size == 0) return -1;
+        int slot = heap.getInt(0, H_SLOT);
+        int id = records.getInt(slot, ID);
+        slots.remove(id);
+        release(slot);
+        return id;
+    }
+
+    public int peekNext()
+    {
+        return size == 0 ? -1 : records.getInt(heap.getInt(0, H_SLOT), ID);
+    }
+
+    // Keeps the arrival sequence, like IndexedHeap: a re-triaged patient is
+    // placed by when they arrived within the new level.
+    public boolean updateSeverity(int id, int newSeverity)
+    {
+        int slot = slots.get(id);
+        if (slot < 0) return false;
+        int severity = clampSeverity(newSeverity);
+        long key = keyOf(severity, records.getLong(slot, KEY) & ((1L << Patient.SEQ_BITS) - 1));
+        records.putInt(slot, SEVERITY, severity);
+        records.putLong(slot, KEY, key);
+        int i = records.getInt(slot, HEAP_INDEX);
+        heap.putLong(i, H_KEY, key);
+        if (!siftUp(i)) siftDown(i);
+        return true;
+    }
+
+    public boolean removePatient(int id)
+    {
+        int slot = slots.remove(id);
+        if (slot < 0) return false;
+        release(slot);
+        return true;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public boolean contains(int id)
+    {
+        return slots.get(id) >= 0;
+    }
+
+    // -1 when the ID is not waiting
+    public int severityOf(int id)
+    {
+        int slot = slots.get(id);
+        return slot < 0 ? -1 : records.getInt(slot, SEVERITY);
+    }
+
+    public String nameOf(int id)
+    {
+        int slot = slots.get(id);
+        return slot < 0 ? null : names.load(records.getLong(slot, NAME));
+    }
+
+    // Arrival time as nanoseconds since the epoch, or -1.
+    public long arrivalEpochNanos(int id)
+    {
+        int slot = slots.get(id);
+        return slot < 0 ? -1 : records.getLong(slot, ARRIVAL);
+    }
+
+    // IDs of the patients with exactly this name, in arrival order. A scan over
+    // the records, comparing the stored UTF-8 bytes without decoding them.
+    public int[] idsWithName(String name)
+    {
+        byte[] utf8 = name.getBytes(StandardCharsets.UTF_8);
+        int[] out = new int[8];
+        int n = 0;
+        for (int s = head; s != NONE; s = records.getInt(s, NEXT)) {
+            if (!names.matches(records.getLong(s, NAME), utf8)) continue;
+            if (n == out.length) out = Arrays.copyOf(out, n * 2);
+            out[n++] = records.getInt(s, ID);
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    public int[] idsInArrivalOrder()
+    {
+        int[] out = new int[size];
+        int i = 0;
+        for (int s = head; s != NONE; s = records.getInt(s, NEXT)) out[i++] = records.getInt(s, ID);
+        return out;
+    }
+
+    // Pops a heap-ordered copy, so no sort and no boxing.
+    public int[] idsInSeverityOrder()
+    {
+        long[] keys = new long[size];
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = heap.getLong(i, H_KEY);
+            order[i] = heap.getInt(i, H_SLOT);
+        }
+        for (int n = size - 1; n > 0; n--) {
+            long k = keys[0];
+            int s = order[0];
+            keys[0] = keys[n];
+            order[0] = order[n];
+            keys[n] = k;
+            order[n] = s;
+            siftDown(keys, order, n);
+        }
+        // smallest key, i.e. next to treat, ended up last
+        int[] out = new int[size];
+        for (int i = 0; i < size; i++) out[i] = records.getInt(order[size - 1 - i], ID);
+        return out;
+    }
+
+    // Direct memory held, in bytes; the heap side is constant.
+    public long offHeapBytes()
+    {
+        return records.bytes() + heap.bytes() + slots.bytes() + names.bytes();
+    }
+
+    private static long keyOf(int severity, long seq)
+    {
+        return ((long) (LEVELS - severity) << Patient.SEQ_BITS) | seq;
+    }
+
+    private int allocate()
+    {
+        if (freeHead != NONE) {
+            int slot = freeHead;
+            freeHead = records.getInt(slot, NEXT);
+            return slot;
+        }
+        records.ensureCapacity(used + 1L);
+        return used++;
+    }
+
+    private void release(int slot)
+    {
+        removeAt(records.getInt(slot, HEAP_INDEX));
+        unlinkArrival(slot);
+        names.free(records.getLong(slot, NAME));
+        records.putInt(slot, NEXT, freeHead);
+        freeHead = slot;
+    }
+
+    private void linkArrival(int slot)
+    {
+        records.putInt(slot, PREV, tail);
+        records.putInt(slot, NEXT, NONE);
+        if (tail == NONE) head = slot;
+        else records.putInt(tail, NEXT, slot);
+        tail = slot;
+    }
+
+    private void unlinkArrival(int slot)
+    {
+        int p = records.getInt(slot, PREV), n = records.getInt(slot, NEXT);
+        if (p != NONE) records.putInt(p, NEXT, n);
+        else head = n;
+        if (n != NONE) records.putInt(n, PREV, p);
+        else tail = p;
+    }
+
+
+    // ===================== HEAP =====================
+    // IndexedHeap's algorithm over (key, slot) entries; keeping the key in the
+    // entry means sifting never touches the records except to store HEAP_INDEX.
+
+    private void removeAt(int i)
+    {
+        int last = --size;
+        if (i == last) return;
+        place(heap.getLong(last, H_KEY), heap.getInt(last, H_SLOT), i);
+        if (!siftUp(i)) siftDown(i);
+    }
+
+    private boolean siftUp(int i)
+    {
+        long key = heap.getLong(i, H_KEY);
+        int slot = heap.getInt(i, H_SLOT);
+        int start = i;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            long parentKey = heap.getLong(parent, H_KEY);
+            if (key >= parentKey) break;
+            place(parentKey, heap.getInt(parent, H_SLOT), i);
+            i = parent;
+        }
+        place(key, slot, i);
+        return i != start;
+    }
+
+    private void siftDown(int i)
+    {
+        long key = heap.getLong(i, H_KEY);
+        int slot = heap.getInt(i, H_SLOT);
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            long childKey = heap.getLong(child, H_KEY);
+            int right = child + 1;
+            if (right < size) {
+                long rightKey = heap.getLong(right, H_KEY);
+                if (rightKey < childKey) {
+                    child = right;
+                    childKey = rightKey;
+                }
+            }
+            if (key <= childKey) break;
+            place(childKey, heap.getInt(child, H_SLOT), i);
+            i = child;
+        }
+        place(key, slot, i);
+    }
+
+    // siftDown from the root over the first n entries of a detached copy.
+    private static void siftDown(long[] keys, int[] slots, int n)
+    {
+        long key = keys[0];
+        int slot = slots[0];
+        int i = 0;
+        while (2 * i + 1 < n) {
+            int child = 2 * i + 1;
+            if (child + 1 < n && keys[child + 1] < keys[child]) child++;
+            if (key <= keys[child]) break;
+            keys[i] = keys[child];
+            slots[i] = slots[child];
+            i = child;
+        }
+        keys[i] = key;
+        slots[i] = slot;
+    }
+
+    private void place(long key, int slot, int i)
+    {
+        heap.putLong(i, H_KEY, key);
+        heap.putInt(i, H_SLOT, slot);
+        records.putInt(slot, HEAP_INDEX, i);
+    }
+
+    private static int clampSeverity(int s)
+    {
+        return Math.max(1, Math.min(s, LEVELS));
+    }
+}
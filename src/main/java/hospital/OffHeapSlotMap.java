@@ -0,0 +1,109 @@
+package hospital;
+
+// IntSlotMap with its cells in an OffHeapTable: the same linear probing and
+// backward-shift deletion, keys positive, 0 marks an empty cell (so get and
+// remove answer -1 for keys <= 0 rather than probing for one). Growing
+// rehashes into a new table and lets the old direct buffers go.
+class OffHeapSlotMap
+{
+    private static final int KEY = 0, VALUE = 4, CELL_BYTES = 8;
+
+    private OffHeapTable cells;
+    private long mask;
+    private long size;
+
+    OffHeapSlotMap(long expected)
+    {
+        allocate(Math.max(1L << 16, Long.highestOneBit(Math.max(4, expected * 2 - 1)) << 1));
+    }
+
+    private void allocate(long capacity)
+    {
+        cells = new OffHeapTable(CELL_BYTES, capacity);
+        mask = capacity - 1;
+    }
+
+    public long size()
+    {
+        return size;
+    }
+
+    public long bytes()
+    {
+        return cells.bytes();
+    }
+
+    // Returns the value for key, or -1.
+    public int get(int key)
+    {
+        if (key <= 0) return -1;
+        for (long i = hash(key) & mask; ; i = (i + 1) & mask) {
+            int k = cells.getInt(i, KEY);
+            if (k == key) return cells.getInt(i, VALUE);
+            if (k == 0) return -1;
+        }
+    }
+
+    public void put(int key, int value)
+    {
+        if (key <= 0) throw new IllegalArgumentException("key must be positive: " + key);
+        if (2 * (size + 1) > mask + 1) grow();
+        for (long i = hash(key) & mask; ; i = (i + 1) & mask) {
+            int k = cells.getInt(i, KEY);
+            if (k == 0) {
+                cells.putInt(i, KEY, key);
+                cells.putInt(i, VALUE, value);
+                size++;
+                return;
+            }
+            if (k == key) {
+                cells.putInt(i, VALUE, value);
+                return;
+            }
+        }
+    }
+
+    // Removes key and returns its value, or -1 when absent.
+    public int remove(int key)
+    {
+        if (key <= 0) return -1;
+        long i = hash(key) & mask;
+        while (cells.getInt(i, KEY) != key) {
+            if (cells.getInt(i, KEY) == 0) return -1;
+            i = (i + 1) & mask;
+        }
+        int removed = cells.getInt(i, VALUE);
+        size--;
+        for (long gap = i, j = (i + 1) & mask; ; j = (j + 1) & mask) {
+            int k = cells.getInt(j, KEY);
+            if (k == 0) {
+                cells.putInt(gap, KEY, 0);
+                return removed;
+            }
+            long home = hash(k) & mask;
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                cells.putInt(gap, KEY, k);
+                cells.putInt(gap, VALUE, cells.getInt(j, VALUE));
+                gap = j;
+            }
+        }
+    }
+
+    private void grow()
+    {
+        OffHeapTable old = cells;
+        long oldCapacity = mask + 1;
+        allocate(oldCapacity * 2);
+        size = 0;
+        for (long i = 0; i < oldCapacity; i++) {
+            int k = old.getInt(i, KEY);
+            if (k != 0) put(k, old.getInt(i, VALUE));
+        }
+    }
+
+    private static long hash(int key)
+    {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & 0xFFFFFFFFL;
+    }
+}
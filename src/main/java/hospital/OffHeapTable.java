@@ -0,0 +1,67 @@
+package hospital;
+
+import java.nio.*;
+import java.util.Arrays;
+
+// Growable array of fixed-size records in direct (off-heap) memory. Records
+// live in 64k-record chunks of native-order ByteBuffers, so a table of tens of
+// millions of records is a few hundred buffer objects on the Java heap and
+// growing it never copies what is already there. Fields are addressed by
+// record index and byte offset within the record.
+//
+// Direct memory counts against -XX:MaxDirectMemorySize (default: the -Xmx
+// value), not the heap.
+class OffHeapTable
+{
+    private static final int CHUNK_BITS = 16;
+    private static final int CHUNK_MASK = (1 << CHUNK_BITS) - 1;
+
+    private final int recordBytes;
+    private ByteBuffer[] chunks = new ByteBuffer[16];
+    private int chunkCount;
+
+    OffHeapTable(int recordBytes, long expected)
+    {
+        this.recordBytes = recordBytes;
+        ensureCapacity(Math.max(1, expected));
+    }
+
+    public long capacity()
+    {
+        return (long) chunkCount << CHUNK_BITS;
+    }
+
+    public long bytes()
+    {
+        return capacity() * recordBytes;
+    }
+
+    // Makes records [0, records) addressable; new memory is zeroed.
+    public void ensureCapacity(long records)
+    {
+        while (capacity() < records) {
+            if (chunkCount == chunks.length) chunks = Arrays.copyOf(chunks, chunkCount * 2);
+            chunks[chunkCount++] = ByteBuffer.allocateDirect(recordBytes << CHUNK_BITS).order(ByteOrder.nativeOrder());
+        }
+    }
+
+    public int getInt(long record, int field)
+    {
+        return chunks[(int) (record >>> CHUNK_BITS)].getInt((int) (record & CHUNK_MASK) * recordBytes + field);
+    }
+
+    public void putInt(long record, int field, int value)
+    {
+        chunks[(int) (record >>> CHUNK_BITS)].putInt((int) (record & CHUNK_MASK) * recordBytes + field, value);
+    }
+
+    public long getLong(long record, int field)
+    {
+        return chunks[(int) (record >>> CHUNK_BITS)].getLong((int) (record & CHUNK_MASK) * recordBytes + field);
+    }
+
+    public void putLong(long record, int field, long value)
+    {
+        chunks[(int) (record >>> CHUNK_BITS)].putLong((int) (record & CHUNK_MASK) * recordBytes + field, value);
+    }
+}
@@ -0,0 +1,96 @@
+package hospital;
+
+import java.util.*;
+import java.time.*;
+
+class Patient 
+{
+    int id;
+    String name;    // canonical in NameDictionary.SHARED while the patient waits
+    int nameCode;   // its code there while held (see holdName), else -1
+    int severity;
+    LocalDateTime arrivalTime;  // wall clock in the ER's zone, as shown and persisted
+    long arrivalMillis;         // the same instant as epoch millis; orders arrivals across DST changes
+    long seq;   // admission order, assigned by HospitalER and persisted
+
+    static final int SEQ_BITS = 59;
+
+    Patient(int id, String name, int severity) 
+    {
+        this(id, name, severity, LocalDateTime.now(), 0);
+    }
+
+    // A patient restored from disk or another ER, arrival and order as recorded.
+    // Only the wall-clock time survives there, so the instant assumes the JVM's zone.
+    Patient(int id, String name, int severity, LocalDateTime arrivalTime, long seq) 
+    {
+        this(id, name, severity, arrivalTime, epochMillis(arrivalTime, ZoneId.systemDefault()), seq);
+    }
+
+    Patient(int id, String name, int severity, LocalDateTime arrivalTime, long arrivalMillis, long seq) 
+    {
+        this.id = id;
+        this.name = NameDictionary.SHARED.canonical(name);
+        this.nameCode = -1;
+        this.severity = Math.max(1, Math.min(severity, 10));
+        this.arrivalTime = arrivalTime;
+        this.arrivalMillis = arrivalMillis;
+        this.seq = seq;
+    }
+
+    // A copy that stays as it is now, for views handed to other threads.
+    Patient frozenCopy() 
+    {
+        return new Patient(id, name, severity, arrivalTime, arrivalMillis, seq);
+    }
+
+    // In the fall-back hour one wall-clock time names two instants; this takes the earlier.
+    static long epochMillis(LocalDateTime time, ZoneId zone) 
+    {
+        return time.atZone(zone).toInstant().toEpochMilli();
+    }
+
+    // Takes a reference on the name for as long as the patient waits; the ER
+    // that links the patient calls this, and dropName when they leave.
+    void holdName() 
+    {
+        nameCode = NameDictionary.SHARED.acquire(name);
+        name = NameDictionary.SHARED.name(nameCode);
+    }
+
+    void dropName() 
+    {
+        NameDictionary.SHARED.release(nameCode);
+        nameCode = -1;
+    }
+
+    // Severity and admission order packed into one long: a smaller key is
+    // treated first, and patients of equal severity leave in exact FIFO order.
+    long triageKey() 
+    {
+        return ((long) (10 - severity) << SEQ_BITS) | seq;
+    }
+
+    public String toString() 
+    {
+        return describe(id, name, severity, arrivalTime);
+    }
+
+    // Plain concatenation: String.format parses its pattern on every call.
+    static String describe(int id, String name, int severity, LocalDateTime arrivalTime) 
+    {
+        return "[ID:" + id + ", " + name + ", Severity:" + severity + ", Arrived:" + arrivalTime + "]";
+    }
+
+    public boolean equals(Object o) 
+    {
+        if (this == o) return true;
+        if (!(o instanceof Patient)) return false;
+        Patient other = (Patient) o;
+        return this.id == other.id;
+    }
+
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+}
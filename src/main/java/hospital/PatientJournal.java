@@ -0,0 +1,203 @@
+package hospital;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.Consumer;
+
+// Append-only write-ahead journal behind patients.txt. Each mutation appends one
+// short record instead of rewriting the whole file, so persisting an admission
+// costs the same with 10 or 100,000 patients waiting. patients.txt becomes the
+// latest snapshot; once the journal outgrows the waiting list HospitalER writes a
+// new snapshot and the journal starts over.
+//
+// Records (one per line, name last because it is free text):
+//   A,id,severity,arrival,seq,name    admitted
+//   U,id,severity                     re-triaged
+//   R,id                              removed
+//   T,id                              treated
+//   C,nextId,nextSeq                  counters (replication seed; see ReplicationLeader)
+//
+// Unlike the snapshot, records spell names out rather than use a name code:
+// each one must stand alone, because replication ships them verbatim to ERs
+// that may not have seen the name before.
+class PatientJournal 
+{
+    static final String NAMES_HEADER = "#names,";
+    private static final int MIN_COMPACT_ENTRIES = 1024;
+
+    private final File snapshotFile;
+    private final File journalFile;
+    private BufferedWriter out;
+    private int entries;
+
+    PatientJournal(File snapshotFile, File journalFile) 
+    {
+        this.snapshotFile = snapshotFile;
+        this.journalFile = journalFile;
+    }
+
+    public void admitted(Patient p) 
+    {
+        append(admittedRecord(p));
+    }
+
+    public void severityChanged(Patient p) 
+    {
+        append(severityChangedRecord(p));
+    }
+
+    public void removed(Patient p) 
+    {
+        append(removedRecord(p));
+    }
+
+    public void treated(Patient p) 
+    {
+        append(treatedRecord(p));
+    }
+
+    // The record formats on their own; replication ships the same lines.
+    static String admittedRecord(Patient p) 
+    {
+        return "A," + p.id + "," + p.severity + "," + p.arrivalTime.format(HospitalER.FORMATTER) + "," + p.seq + "," + p.name;
+    }
+
+    static String severityChangedRecord(Patient p) 
+    {
+        return "U," + p.id + "," + p.severity;
+    }
+
+    static String removedRecord(Patient p) 
+    {
+        return "R," + p.id;
+    }
+
+    static String treatedRecord(Patient p) 
+    {
+        return "T," + p.id;
+    }
+
+    static String countersRecord(int nextId, long nextSeq) 
+    {
+        return "C," + nextId + "," + nextSeq;
+    }
+
+    // Splits a record into fields; only an admission has a free-text name.
+    static String[] fields(String record) 
+    {
+        return record.split(",", record.charAt(0) == 'A' ? 6 : 3);
+    }
+
+    // Compaction is due once the journal holds more records than a snapshot would
+    // have lines, which keeps the amortized cost per operation constant.
+    public boolean shouldCompact(int waiting) 
+    {
+        return entries > Math.max(MIN_COMPACT_ENTRIES, 2 * waiting);
+    }
+
+    // Replays the journal tail left after the last snapshot. Entries are split
+    // into fields; a torn final line from a crash is skipped by the caller.
+    public void replay(Consumer<String[]> apply) throws IOException 
+    {
+        if (!journalFile.exists()) return;
+        try (BufferedReader br = Files.newBufferedReader(journalFile.toPath(), StandardCharsets.UTF_8)) 
+        {
+            String line;
+            while ((line = br.readLine()) != null) 
+            {
+                if (line.isEmpty()) continue;
+                apply.accept(fields(line));
+                entries++;
+            }
+        }
+    }
+
+    // Writes the waiting list to a temp file, swaps it in for patients.txt and
+    // truncates the journal. A crash between the two steps only replays records
+    // the snapshot already contains, which loading treats as no-ops.
+    //
+    // Each distinct name is written once, in a header, and rows refer to it by
+    // its position there:
+    //
+    //   #names,K              then K lines, one name each
+    //   id,nameCode,severity,time,seq
+    //
+    // Older snapshots have no header and carry the name itself in every row.
+    public void writeSnapshot(Node head) throws IOException 
+    {
+        // file-local codes in order of first use; IntSlotMap keys must be positive
+        IntSlotMap fileCodes = new IntSlotMap(256);
+        List<String> names = new ArrayList<>();
+        for (Node node = head; node != null; node = node.next) {
+            int key = node.patient.nameCode + 1;
+            if (fileCodes.get(key) < 0) {
+                fileCodes.put(key, names.size());
+                names.add(node.patient.name);
+            }
+        }
+
+        File tmp = new File(snapshotFile.getPath() + ".tmp");
+        try (PrintWriter pw = new PrintWriter(new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tmp), StandardCharsets.UTF_8)))) {
+            pw.println(NAMES_HEADER + names.size());
+            for (String name : names) pw.println(name);
+            for (Node node = head; node != null; node = node.next) {
+                Patient p = node.patient;
+                pw.println(p.id + "," + fileCodes.get(p.nameCode + 1) + "," + p.severity + "," + p.arrivalTime.format(HospitalER.FORMATTER) + "," + p.seq);
+            }
+        }
+        Files.move(tmp.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        close();
+        new FileOutputStream(journalFile).close();
+        entries = 0;
+    }
+
+    public void close() 
+    {
+        if (out == null) return;
+        try {
+            out.close();
+        } catch (IOException e) {
+            System.out.println("Error closing journal: " + e.getMessage());
+        }
+        out = null;
+    }
+
+    void append(String record) 
+    {
+        appendAll(List.of(record));
+    }
+
+    // Writes a batch of records with a single flush.
+    void appendAll(List<String> records) 
+    {
+        if (records.isEmpty()) return;
+        try {
+            if (out == null) {
+                boolean torn = endsTorn();
+                out = Files.newBufferedWriter(journalFile.toPath(), StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                // end a line torn by a crash so it cannot swallow the next record
+                if (torn) out.newLine();
+            }
+            for (String record : records) {
+                out.write(record);
+                out.newLine();
+            }
+            out.flush();
+            entries += records.size();
+        } catch (IOException e) {
+            System.out.println("Error writing journal: " + e.getMessage());
+        }
+    }
+
+    private boolean endsTorn() throws IOException 
+    {
+        if (!journalFile.exists() || journalFile.length() == 0) return false;
+        try (RandomAccessFile raf = new RandomAccessFile(journalFile, "r")) {
+            raf.seek(raf.length() - 1);
+            return raf.read() != '\n';
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package hospital;
+
+import java.util.*;
+
+// Immutable, path-copying treap of Patients ordered by (key, tie). Insert and
+// delete return a new root that shares every untouched subtree with the old
+// one, so each version costs O(log n) new nodes and older roots stay valid
+// forever: a reader holding one never sees a later change and needs no lock.
+// Priorities are a hash of tie, which keeps the expected depth logarithmic.
+class PersistentTreap
+{
+    static final class Node
+    {
+        final long key, tie;
+        final int priority;
+        final Patient value;
+        final Node left, right;
+
+        Node(long key, long tie, Patient value, Node left, Node right)
+        {
+            this(key, tie, priorityOf(tie), value, left, right);
+        }
+
+        private Node(long key, long tie, int priority, Patient value, Node left, Node right)
+        {
+            this.key = key;
+            this.tie = tie;
+            this.priority = priority;
+            this.value = value;
+            this.left = left;
+            this.right = right;
+        }
+
+        Node with(Node left, Node right)
+        {
+            return new Node(key, tie, priority, value, left, right);
+        }
+
+        boolean before(long k, long t)
+        {
+            return key < k || (key == k && tie < t);
+        }
+    }
+
+    private PersistentTreap() {}
+
+    static Node insert(Node root, long key, long tie, Patient value)
+    {
+        if (root == null) return new Node(key, tie, value, null, null);
+        if (root.key == key && root.tie == tie) return new Node(key, tie, value, root.left, root.right);
+        if (!root.before(key, tie)) {
+            Node left = insert(root.left, key, tie, value);
+            if (left.priority > root.priority) return left.with(left.left, root.with(left.right, root.right));
+            return root.with(left, root.right);
+        }
+        Node right = insert(root.right, key, tie, value);
+        if (right.priority > root.priority) return right.with(root.with(root.left, right.left), right.right);
+        return root.with(root.left, right);
+    }
+
+    static Node delete(Node root, long key, long tie)
+    {
+        if (root == null) return null;
+        if (root.key == key && root.tie == tie) return merge(root.left, root.right);
+        if (!root.before(key, tie)) {
+            Node left = delete(root.left, key, tie);
+            return left == root.left ? root : root.with(left, root.right);
+        }
+        Node right = delete(root.right, key, tie);
+        return right == root.right ? root : root.with(root.left, right);
+    }
+
+    // Joins two treaps where every entry of a sorts before every entry of b.
+    private static Node merge(Node a, Node b)
+    {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (a.priority > b.priority) return a.with(a.left, merge(a.right, b));
+        return b.with(merge(a, b.left), b.right);
+    }
+
+    static Node first(Node root)
+    {
+        if (root == null) return null;
+        while (root.left != null) root = root.left;
+        return root;
+    }
+
+    // In-order iteration with an explicit stack of depth O(log n).
+    static Iterator<Patient> iterator(Node root)
+    {
+        return new Iterator<>() {
+            private final ArrayDeque<Node> stack = new ArrayDeque<>();
+            {
+                pushLeft(root);
+            }
+
+            private void pushLeft(Node n)
+            {
+                for (; n != null; n = n.left) stack.push(n);
+            }
+
+            public boolean hasNext()
+            {
+                return !stack.isEmpty();
+            }
+
+            public Patient next()
+            {
+                if (stack.isEmpty()) throw new NoSuchElementException();
+                Node n = stack.pop();
+                pushLeft(n.right);
+                return n.value;
+            }
+        };
+    }
+
+    private static int priorityOf(long tie)
+    {
+        long z = tie * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 32)) * 0xD6E8FEB86659FD93L;
+        return (int) (z ^ (z >>> 32));
+    }
+}
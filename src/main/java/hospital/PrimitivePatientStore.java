@@ -0,0 +1,241 @@
+package hospital;
+
+import java.util.Arrays;
+
+// Struct-of-arrays waiting room. A patient is a slot index into parallel
+// primitive arrays (ID, name code, severity, arrival epoch-nanos, arrival-order
+// links and severity-bucket links) instead of a Patient + LocalDateTime + Node
+// + boxed Integer + HashMap.Entry. IDs map to slots through an open-addressing
+// IntSlotMap, and freed slots are recycled through a free list, so admitting,
+// treating, re-triaging and removing allocate nothing once the arrays have
+// grown to the board's size.
+//
+// Triage order matches SeverityBuckets: highest severity first, FIFO within a
+// level, and a re-triaged patient joins the back of the new level.
+class PrimitivePatientStore implements TriageEngine 
+{
+    private static final int LEVELS = 10;
+    private static final int NONE = -1;
+
+    private int[] ids;
+    private int[] severities;
+    private long[] arrivals;
+    private int[] nameCodes;      // NameDictionary.SHARED codes, held while waiting
+    private int[] prev, next;     // arrival order; next[] doubles as the free list
+    private int[] qPrev, qNext;   // FIFO within the severity level
+
+    private final IntSlotMap slots;
+    private final int[] levelHead = new int[LEVELS + 1];
+    private final int[] levelTail = new int[LEVELS + 1];
+    private int nonEmpty;
+    private int head = NONE, tail = NONE;
+    private int freeHead = NONE;
+    private int used;
+    private int size;
+    private int idCounter = 1;
+
+    private final long epochNanosBase = System.currentTimeMillis() * 1_000_000L;
+    private final long nanoTimeBase = System.nanoTime();
+
+    PrimitivePatientStore() 
+    {
+        this(1024);
+    }
+
+    PrimitivePatientStore(int expected) 
+    {
+        int capacity = Math.max(16, expected);
+        ids = new int[capacity];
+        severities = new int[capacity];
+        arrivals = new long[capacity];
+        nameCodes = new int[capacity];
+        prev = new int[capacity];
+        next = new int[capacity];
+        qPrev = new int[capacity];
+        qNext = new int[capacity];
+        slots = new IntSlotMap(capacity);
+        Arrays.fill(levelHead, NONE);
+        Arrays.fill(levelTail, NONE);
+    }
+
+    public int addPatient(String name, int severity) 
+    {
+        int slot = allocate();
+        int id = idCounter++;
+        ids[slot] = id;
+        severities[slot] = clampSeverity(severity);
+        arrivals[slot] = epochNanosBase + (System.nanoTime() - nanoTimeBase);
+        nameCodes[slot] = NameDictionary.SHARED.acquire(name);
+        linkArrival(slot);
+        linkLevel(slot);
+        slots.put(id, slot);
+        size++;
+        return id;
+    }
+
+    public int treatNext() 
+    {
+        if (nonEmpty == 0) return -1;
+        int slot = levelHead[topLevel()];
+        int id = ids[slot];
+        slots.remove(id);
+        release(slot);
+        return id;
+    }
+
+    public int peekNext() 
+    {
+        return nonEmpty == 0 ? -1 : ids[levelHead[topLevel()]];
+    }
+
+    public boolean updateSeverity(int id, int newSeverity) 
+    {
+        int slot = slots.get(id);
+        if (slot < 0) return false;
+        int severity = clampSeverity(newSeverity);
+        if (severities[slot] != severity) {
+            unlinkLevel(slot);
+            severities[slot] = severity;
+            linkLevel(slot);
+        }
+        return true;
+    }
+
+    public boolean removePatient(int id) 
+    {
+        int slot = slots.remove(id);
+        if (slot < 0) return false;
+        release(slot);
+        return true;
+    }
+
+    public int size() 
+    {
+        return size;
+    }
+
+    public boolean contains(int id) 
+    {
+        return slots.get(id) >= 0;
+    }
+
+    // -1 when the ID is not waiting
+    public int severityOf(int id) 
+    {
+        int slot = slots.get(id);
+        return slot < 0 ? -1 : severities[slot];
+    }
+
+    public String nameOf(int id) 
+    {
+        int slot = slots.get(id);
+        return slot < 0 ? null : NameDictionary.SHARED.name(nameCodes[slot]);
+    }
+
+    // Arrival time as nanoseconds since the epoch, or -1.
+    public long arrivalEpochNanos(int id) 
+    {
+        int slot = slots.get(id);
+        return slot < 0 ? -1 : arrivals[slot];
+    }
+
+    public int[] idsInArrivalOrder() 
+    {
+        int[] out = new int[size];
+        int i = 0;
+        for (int s = head; s != NONE; s = next[s]) out[i++] = ids[s];
+        return out;
+    }
+
+    public int[] idsInSeverityOrder() 
+    {
+        int[] out = new int[size];
+        int i = 0;
+        for (int level = LEVELS; level >= 1; level--) {
+            for (int s = levelHead[level]; s != NONE; s = qNext[s]) out[i++] = ids[s];
+        }
+        return out;
+    }
+
+    private int allocate() 
+    {
+        if (freeHead != NONE) {
+            int slot = freeHead;
+            freeHead = next[slot];
+            return slot;
+        }
+        if (used == ids.length) grow();
+        return used++;
+    }
+
+    private void release(int slot) 
+    {
+        unlinkLevel(slot);
+        unlinkArrival(slot);
+        NameDictionary.SHARED.release(nameCodes[slot]);
+        next[slot] = freeHead;
+        freeHead = slot;
+        size--;
+    }
+
+    private void grow() 
+    {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        severities = Arrays.copyOf(severities, capacity);
+        arrivals = Arrays.copyOf(arrivals, capacity);
+        nameCodes = Arrays.copyOf(nameCodes, capacity);
+        prev = Arrays.copyOf(prev, capacity);
+        next = Arrays.copyOf(next, capacity);
+        qPrev = Arrays.copyOf(qPrev, capacity);
+        qNext = Arrays.copyOf(qNext, capacity);
+    }
+
+    private int topLevel() 
+    {
+        return 31 - Integer.numberOfLeadingZeros(nonEmpty);
+    }
+
+    private void linkArrival(int slot) 
+    {
+        prev[slot] = tail;
+        next[slot] = NONE;
+        if (tail == NONE) head = slot;
+        else next[tail] = slot;
+        tail = slot;
+    }
+
+    private void unlinkArrival(int slot) 
+    {
+        if (prev[slot] != NONE) next[prev[slot]] = next[slot];
+        else head = next[slot];
+        if (next[slot] != NONE) prev[next[slot]] = prev[slot];
+        else tail = prev[slot];
+    }
+
+    private void linkLevel(int slot) 
+    {
+        int level = severities[slot];
+        qPrev[slot] = levelTail[level];
+        qNext[slot] = NONE;
+        if (levelTail[level] == NONE) levelHead[level] = slot;
+        else qNext[levelTail[level]] = slot;
+        levelTail[level] = slot;
+        nonEmpty |= 1 << level;
+    }
+
+    private void unlinkLevel(int slot) 
+    {
+        int level = severities[slot];
+        if (qPrev[slot] != NONE) qNext[qPrev[slot]] = qNext[slot];
+        else levelHead[level] = qNext[slot];
+        if (qNext[slot] != NONE) qPrev[qNext[slot]] = qPrev[slot];
+        else levelTail[level] = qPrev[slot];
+        if (levelHead[level] == NONE) nonEmpty &= ~(1 << level);
+    }
+
+    private static int clampSeverity(int s) 
+    {
+        return Math.max(1, Math.min(s, LEVELS));
+    }
+}
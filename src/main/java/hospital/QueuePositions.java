@@ -0,0 +1,219 @@
+package hospital;
+
+import java.util.*;
+
+// Answers "how many patients are ahead of ID X?" in O(log n) instead of
+// copying and sorting the queue. Every waiting patient holds a slot
+// (Node.rank); slots are handed out in the order the queue keeps within a
+// severity level (arrival sequence under STRICT and AGING, order of joining
+// the level under BUCKETED), and one Fenwick tree per level counts the
+// patients of that level by slot. Patients ahead of X are then
+//
+//   STRICT, BUCKETED   everyone at a higher level + X's level before X's slot
+//   AGING              for every level, those whose aging key beats X's
+//
+// where the AGING case binary-searches the slots by arrival (kept as a running
+// maximum so it is monotone). All three are exact; AGING relies on arrival
+// times following admission order, as they do under one clock, since it
+// keeps a re-triaged patient's slot and AgingTriageQueue files them by
+// arrival within their new level. Slots are never reused: when they run out
+// the live patients are renumbered and the trees rebuilt in O(levels * slots),
+// at most once per slots/2 admissions.
+//
+// Costs 10 ints, a byte and a reference per slot (up to twice the waiting
+// count) and O(log n) per change, which is why HospitalER builds it on the
+// first question rather than up front.
+class QueuePositions
+{
+    private static final int LEVELS = 10;
+    private static final int MIN_SLOTS = 1024;
+
+    private final boolean rejoinAtBack;
+    private final long stepMillis;
+    private final int[] counts = new int[LEVELS + 1];
+
+    private int[][] trees;
+    private Node[] nodes;
+    private byte[] levels;
+    private long[] arrival;
+    private int used, live;
+    private long lastSeq = Long.MIN_VALUE;
+    private boolean unordered;
+
+    // Files the waiting patients of queue, whose arrival list starts at head.
+    QueuePositions(TriageQueue queue, Node head)
+    {
+        rejoinAtBack = queue instanceof SeverityBuckets && !(queue instanceof AgingTriageQueue);
+        stepMillis = queue instanceof AgingTriageQueue ? ((AgingTriageQueue) queue).stepMillis() : 0;
+        List<Node> waiting = new ArrayList<>(queue.size());
+        if (rejoinAtBack) mergeBuckets((SeverityBuckets) queue, waiting);
+        else for (Node n = head; n != null; n = n.next) waiting.add(n);
+        rebuild(waiting, queue.size());
+    }
+
+    void added(Node node)
+    {
+        if (used == nodes.length - 1) compact();
+        int slot = ++used;
+        int level = node.patient.severity;
+        nodes[slot] = node;
+        levels[slot] = (byte) level;
+        if (arrival != null) arrival[slot] = Math.max(arrival[slot - 1], node.patient.arrivalMillis);
+        node.rank = slot;
+        add(level, slot, 1);
+        counts[level]++;
+        live++;
+        if (!rejoinAtBack && node.patient.seq < lastSeq) unordered = true;
+        lastSeq = Math.max(lastSeq, node.patient.seq);
+    }
+
+    void removed(Node node)
+    {
+        int slot = node.rank;
+        if (slot <= 0) return;
+        add(levels[slot], slot, -1);
+        counts[levels[slot]]--;
+        nodes[slot] = null;
+        node.rank = -1;
+        live--;
+    }
+
+    // Called after the queue has re-filed node, with the severity it had
+    // before. A batch re-triage reports its nodes one by one after they have
+    // all changed, so a compaction part way through may already have filed
+    // the rest at their new level; oldSeverity, not levels[], says whether
+    // the patient moved.
+    void retriaged(Node node, int oldSeverity)
+    {
+        int slot = node.rank;
+        int severity = node.patient.severity;
+        if (slot <= 0 || oldSeverity == severity) return;
+        if (rejoinAtBack) {
+            removed(node);
+            added(node);
+            return;
+        }
+        if (levels[slot] == severity) return;
+        add(levels[slot], slot, -1);
+        counts[levels[slot]]--;
+        levels[slot] = (byte) severity;
+        add(severity, slot, 1);
+        counts[severity]++;
+    }
+
+    // Patients the queue will serve before node; -1 if node is not filed here.
+    int countAhead(Node node)
+    {
+        if (unordered) compact();
+        int slot = node.rank;
+        if (slot <= 0) return -1;
+        int level = levels[slot];
+        int ahead = prefix(level, slot - 1);
+        if (arrival == null) {
+            for (int s = level + 1; s <= LEVELS; s++) ahead += counts[s];
+            return ahead;
+        }
+        // AgingTriageQueue serves the smallest arrival - severity * step, ties
+        // to the higher severity
+        for (int s = 1; s <= LEVELS; s++) {
+            if (s == level || counts[s] == 0) continue;
+            long bound = node.key + s * stepMillis;
+            ahead += prefix(s, slotsBefore(bound, s > level));
+        }
+        return ahead;
+    }
+
+    int waitingAt(int severity)
+    {
+        return severity < 1 || severity > LEVELS ? 0 : counts[severity];
+    }
+
+    // Number of leading slots whose arrival is below bound (or equal to it).
+    private int slotsBefore(long bound, boolean inclusive)
+    {
+        int lo = 0, hi = used;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            long a = arrival[mid];
+            if (a < bound || (inclusive && a == bound)) lo = mid;
+            else hi = mid - 1;
+        }
+        return lo;
+    }
+
+    // Renumbers the live patients from slot 1, in queue order.
+    private void compact()
+    {
+        List<Node> waiting = new ArrayList<>(live);
+        for (int slot = 1; slot <= used; slot++) {
+            if (nodes[slot] != null) waiting.add(nodes[slot]);
+        }
+        if (unordered) waiting.sort(Comparator.comparingLong(n -> n.patient.seq));
+        rebuild(waiting, live);
+    }
+
+    private void rebuild(List<Node> waiting, int count)
+    {
+        int capacity = Math.max(MIN_SLOTS, 2 * count);
+        trees = new int[LEVELS + 1][capacity + 1];
+        nodes = new Node[capacity + 1];
+        levels = new byte[capacity + 1];
+        arrival = stepMillis > 0 ? new long[capacity + 1] : null;
+        if (arrival != null) arrival[0] = Long.MIN_VALUE;
+        Arrays.fill(counts, 0);
+        used = live = 0;
+        lastSeq = Long.MIN_VALUE;
+        for (Node n : waiting) {
+            int slot = ++used;
+            int level = n.patient.severity;
+            nodes[slot] = n;
+            levels[slot] = (byte) level;
+            if (arrival != null) arrival[slot] = Math.max(arrival[slot - 1], n.patient.arrivalMillis);
+            n.rank = slot;
+            trees[level][slot] = 1;
+            counts[level]++;
+            lastSeq = Math.max(lastSeq, n.patient.seq);
+        }
+        live = used;
+        unordered = false;
+        // linear-time Fenwick build: push each partial sum to its parent
+        for (int level = 1; level <= LEVELS; level++) {
+            int[] tree = trees[level];
+            for (int i = 1; i <= capacity; i++) {
+                int parent = i + (i & -i);
+                if (parent <= capacity) tree[parent] += tree[i];
+            }
+        }
+    }
+
+    // Bucket order within each level, levels merged by arrival so that slot
+    // order roughly follows arrival across levels too.
+    private static void mergeBuckets(SeverityBuckets buckets, List<Node> out)
+    {
+        Node[] cursor = buckets.heads.clone();
+        while (true) {
+            Node best = null;
+            for (int level = 1; level <= LEVELS; level++) {
+                Node n = cursor[level];
+                if (n != null && (best == null || n.patient.arrivalMillis < best.patient.arrivalMillis)) best = n;
+            }
+            if (best == null) return;
+            out.add(best);
+            cursor[best.bucket] = best.qNext;
+        }
+    }
+
+    private void add(int level, int slot, int delta)
+    {
+        int[] tree = trees[level];
+        for (int i = slot; i < tree.length; i += i & -i) tree[i] += delta;
+    }
+
+    private int prefix(int level, int slot)
+    {
+        int[] tree = trees[level];
+        int sum = 0;
+        for (int i = slot; i > 0; i -= i & -i) sum += tree[i];
+        return sum;
+    }
+}
@@ -0,0 +1,115 @@
+package hospital;
+
+import java.util.*;
+
+// Leader/follower replication on localhost: a leader ER runs a random mix of
+// admissions, re-triages, removals and treatments while two followers apply
+// the stream; one follower joins late and is seeded from the waiting list.
+// Reports leader throughput, each follower's apply rate and lag percentiles,
+// checks that every follower ends up identical to the leader, then promotes a
+// follower and has the other one follow it. A third follower joins after the
+// newest patient has already left and is promoted too: it must carry on the
+// leader's IDs and arrival order rather than reuse them. Exits with status 1
+// on a mismatch.
+//
+//   gradle run -PmainClass=hospital.ReplicationDemo --args="[operations]"
+public class ReplicationDemo
+{
+    public static void main(String[] args) throws Exception
+    {
+        int operations = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        Random rand = new Random(42);
+
+        HospitalER leaderEr = new HospitalER(TriagePolicy.STRICT.newQueue(), false);
+        leaderEr.setQuiet(true);
+        ReplicationLeader leader = new ReplicationLeader(leaderEr, 0);
+        ReplicationFollower early = new ReplicationFollower("localhost", leader.port());
+        while (leader.followerCount() < 1) Thread.sleep(1);
+
+        long t0 = System.nanoTime();
+        ReplicationFollower late = null;
+        for (int i = 0; i < operations; i++) {
+            if (i == operations / 2) {
+                late = new ReplicationFollower("localhost", leader.port());
+                while (leader.followerCount() < 2) Thread.sleep(1);
+            }
+            mutate(leaderEr, rand);
+        }
+        double leaderSecs = (System.nanoTime() - t0) / 1e9;
+
+        long lsn = leader.lsn();
+        boolean ok = early.awaitLsn(lsn, 30_000) & late.awaitLsn(lsn, 30_000);
+        System.out.printf("leader: %d mutations in %.2fs (%.0f ops/sec), %d waiting%n",
+                lsn, leaderSecs, lsn / leaderSecs, leaderEr.size());
+        ok &= report("follower 1", early, leaderEr);
+        ok &= report("follower 2 (late)", late, leaderEr);
+
+        // the newest patient leaves, then a follower joins from the seed alone
+        int goneId = leaderEr.addPatient("Left before the seed", 10);
+        long goneSeq = leaderEr.searchPatientById(goneId).seq;
+        leaderEr.removePatient(goneId);
+        ReplicationFollower seeded = new ReplicationFollower("localhost", leader.port());
+        while (leader.followerCount() < 3) Thread.sleep(1);
+        // seed lines share one lsn; a re-triage after them marks the end
+        Patient anyone = leaderEr.viewNextToTreat();
+        leaderEr.updateSeverity(anyone.id, anyone.severity);
+        ok &= seeded.awaitLsn(leader.lsn(), 30_000);
+        HospitalER seededEr = seeded.promote();
+        Patient after = seededEr.searchPatientById(seededEr.addPatient("After late-join failover", 10));
+        boolean carriedOn = after.id > goneId && after.seq > goneSeq;
+        ok &= carriedOn;
+        System.out.println("late-joined follower, promoted, issued ID " + after.id + " seq " + after.seq
+                + (carriedOn ? "" : " (reused! leader had reached ID " + goneId + " seq " + goneSeq + ")"));
+
+        // fail over: the leader goes away, follower 1 takes writes, follower 2 re-follows it
+        leader.close();
+        late.close();
+        HospitalER promoted = early.promote();
+        ReplicationLeader newLeader = new ReplicationLeader(promoted, 0);
+        ReplicationFollower refollow = new ReplicationFollower("localhost", newLeader.port());
+        while (newLeader.followerCount() < 1) Thread.sleep(1);
+        int id = promoted.addPatient("After failover", 10);
+        boolean fresh = id > lastId;
+        ok &= fresh && refollow.awaitLsn(newLeader.lsn(), 30_000);
+        ok &= report("re-followed promoted", refollow, promoted);
+        System.out.println("promoted follower issued ID " + id + (fresh ? "" : " (reused!)"));
+
+        newLeader.close();
+        refollow.close();
+        if (!ok) System.exit(1);
+    }
+
+    private static int lastId;
+
+    // Update and remove pick any ID issued so far; ones already gone are no-ops.
+    private static void mutate(HospitalER er, Random rand)
+    {
+        int roll = rand.nextInt(10);
+        if (roll < 5 || er.isEmpty()) {
+            lastId = er.addPatient("Patient " + rand.nextInt(1000), rand.nextInt(10) + 1);
+        } else if (roll < 7) {
+            er.treatNext();
+        } else {
+            int id = rand.nextInt(lastId) + 1;
+            if (roll < 9) er.updateSeverity(id, rand.nextInt(10) + 1);
+            else er.removePatient(id);
+        }
+    }
+
+    private static boolean report(String label, ReplicationFollower f, HospitalER leaderEr)
+    {
+        LogHistogram lag = f.lagMicros();
+        boolean same = ids(f.viewSeverityOrder()).equals(ids(leaderEr.viewSeverityOrder()));
+        System.out.printf("%-22s applied %8d at %9.0f rec/sec  lag p50 %6d us  p99 %7d us  max %8d us  %s%n",
+                label, f.appliedCount(), f.applyRate(), lag.percentile(0.50), lag.percentile(0.99), lag.max(),
+                same ? "in sync" : "DIVERGED");
+        return same;
+    }
+
+    private static List<Integer> ids(List<Patient> patients)
+    {
+        List<Integer> ids = new ArrayList<>(patients.size());
+        for (Patient p : patients) ids.add(p.id);
+        return ids;
+    }
+}
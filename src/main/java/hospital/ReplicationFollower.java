@@ -0,0 +1,207 @@
+package hospital;
+
+import java.io.*;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+// Follower side of ER replication: connects to a ReplicationLeader, applies
+// each shipped record to its own HospitalER and serves read-only queries
+// meanwhile. The follower's ER can be persistent (its own dataDir), in which
+// case every applied record lands in its own journal as well.
+//
+// promote() stops following and hands the ER back to the caller, who can then
+// drive it as the primary; IDs and arrival order carry on where the leader's
+// stream stopped. Attach a new ReplicationLeader to keep other nodes in sync.
+//
+// The follower triages by the leader's policy, which the leader names when
+// the connection opens; an ER that triages differently is refused.
+//
+// A leader drops a follower that falls too far behind; isConnected() then
+// turns false, and following again into a fresh ER re-seeds it.
+class ReplicationFollower implements Closeable
+{
+    private static final int HANDSHAKE_TIMEOUT_MS = 10_000;
+
+    private final HospitalER er;
+    private final Socket socket;
+    private final BufferedReader in;
+    private final Thread reader;
+    private final LogHistogram lagMicros = new LogHistogram();
+    private volatile long appliedLsn;
+    private volatile long applied;
+    private volatile long firstApplyNanos, lastApplyNanos;
+    private volatile boolean connected = true;
+    private volatile boolean stopping;
+
+    // Follows into a new in-memory ER with the leader's policy.
+    ReplicationFollower(String host, int port) throws IOException
+    {
+        this(host, port, null);
+    }
+
+    // er should be empty: the leader seeds it with its current waiting list.
+    // null follows into a new in-memory ER.
+    ReplicationFollower(String host, int port, HospitalER er) throws IOException
+    {
+        socket = new Socket(host, port);
+        try {
+            socket.setTcpNoDelay(true);
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8), 1 << 16);
+            // a peer that is not a leader never sends the handshake
+            socket.setSoTimeout(HANDSHAKE_TIMEOUT_MS);
+            TriagePolicy policy = readPolicy(in);
+            socket.setSoTimeout(0);
+            if (er == null) er = quietInMemory(policy);
+            else if (er.policy() != policy) throw new IOException("leader triages by " + policy + ", this ER by " + er.policy());
+        } catch (IOException | RuntimeException e) {
+            socket.close();
+            throw e;
+        }
+        this.er = er;
+        reader = new Thread(this::run, "replication-follower-" + port);
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    private static TriagePolicy readPolicy(BufferedReader in) throws IOException
+    {
+        String line = in.readLine();
+        if (line == null || !line.startsWith("P,")) throw new IOException("no handshake from leader");
+        return TriagePolicy.parse(line.substring(2));
+    }
+
+    private static HospitalER quietInMemory(TriagePolicy policy)
+    {
+        HospitalER er = new HospitalER(policy.newQueue(), false);
+        er.setQuiet(true);
+        return er;
+    }
+
+    private void run()
+    {
+        try (in)
+        {
+            String line;
+            while ((line = in.readLine()) != null) {
+                int c1 = line.indexOf(',');
+                int c2 = line.indexOf(',', c1 + 1);
+                if (c1 < 0 || c2 < 0) continue;
+                long lsn = Long.parseLong(line, 0, c1, 10);
+                long sentMicros = Long.parseLong(line, c1 + 1, c2, 10);
+                synchronized (this) {
+                    er.applyRecord(line.substring(c2 + 1));
+                }
+                long now = System.nanoTime();
+                if (applied == 0) firstApplyNanos = now;
+                lastApplyNanos = now;
+                applied++;
+                appliedLsn = lsn;
+                lagMicros.record(Math.max(0, ReplicationLeader.nowMicros() - sentMicros));
+            }
+        }
+        catch (IOException | RuntimeException e)
+        {
+            if (!stopping) System.out.println("Error following leader: " + e.getMessage());
+        }
+        finally
+        {
+            connected = false;
+        }
+    }
+
+
+    // ===================== READ-ONLY QUERIES =====================
+    public synchronized List<Patient> viewWaitingList()
+    {
+        return er.viewWaitingList();
+    }
+
+    public synchronized List<Patient> viewSeverityOrder()
+    {
+        return er.viewSeverityOrder();
+    }
+
+    public synchronized Patient searchPatientById(int id)
+    {
+        return er.searchPatientById(id);
+    }
+
+    public synchronized Patient viewNextToTreat()
+    {
+        return er.viewNextToTreat();
+    }
+
+    public synchronized int size()
+    {
+        return er.size();
+    }
+
+
+    // ===================== REPLICATION STATE =====================
+    // Leader lsn of the last applied record; the leader's lsn() minus this is
+    // the lag in records.
+    public long appliedLsn()
+    {
+        return appliedLsn;
+    }
+
+    public boolean isConnected()
+    {
+        return connected;
+    }
+
+    // Waits until the record with the given lsn is applied or the follower
+    // disconnects; returns whether it caught up in time.
+    public boolean awaitLsn(long lsn, long timeoutMs) throws InterruptedException
+    {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (appliedLsn < lsn) {
+            if (!connected || System.nanoTime() > deadline) return appliedLsn >= lsn;
+            Thread.sleep(1);
+        }
+        return true;
+    }
+
+    // Time from the leader shipping a record to it being applied here.
+    public LogHistogram lagMicros()
+    {
+        return lagMicros;
+    }
+
+    // Records applied per second, first to last apply.
+    public double applyRate()
+    {
+        long n = applied;
+        long nanos = lastApplyNanos - firstApplyNanos;
+        return n < 2 || nanos <= 0 ? 0 : (n - 1) * 1e9 / nanos;
+    }
+
+    public long appliedCount()
+    {
+        return applied;
+    }
+
+
+    // ===================== PROMOTION =====================
+    // Stops following and returns the ER, ready to take writes.
+    public HospitalER promote()
+    {
+        close();
+        return er;
+    }
+
+    public void close()
+    {
+        stopping = true;
+        try {
+            socket.close();
+            reader.join();
+        } catch (IOException e) {
+            System.out.println("Error closing follower: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package hospital;
+
+import java.io.*;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+
+// Primary side of ER replication. Listens on a TCP port and streams every
+// admission, re-triage, removal and treatment of its HospitalER to each
+// connected ReplicationFollower, in the journal's record format:
+//
+//   lsn,sentMicros,record     record is an A/U/R/T line as in patients.journal
+//
+// lsn numbers the mutations; sentMicros (epoch microseconds) lets a follower
+// on the same clock measure replication lag. Every connection opens with a
+// P,<policy> line naming the leader's TriagePolicy, so that a follower treats
+// in the same order the leader does. A follower that connects late
+// first receives one A record per waiting patient and a C record with the
+// leader's next ID and sequence, all stamped with the current lsn, then the
+// live stream. Without the C record a follower would take its counters from
+// the newest waiting patient, and once promoted hand out again the IDs of
+// patients who had already left. Each follower has its own bounded queue and
+// sender thread. The ER thread never waits on a follower: one that falls a
+// full queue behind is disconnected on the spot, and has to reconnect with an
+// empty ER to be re-seeded like a late joiner.
+//
+// Attach with er.addListener(leader); listener calls must come from the one
+// thread that drives the ER, as for HospitalER itself.
+class ReplicationLeader implements ErListener, Closeable
+{
+    private static final int QUEUE_CAPACITY = 16384;
+    private static final int BATCH = 256;
+
+    private final HospitalER er;
+    private final ServerSocket server;
+    private final List<FollowerLink> followers = new CopyOnWriteArrayList<>();
+    // Mirror of the waiting list in arrival order, for seeding new followers.
+    // Guarded by this, like lsn.
+    private final LinkedHashMap<Integer, Patient> waiting = new LinkedHashMap<>();
+    private int nextId;
+    private long nextSeq;
+    private long lsn;
+    private volatile boolean closed;
+
+    // Starts accepting followers on port (0 picks a free one) and seeds the
+    // mirror from er, which must not change until the leader is attached.
+    ReplicationLeader(HospitalER er, int port) throws IOException
+    {
+        this.er = er;
+        for (Patient p : er.waitingPatients()) waiting.put(p.id, p);
+        nextId = er.nextId();
+        nextSeq = er.nextSeq();
+        server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::acceptLoop, "replication-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        er.addListener(this);
+    }
+
+    public int port()
+    {
+        return server.getLocalPort();
+    }
+
+    // Number of mutations shipped so far.
+    public synchronized long lsn()
+    {
+        return lsn;
+    }
+
+    public int followerCount()
+    {
+        return followers.size();
+    }
+
+
+    // ===================== ER EVENTS =====================
+    public synchronized void onAdmitted(Patient p)
+    {
+        waiting.put(p.id, p);
+        nextId = Math.max(nextId, p.id + 1);
+        nextSeq = Math.max(nextSeq, p.seq + 1);
+        ship(PatientJournal.admittedRecord(p));
+    }
+
+    public synchronized void onRetriaged(Patient p, int oldSeverity)
+    {
+        ship(PatientJournal.severityChangedRecord(p));
+    }
+
+    public synchronized void onRemoved(Patient p)
+    {
+        waiting.remove(p.id);
+        ship(PatientJournal.removedRecord(p));
+    }
+
+    public synchronized void onTreated(Patient p)
+    {
+        waiting.remove(p.id);
+        ship(PatientJournal.treatedRecord(p));
+    }
+
+    private void ship(String record)
+    {
+        String line = ++lsn + "," + nowMicros() + "," + record;
+        for (FollowerLink f : followers) f.send(line);
+    }
+
+    static long nowMicros()
+    {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000 + now.getNano() / 1000;
+    }
+
+
+    // ===================== FOLLOWERS =====================
+    private void acceptLoop()
+    {
+        while (!closed) {
+            try {
+                Socket socket = server.accept();
+                socket.setTcpNoDelay(true);
+                FollowerLink link;
+                // seed and join under the lock so no mutation falls in between
+                synchronized (this) {
+                    link = new FollowerLink(socket);
+                    link.send("P," + er.policy());
+                    long micros = nowMicros();
+                    for (Patient p : waiting.values()) link.send(lsn + "," + micros + "," + PatientJournal.admittedRecord(p));
+                    link.send(lsn + "," + micros + "," + PatientJournal.countersRecord(nextId, nextSeq));
+                    followers.add(link);
+                }
+                link.start();
+            } catch (IOException e) {
+                if (!closed) System.out.println("Error accepting follower: " + e.getMessage());
+            }
+        }
+    }
+
+    // Detaches from the ER, stops accepting, lets each sender drain what is
+    // queued and disconnects. Call from the thread that drives the ER.
+    public void close()
+    {
+        er.removeListener(this);
+        closed = true;
+        try {
+            server.close();
+        } catch (IOException e) {
+            System.out.println("Error closing replication socket: " + e.getMessage());
+        }
+        for (FollowerLink f : followers) f.close();
+    }
+
+    private final class FollowerLink
+    {
+        private final Socket socket;
+        private final BlockingQueue<String> queue;
+        private final Thread sender;
+        private volatile boolean done;
+
+        FollowerLink(Socket socket)
+        {
+            this.socket = socket;
+            // the handshake and a late joiner's seed must fit alongside a normal backlog
+            this.queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY + waiting.size() + 2);
+            this.sender = new Thread(this::run, "replication-sender-" + socket.getPort());
+            sender.setDaemon(true);
+        }
+
+        void start()
+        {
+            sender.start();
+        }
+
+        void send(String line)
+        {
+            if (done || queue.offer(line)) return;
+            System.out.println("Error replicating: follower " + socket.getRemoteSocketAddress() + " fell behind, disconnecting for re-seed");
+            disconnect();
+        }
+
+        private void run()
+        {
+            List<String> batch = new ArrayList<>(BATCH);
+            try (Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), 1 << 16))
+            {
+                while (!done || !queue.isEmpty()) {
+                    String first = queue.poll(50, TimeUnit.MILLISECONDS);
+                    if (first == null) continue;
+                    batch.add(first);
+                    queue.drainTo(batch, BATCH - 1);
+                    for (String line : batch) {
+                        out.write(line);
+                        out.write('\n');
+                    }
+                    out.flush();
+                    batch.clear();
+                }
+            }
+            catch (IOException e)
+            {
+                if (!done) System.out.println("Error replicating to " + socket.getRemoteSocketAddress() + ": " + e.getMessage());
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+            finally
+            {
+                disconnect();
+            }
+        }
+
+        // Drains the queue, then closes the connection.
+        void close()
+        {
+            done = true;
+            try {
+                sender.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void disconnect()
+        {
+            done = true;
+            queue.clear();
+            followers.remove(this);
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package hospital;
+
+import java.util.*;
+
+// One FIFO bucket per severity level (1-10) plus a bitmask of non-empty buckets.
+// Every operation is O(1): the next patient is the head of the highest set bit.
+// Buckets are intrusive doubly linked lists through Node.qPrev/qNext, so removal
+// by ID never searches. A re-triaged patient joins the back of the new level.
+// Node.key holds keyOf(patient) so callers can compare heads across queues.
+class SeverityBuckets implements TriageQueue 
+{
+    static final int LEVELS = 10;
+
+    final Node[] heads = new Node[LEVELS + 1];
+    final Node[] tails = new Node[LEVELS + 1];
+    int nonEmpty;
+    private int size;
+
+    public boolean isEmpty() 
+    {
+        return size == 0;
+    }
+
+    public int size() 
+    {
+        return size;
+    }
+
+    public Node peek() 
+    {
+        return nonEmpty == 0 ? null : heads[nextLevel()];
+    }
+
+    public void offer(Node node) 
+    {
+        node.key = keyOf(node.patient);
+        link(node, node.patient.severity);
+        size++;
+    }
+
+    public Node poll() 
+    {
+        if (nonEmpty == 0) return null;
+        Node node = heads[nextLevel()];
+        unlink(node);
+        size--;
+        return node;
+    }
+
+    public boolean remove(Node node) 
+    {
+        if (node.bucket < 0) return false;
+        unlink(node);
+        size--;
+        return true;
+    }
+
+    public void update(Node node) 
+    {
+        if (node.bucket < 0) return;
+        if (node.bucket == node.patient.severity) {
+            node.key = keyOf(node.patient);
+            return;
+        }
+        // unlink under the old key, which subclasses may have filed it by
+        unlink(node);
+        node.key = keyOf(node.patient);
+        link(node, node.patient.severity);
+    }
+
+    public List<Patient> inOrder() 
+    {
+        List<Patient> list = new ArrayList<>(size);
+        for (int level = LEVELS; level >= 1; level--) {
+            for (Node n = heads[level]; n != null; n = n.qNext) list.add(n.patient);
+        }
+        return list;
+    }
+
+    // Key stored in Node.key; smaller is more urgent.
+    long keyOf(Patient p) 
+    {
+        return p.triageKey();
+    }
+
+    // Level whose head is treated next; only called with a non-empty queue.
+    int nextLevel() 
+    {
+        return 31 - Integer.numberOfLeadingZeros(nonEmpty);
+    }
+
+    // Files node at the back of level.
+    void link(Node node, int level) 
+    {
+        linkAfter(node, level, tails[level]);
+    }
+
+    // Files node in level right after prev, or at the front if prev is null.
+    final void linkAfter(Node node, int level, Node prev) 
+    {
+        node.bucket = level;
+        node.qPrev = prev;
+        node.qNext = prev != null ? prev.qNext : heads[level];
+        if (prev != null) prev.qNext = node;
+        else heads[level] = node;
+        if (node.qNext != null) node.qNext.qPrev = node;
+        else tails[level] = node;
+        nonEmpty |= 1 << level;
+    }
+
+    // Takes node out of its level.
+    void unlink(Node node) 
+    {
+        int level = node.bucket;
+        if (node.qPrev != null) node.qPrev.qNext = node.qNext;
+        else heads[level] = node.qNext;
+        if (node.qNext != null) node.qNext.qPrev = node.qPrev;
+        else tails[level] = node.qPrev;
+        if (heads[level] == null) nonEmpty &= ~(1 << level);
+        node.qPrev = node.qNext = null;
+        node.bucket = -1;
+    }
+}
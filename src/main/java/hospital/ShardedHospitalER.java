@@ -0,0 +1,258 @@
+package hospital;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+// Several departments (trauma, pediatrics, general, ... or simply one per core),
+// each an independent in-memory HospitalER behind its own lock, so intake and
+// treatment in different departments never contend. IDs are handed out per
+// shard and encode the shard (id - 1 == local * shards + shard), so update and
+// remove go straight to the owning shard without a shared lookup table.
+// Arrival sequence numbers are global, which keeps FIFO ties fair across shards.
+//
+// After every change a shard publishes its next patient and that patient's
+// key in volatile fields. The global next-to-treat is the minimum of those
+// published keys: one read per shard, no locking, possibly a moment stale.
+// A doctor treats from their own department first and, when it is empty,
+// steals the most urgent patient of whichever department publishes the best key.
+// Under STRICT this treats in exactly the order of a single HospitalER. AGING
+// files a re-triaged patient by key within the new level, so each shard serves
+// in key order and only equal keys in different shards go to the lower shard.
+// Under BUCKETED a re-triaged patient joins the back of the level in their own
+// shard but keeps their earlier key, so across shards a level is served only
+// roughly in arrival order.
+class ShardedHospitalER implements TriageEngine
+{
+    private static final class Shard
+    {
+        final int index;
+        final String department;
+        final HospitalER er;
+        int nextLocal;  // guarded by this
+        volatile long headKey = Long.MAX_VALUE;
+        volatile Patient head;
+        volatile int size;
+
+        Shard(int index, String department, TriagePolicy policy)
+        {
+            this.index = index;
+            this.department = department;
+            er = new HospitalER(policy.newQueue(), false);
+            er.setQuiet(true);
+        }
+
+        // Called with the lock held, after every change to er.
+        void publish()
+        {
+            size = er.size();
+            head = er.isEmpty() ? null : er.viewNextToTreat();
+            headKey = er.headKey();
+        }
+    }
+
+    private final Shard[] shards;
+    private final AtomicLong seqCounter = new AtomicLong(1);
+
+    ShardedHospitalER(String... departments)
+    {
+        this(TriagePolicy.STRICT, departments);
+    }
+
+    ShardedHospitalER(TriagePolicy policy, String... departments)
+    {
+        if (departments.length == 0) throw new IllegalArgumentException("At least one department is required");
+        shards = new Shard[departments.length];
+        for (int i = 0; i < shards.length; i++) shards[i] = new Shard(i, departments[i], policy);
+    }
+
+    // One general-purpose department per shard, e.g. one per core.
+    ShardedHospitalER(TriagePolicy policy, int shardCount)
+    {
+        this(policy, generalDepartments(shardCount));
+    }
+
+    private static String[] generalDepartments(int count)
+    {
+        String[] names = new String[count];
+        for (int i = 0; i < count; i++) names[i] = "General-" + (i + 1);
+        return names;
+    }
+
+    public int shardCount()
+    {
+        return shards.length;
+    }
+
+    public String department(int shard)
+    {
+        return shards[shard].department;
+    }
+
+    // Shard index of a department name (case-insensitive), or -1.
+    public int shardOf(String department)
+    {
+        for (Shard s : shards) if (s.department.equalsIgnoreCase(department)) return s.index;
+        return -1;
+    }
+
+    // Shard that owns a patient ID, or -1 for an ID this ER never issued.
+    public int shardOfPatient(int id)
+    {
+        return id < 1 ? -1 : (id - 1) % shards.length;
+    }
+
+
+    // ===================== ADMISSION =====================
+    // Admits into the given department and returns the new patient's ID.
+    public int addPatient(int shard, String name, int severity)
+    {
+        Shard s = shards[shard];
+        synchronized (s) {
+            // taken under the lock, so a shard's sequence numbers follow its admission order
+            long seq = seqCounter.getAndIncrement();
+            int id = s.nextLocal++ * shards.length + s.index + 1;
+            s.er.admit(id, name, severity, seq);
+            s.publish();
+            return id;
+        }
+    }
+
+    public int addPatient(String department, String name, int severity)
+    {
+        int shard = shardOf(department);
+        if (shard < 0) throw new IllegalArgumentException("Unknown department: " + department);
+        return addPatient(shard, name, severity);
+    }
+
+    // Without a department the patient goes to a random shard, which spreads
+    // intake from many threads without a shared counter.
+    public int addPatient(String name, int severity)
+    {
+        return addPatient(ThreadLocalRandom.current().nextInt(shards.length), name, severity);
+    }
+
+    public boolean updateSeverity(int id, int newSeverity)
+    {
+        int shard = shardOfPatient(id);
+        if (shard < 0) return false;
+        Shard s = shards[shard];
+        synchronized (s) {
+            if (!s.er.updateSeverity(id, newSeverity)) return false;
+            s.publish();
+            return true;
+        }
+    }
+
+    public boolean removePatient(int id)
+    {
+        int shard = shardOfPatient(id);
+        if (shard < 0) return false;
+        Shard s = shards[shard];
+        synchronized (s) {
+            if (!s.er.removePatient(id)) return false;
+            s.publish();
+            return true;
+        }
+    }
+
+
+    // ===================== TREATMENT =====================
+    // A doctor of the given department: treats from that shard while it has
+    // patients, otherwise steals from the shard with the most urgent head.
+    // Returns null only when every shard looked empty.
+    public Patient treatNextPatient(int shard)
+    {
+        Patient p = pollFrom(shards[shard]);
+        return p != null ? p : treatNextPatient();
+    }
+
+    // Treats the globally most urgent patient according to the published heads.
+    public Patient treatNextPatient()
+    {
+        while (true) {
+            Shard best = bestShard();
+            if (best == null) return null;
+            Patient p = pollFrom(best);
+            if (p != null) return p;
+            // emptied by another doctor since it published; look again
+        }
+    }
+
+    public int treatNext()
+    {
+        Patient p = treatNextPatient();
+        return p == null ? -1 : p.id;
+    }
+
+    private Patient pollFrom(Shard s)
+    {
+        if (s.size == 0) return null;
+        synchronized (s) {
+            Patient p = s.er.treatNextPatient();
+            if (p != null) s.publish();
+            return p;
+        }
+    }
+
+    // Shard publishing the smallest head key, or null when all look empty.
+    private Shard bestShard()
+    {
+        Shard best = null;
+        long bestKey = Long.MAX_VALUE;
+        for (Shard s : shards) {
+            long key = s.headKey;
+            if (key < bestKey) {
+                bestKey = key;
+                best = s;
+            }
+        }
+        return best;
+    }
+
+
+    // ===================== QUERIES =====================
+    // Next patient across all departments, from the published heads only.
+    public Patient viewNextToTreat()
+    {
+        Shard best = bestShard();
+        return best == null ? null : best.head;
+    }
+
+    public int peekNext()
+    {
+        Patient p = viewNextToTreat();
+        return p == null ? -1 : p.id;
+    }
+
+    public Patient searchPatientById(int id)
+    {
+        int shard = shardOfPatient(id);
+        if (shard < 0) return null;
+        Shard s = shards[shard];
+        synchronized (s) {
+            return s.er.searchPatientById(id);
+        }
+    }
+
+    // Waiting patients of one department, next-to-treat first.
+    public List<Patient> viewSeverityOrder(int shard)
+    {
+        Shard s = shards[shard];
+        synchronized (s) {
+            return s.er.viewSeverityOrder();
+        }
+    }
+
+    public int size(int shard)
+    {
+        return shards[shard].size;
+    }
+
+    public int size()
+    {
+        int total = 0;
+        for (Shard s : shards) total += s.size;
+        return total;
+    }
+}
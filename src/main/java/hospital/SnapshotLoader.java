@@ -0,0 +1,370 @@
+package hospital;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+
+// Fast start for large patients.txt snapshots. The file is cut into chunks at
+// line boundaries, each chunk is memory-mapped and parsed on its own thread,
+// and the per-chunk results are concatenated in file order. The parser works
+// on raw bytes: integers are accumulated digit by digit and the fixed-width
+// "yyyy-MM-dd HH:mm:ss" timestamp is read by position, so there is no
+// String.split, no per-field String and no DateTimeFormatter on the hot path.
+//
+// Lines are "id,name,severity,time,seq" or the older "id,name,severity,time".
+// A snapshot that starts with a "#names,K" header (see
+// PatientJournal.writeSnapshot) has K name lines first and a name code in
+// place of the name; the header is read up front and each name decoded once,
+// so those rows create no name Strings at all.
+// Fields may carry surrounding blanks. A line that does not parse is counted
+// and skipped; the rows around it still load. Rows without a seq get -1 and
+// are numbered by HospitalER in file order, as before.
+class SnapshotLoader
+{
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final int MIN_CHUNK = 1 << 20;
+
+    static final class Result
+    {
+        final List<Patient> patients;
+        final int skipped;
+        final long nanos;
+
+        Result(List<Patient> patients, int skipped, long nanos)
+        {
+            this.patients = patients;
+            this.skipped = skipped;
+            this.nanos = nanos;
+        }
+
+        double rowsPerSecond()
+        {
+            return nanos == 0 ? 0 : patients.size() * 1e9 / nanos;
+        }
+    }
+
+    static Result load(File file) throws IOException
+    {
+        return load(file, Runtime.getRuntime().availableProcessors());
+    }
+
+    static Result load(File file, int threads) throws IOException
+    {
+        long start = System.nanoTime();
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+        {
+            Header header = readHeader(ch);
+            long[] bounds = chunkBounds(ch, header.dataStart, threads);
+            int chunks = bounds.length - 1;
+            List<Chunk> parsed = new ArrayList<>(chunks);
+            if (chunks == 1 || threads <= 1) {
+                for (int i = 0; i < chunks; i++) parsed.add(parse(ch, bounds[i], bounds[i + 1], header.names));
+            } else {
+                ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, chunks));
+                try {
+                    List<Future<Chunk>> futures = new ArrayList<>(chunks);
+                    for (int i = 0; i < chunks; i++) {
+                        long from = bounds[i], to = bounds[i + 1];
+                        futures.add(pool.submit(() -> parse(ch, from, to, header.names)));
+                    }
+                    for (Future<Chunk> f : futures) parsed.add(f.get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Snapshot load interrupted");
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof IOException) throw (IOException) cause;
+                    throw new IOException(cause);
+                } finally {
+                    pool.shutdown();
+                }
+            }
+
+            int rows = 0, skipped = 0;
+            for (Chunk c : parsed) {
+                rows += c.patients.size();
+                skipped += c.skipped;
+            }
+            List<Patient> patients = new ArrayList<>(rows);
+            for (Chunk c : parsed) patients.addAll(c.patients);
+            return new Result(patients, skipped, System.nanoTime() - start);
+        }
+    }
+
+    // The name table of a "#names,K" snapshot: file code -> name, and where
+    // the rows begin. names is null for the older format.
+    private static final class Header
+    {
+        final String[] names;
+        final long dataStart;
+
+        Header(String[] names, long dataStart)
+        {
+            this.names = names;
+            this.dataStart = dataStart;
+        }
+    }
+
+    private static Header readHeader(FileChannel ch) throws IOException
+    {
+        InputStream in = new BufferedInputStream(Channels.newInputStream(ch.position(0)), 1 << 16);
+        ByteArrayOutputStream line = new ByteArrayOutputStream(64);
+        long pos = readLine(in, line);
+        String first = line.toString(StandardCharsets.UTF_8);
+        if (!first.startsWith(PatientJournal.NAMES_HEADER)) return new Header(null, 0);
+        int count;
+        try {
+            count = Integer.parseInt(first.substring(PatientJournal.NAMES_HEADER.length()).trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("Bad name table header in snapshot: " + first);
+        }
+        String[] names = new String[count];
+        for (int i = 0; i < count; i++) {
+            long read = readLine(in, line);
+            if (read == 0) throw new IOException("Snapshot ends inside its name table");
+            pos += read;
+            names[i] = NameDictionary.SHARED.canonical(line.toString(StandardCharsets.UTF_8));
+        }
+        return new Header(names, pos);
+    }
+
+    // Reads one line into line (without its \n or \r\n) and returns the bytes
+    // consumed, 0 at end of file.
+    private static long readLine(InputStream in, ByteArrayOutputStream line) throws IOException
+    {
+        line.reset();
+        long consumed = 0;
+        for (int b; (b = in.read()) >= 0; ) {
+            consumed++;
+            if (b == '\n') break;
+            line.write(b);
+        }
+        byte[] bytes = line.toByteArray();
+        if (bytes.length > 0 && bytes[bytes.length - 1] == '\r') {
+            line.reset();
+            line.write(bytes, 0, bytes.length - 1);
+        }
+        return consumed;
+    }
+
+    // Chunk start offsets from start plus the file size; every inner boundary
+    // sits just after a newline, so no line is split between chunks.
+    private static long[] chunkBounds(FileChannel ch, long start, int threads) throws IOException
+    {
+        long size = ch.size();
+        int chunks = (int) Math.max(1, Math.min((long) threads * CHUNKS_PER_THREAD, (size - start) / MIN_CHUNK));
+        long[] bounds = new long[chunks + 1];
+        bounds[0] = start;
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        int n = 1;
+        for (int i = 1; i < chunks; i++) {
+            long pos = Math.max(start + (size - start) * i / chunks, bounds[n - 1]);
+            long next = nextLineStart(ch, pos, size, probe);
+            if (next > bounds[n - 1] && next < size) bounds[n++] = next;
+        }
+        bounds[n++] = size;
+        return Arrays.copyOf(bounds, n);
+    }
+
+    private static long nextLineStart(FileChannel ch, long pos, long size, ByteBuffer probe) throws IOException
+    {
+        while (pos < size) {
+            probe.clear();
+            int read = ch.read(probe, pos);
+            if (read <= 0) break;
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') return pos + i + 1;
+            }
+            pos += read;
+        }
+        return size;
+    }
+
+
+    // ===================== PARSING =====================
+    private static final class Chunk
+    {
+        final List<Patient> patients = new ArrayList<>();
+        int skipped;
+    }
+
+    private static Chunk parse(FileChannel ch, long from, long to, String[] names) throws IOException
+    {
+        Chunk chunk = new Chunk();
+        // one mapping per chunk; chunks of a file over 2 GB are mapped separately
+        for (long pos = from; pos < to; ) {
+            long len = Math.min(to - pos, Integer.MAX_VALUE);
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, pos, len);
+            int end = (int) len;
+            if (pos + len < to) {
+                // stop the window at its last newline; the next one starts after it
+                while (end > 0 && buf.get(end - 1) != '\n') end--;
+                if (end == 0) throw new IOException("Line longer than 2 GB in snapshot");
+            }
+            new LineParser(buf, chunk, names).parseAll(end);
+            pos += end;
+        }
+        return chunk;
+    }
+
+    // Cursor over one mapped window. Each field parser moves pos past its field
+    // and the following comma, or returns a sentinel when the line is malformed.
+    private static final class LineParser
+    {
+        private static final long BAD = Long.MIN_VALUE;
+
+        private final ByteBuffer buf;
+        private final Chunk chunk;
+        private final String[] names;
+        private byte[] scratch = new byte[64];
+        private int pos, lineEnd;
+
+        LineParser(ByteBuffer buf, Chunk chunk, String[] names)
+        {
+            this.buf = buf;
+            this.chunk = chunk;
+            this.names = names;
+        }
+
+        void parseAll(int end)
+        {
+            while (pos < end) {
+                int nl = pos;
+                while (nl < end && buf.get(nl) != '\n') nl++;
+                lineEnd = nl;
+                if (lineEnd > pos && buf.get(lineEnd - 1) == '\r') lineEnd--;
+                if (!blankLine()) {
+                    Patient p = parseLine();
+                    if (p != null) chunk.patients.add(p);
+                    else chunk.skipped++;
+                }
+                pos = nl + 1;
+            }
+        }
+
+        private boolean blankLine()
+        {
+            for (int i = pos; i < lineEnd; i++) if (!isBlank(buf.get(i))) return false;
+            return true;
+        }
+
+        private Patient parseLine()
+        {
+            long id = number(',');
+            if (id == BAD || id > Integer.MAX_VALUE) return null;
+            String name;
+            if (names != null) {
+                long fileCode = number(',');
+                if (fileCode == BAD || fileCode >= names.length) return null;
+                name = names[(int) fileCode];
+            } else {
+                name = text();
+                if (name == null) return null;
+            }
+            long severity = number(',');
+            if (severity == BAD) return null;
+            LocalDateTime time = timestamp();
+            if (time == null) return null;
+            long seq = -1;
+            if (pos < lineEnd) {
+                seq = number('\n');
+                if (seq == BAD) return null;
+            }
+            return new Patient((int) id, name, (int) Math.min(severity, 10), time, seq);
+        }
+
+        // Non-negative decimal up to the delimiter (or line end), blanks allowed around it.
+        private long number(char delimiter)
+        {
+            skipBlanks();
+            int start = pos;
+            long value = 0;
+            while (pos < lineEnd) {
+                byte b = buf.get(pos);
+                if (b < '0' || b > '9') break;
+                if (value > (Long.MAX_VALUE - 9) / 10) return BAD;
+                value = value * 10 + (b - '0');
+                pos++;
+            }
+            if (pos == start) return BAD;
+            skipBlanks();
+            return endField(delimiter) ? value : BAD;
+        }
+
+        // Free text up to the next comma, trimmed; UTF-8.
+        private String text()
+        {
+            int start = pos;
+            while (pos < lineEnd && buf.get(pos) != ',') pos++;
+            if (pos == lineEnd) return null;
+            int end = pos++;
+            while (start < end && isBlank(buf.get(start))) start++;
+            while (end > start && isBlank(buf.get(end - 1))) end--;
+            int len = end - start;
+            if (scratch.length < len) scratch = new byte[Math.max(len, scratch.length * 2)];
+            boolean ascii = true;
+            for (int i = 0; i < len; i++) {
+                byte b = buf.get(start + i);
+                scratch[i] = b;
+                ascii &= b >= 0;
+            }
+            return new String(scratch, 0, len, ascii ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+        }
+
+        // yyyy-MM-dd HH:mm:ss, read by position; null when malformed.
+        private LocalDateTime timestamp()
+        {
+            skipBlanks();
+            if (lineEnd - pos < 19) return null;
+            int p = pos;
+            if (buf.get(p + 4) != '-' || buf.get(p + 7) != '-' || buf.get(p + 10) != ' '
+                    || buf.get(p + 13) != ':' || buf.get(p + 16) != ':') return null;
+            int year = digits(p, 4), month = digits(p + 5, 2), day = digits(p + 8, 2);
+            int hour = digits(p + 11, 2), minute = digits(p + 14, 2), second = digits(p + 17, 2);
+            if ((year | month | day | hour | minute | second) < 0) return null;
+            pos += 19;
+            skipBlanks();
+            if (pos < lineEnd && !endField(',')) return null;
+            try {
+                return LocalDateTime.of(year, month, day, hour, minute, second);
+            } catch (java.time.DateTimeException e) {
+                return null;
+            }
+        }
+
+        private int digits(int at, int count)
+        {
+            int value = 0;
+            for (int i = at; i < at + count; i++) {
+                int d = buf.get(i) - '0';
+                if (d < 0 || d > 9) return -1;
+                value = value * 10 + d;
+            }
+            return value;
+        }
+
+        // Consumes the delimiter; the line end also ends the last field.
+        private boolean endField(char delimiter)
+        {
+            if (pos == lineEnd) return delimiter == '\n';
+            if (buf.get(pos) != delimiter) return false;
+            pos++;
+            return true;
+        }
+
+        private void skipBlanks()
+        {
+            while (pos < lineEnd && isBlank(buf.get(pos))) pos++;
+        }
+
+        private static boolean isBlank(byte b)
+        {
+            return b == ' ' || b == '\t';
+        }
+    }
+}
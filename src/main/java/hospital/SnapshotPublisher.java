@@ -0,0 +1,94 @@
+package hospital;
+
+import java.util.*;
+
+// Writer side of ErSnapshot. HospitalER reports each structural change here
+// and calls publish() once per operation; publish() makes the new roots
+// visible through a volatile write, so current() is safe from any thread.
+// Severity order is the order the queue will treat in. Under STRICT and AGING
+// that is the queue's own key (Node.key) with arrival as the tie-break, since
+// both file a re-triaged patient by arrival within the new level. BUCKETED
+// serves a level in the order patients joined it, so there the key is the
+// level and the tie-break a running count of joins: a re-triaged patient
+// lines up behind everyone already at their new level, as in the queue.
+//
+// Every waiting patient costs a frozen Patient copy, two treap nodes and a map
+// entry, and every change O(log n) new nodes, which is why this is opt-in.
+class SnapshotPublisher
+{
+    // The copy in the trees and the severity key and tie it was filed under.
+    private static final class Entry
+    {
+        final Patient copy;
+        final long key, tie;
+
+        Entry(Patient copy, long key, long tie)
+        {
+            this.copy = copy;
+            this.key = key;
+            this.tie = tie;
+        }
+    }
+
+    private final boolean rejoinAtBack;
+    private final HashMap<Integer, Entry> entries = new HashMap<>();
+    private PersistentTreap.Node byArrival, bySeverity;
+    private long joins;
+    private long version;
+    private volatile ErSnapshot current = ErSnapshot.EMPTY;
+
+    // Files the waiting patients of queue, whose arrival list starts at head.
+    SnapshotPublisher(TriageQueue queue, Node head)
+    {
+        rejoinAtBack = queue instanceof SeverityBuckets && !(queue instanceof AgingTriageQueue);
+        if (rejoinAtBack) {
+            // joins are only compared within a level, so file each bucket in order
+            SeverityBuckets buckets = (SeverityBuckets) queue;
+            for (int level = SeverityBuckets.LEVELS; level >= 1; level--) {
+                for (Node n = buckets.heads[level]; n != null; n = n.qNext) added(n);
+            }
+        } else {
+            for (Node n = head; n != null; n = n.next) added(n);
+        }
+        publish();
+    }
+
+    // Latest published version; never blocks.
+    public ErSnapshot current()
+    {
+        return current;
+    }
+
+    void added(Node node)
+    {
+        Patient p = node.patient;
+        Entry e = rejoinAtBack
+                ? new Entry(p.frozenCopy(), SeverityBuckets.LEVELS - p.severity, ++joins)
+                : new Entry(p.frozenCopy(), node.key, p.seq);
+        entries.put(p.id, e);
+        byArrival = PersistentTreap.insert(byArrival, p.seq, p.seq, e.copy);
+        bySeverity = PersistentTreap.insert(bySeverity, e.key, e.tie, e.copy);
+    }
+
+    void removed(Node node)
+    {
+        Entry e = entries.remove(node.patient.id);
+        if (e == null) return;
+        byArrival = PersistentTreap.delete(byArrival, e.copy.seq, e.copy.seq);
+        bySeverity = PersistentTreap.delete(bySeverity, e.key, e.tie);
+    }
+
+    void retriaged(Node node)
+    {
+        Entry e = entries.get(node.patient.id);
+        // BUCKETED keeps a patient in place when the level does not change
+        if (rejoinAtBack && e != null && e.copy.severity == node.patient.severity) return;
+        removed(node);
+        added(node);
+    }
+
+    void publish()
+    {
+        current = new ErSnapshot(++version, entries.size(), byArrival, bySeverity);
+    }
+}
@@ -0,0 +1,239 @@
+package hospital;
+
+import java.io.*;
+import java.time.Clock;
+import java.util.*;
+
+// Writes every TriageEngine call made through it, with arguments, result and
+// the clock's time, to a compact binary trace that TraceReplayer can run
+// against any engine. Wrap the engine and use the recorder in its place:
+//
+//   header   int MAGIC, long start millis
+//   record   byte op, varint millis since the previous record, then
+//     ADD      varint name ref [UTF name, when the ref is new], varint severity, varint id
+//     TREAT    varint treated id (-1: nobody)
+//     PEEK     varint next id (-1: nobody)
+//     UPDATE   varint id, varint severity, byte result
+//     REMOVE   varint id, byte result
+//
+// Varints are zig-zag LEB128, so small values of either sign take a byte or
+// two; the seeded workload below averages about 7 bytes a record. A name is
+// written once, the first time it is used. A write failure is reported once
+// and recording stops; the engine itself keeps working.
+//
+// With main it records a seeded synthetic workload:
+//
+//   gradle run -PmainClass=hospital.TraceRecorder --args="file [operations] [seed] [policy]"
+//
+// Defaults: 2,000,000 operations over a waiting room of about 100,000, seed 42,
+// recorded against the strict policy.
+public class TraceRecorder implements TriageEngine, Closeable
+{
+    static final int MAGIC = 0x45525431;   // "ERT1"
+    static final byte ADD = 1, TREAT = 2, PEEK = 3, UPDATE = 4, REMOVE = 5;
+
+    private static final String[] NAMES = {
+        "Aarav", "Isha", "Rohan", "Simran", "Kabir", "Ananya", "Dev", "Meera", "Raj", "Priya",
+        "Neha", "Arjun", "Ira", "Vihaan", "Zara", "Vivaan", "Riya", "Kunal", "Tara", "Aditya"
+    };
+
+    private final TriageEngine engine;
+    private final Clock clock;
+    private final DataOutputStream out;
+    private final HashMap<String, Integer> nameRefs = new HashMap<>();
+    private long lastMillis;
+    private long records;
+    private boolean failed;
+
+    TraceRecorder(TriageEngine engine, Clock clock, File file) throws IOException
+    {
+        this.engine = engine;
+        this.clock = clock;
+        this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+        lastMillis = clock.millis();
+        out.writeInt(MAGIC);
+        out.writeLong(lastMillis);
+    }
+
+    public int addPatient(String name, int severity)
+    {
+        int id = engine.addPatient(name, severity);
+        try {
+            begin(ADD);
+            Integer ref = nameRefs.get(name);
+            if (ref == null) {
+                writeVarInt(nameRefs.size());
+                out.writeUTF(name);
+                nameRefs.put(name, nameRefs.size());
+            } else {
+                writeVarInt(ref);
+            }
+            writeVarInt(severity);
+            writeVarInt(id);
+        } catch (IOException e) {
+            fail(e);
+        }
+        return id;
+    }
+
+    public int treatNext()
+    {
+        int id = engine.treatNext();
+        try {
+            begin(TREAT);
+            writeVarInt(id);
+        } catch (IOException e) {
+            fail(e);
+        }
+        return id;
+    }
+
+    public int peekNext()
+    {
+        int id = engine.peekNext();
+        try {
+            begin(PEEK);
+            writeVarInt(id);
+        } catch (IOException e) {
+            fail(e);
+        }
+        return id;
+    }
+
+    public boolean updateSeverity(int id, int newSeverity)
+    {
+        boolean updated = engine.updateSeverity(id, newSeverity);
+        try {
+            begin(UPDATE);
+            writeVarInt(id);
+            writeVarInt(newSeverity);
+            out.writeBoolean(updated);
+        } catch (IOException e) {
+            fail(e);
+        }
+        return updated;
+    }
+
+    public boolean removePatient(int id)
+    {
+        boolean removed = engine.removePatient(id);
+        try {
+            begin(REMOVE);
+            writeVarInt(id);
+            out.writeBoolean(removed);
+        } catch (IOException e) {
+            fail(e);
+        }
+        return removed;
+    }
+
+    public int size()
+    {
+        return engine.size();
+    }
+
+    long records()
+    {
+        return records;
+    }
+
+    public void close()
+    {
+        try {
+            out.close();
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    private void begin(byte op) throws IOException
+    {
+        if (failed) throw new IOException("trace closed after an earlier error");
+        long now = clock.millis();
+        out.writeByte(op);
+        writeVarLong(now - lastMillis);
+        lastMillis = now;
+        records++;
+    }
+
+    private void fail(IOException e)
+    {
+        if (!failed) System.out.println("Error writing trace: " + e.getMessage());
+        failed = true;
+    }
+
+    private void writeVarInt(int value) throws IOException
+    {
+        writeVarLong(value);
+    }
+
+    private void writeVarLong(long value) throws IOException
+    {
+        long v = (value << 1) ^ (value >> 63);
+        while ((v & ~0x7FL) != 0) {
+            out.writeByte((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.writeByte((int) v);
+    }
+
+    // Zig-zag LEB128, the inverse of writeVarLong.
+    static long readVarLong(DataInput in) throws IOException
+    {
+        long v = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.readUnsignedByte();
+            v |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) break;
+            if (shift > 63) throw new IOException("Malformed varint in trace");
+        }
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+
+    // ===================== SEEDED WORKLOAD =====================
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length == 0) {
+            System.out.println("Usage: TraceRecorder file [operations] [seed] [policy]");
+            return;
+        }
+        File file = new File(args[0]);
+        long operations = args.length > 1 ? Long.parseLong(args[1]) : 2_000_000;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42;
+        TriagePolicy policy = args.length > 3 ? TriagePolicy.parse(args[3]) : TriagePolicy.STRICT;
+
+        ManualClock clock = new ManualClock();
+        HospitalER er = new HospitalER(policy.newQueue(), false);
+        er.setQuiet(true);
+        er.setClock(clock);
+        TraceRecorder trace = new TraceRecorder(er, clock, file);
+        record(trace, clock, new SplittableRandom(seed), operations, 100_000);
+        trace.close();
+        System.out.printf("%,d records, %,d bytes (%.1f bytes/record), %,d still waiting%n",
+                trace.records(), file.length(), (double) file.length() / Math.max(1, trace.records()), er.size());
+    }
+
+    // Fills the room to about steady patients, then churns it at that size:
+    // admissions, treatments, peeks, re-triages and removals, a few of them
+    // for IDs that have already left. The clock moves 0-3 s per operation.
+    static void record(TriageEngine engine, ManualClock clock, SplittableRandom rand, long operations, int steady)
+    {
+        int lastId = 0;
+        for (long op = 0; op < operations; op++) {
+            clock.advance(rand.nextInt(3000));
+            int roll = engine.size() < steady ? rand.nextInt(4) : rand.nextInt(20);
+            if (roll < 8) {
+                lastId = engine.addPatient(NAMES[rand.nextInt(NAMES.length)], rand.nextInt(10) + 1);
+            } else if (roll < 15) {
+                engine.treatNext();
+            } else if (roll < 16) {
+                engine.peekNext();
+            } else if (roll < 18) {
+                engine.updateSeverity(lastId - rand.nextInt(steady), rand.nextInt(10) + 1);
+            } else {
+                engine.removePatient(lastId - rand.nextInt(steady));
+            }
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package hospital;
+
+import java.io.*;
+import java.util.*;
+
+// Runs a TraceRecorder trace at full speed against one or more engines, so two
+// queue implementations can be compared on exactly the same workload. The
+// trace is decoded into arrays first and the clock is a ManualClock set to
+// each record's time, so a run measures the engine and nothing else. Every
+// result is checked against the recording: treated and next IDs (mapped
+// through the IDs each engine handed out) and the outcome of each re-triage
+// and removal. Each engine is replayed a few times; the first rounds warm up
+// the JIT and the best round is reported.
+//
+//   gradle run -PmainClass=hospital.TraceReplayer --args="file [engine...]"
+//
+// Engines: strict, bucketed, aging (HospitalER with that policy), primitive,
+// offheap and concurrent; all of them by default. Engines with another order
+// than the recording are expected to diverge; the report says where.
+public class TraceReplayer
+{
+    private static final String[] ENGINES = {"strict", "bucketed", "aging", "primitive", "offheap", "concurrent"};
+    private static final int ROUNDS = 3;
+
+    // One decoded trace. For ADD a is the name index and b the severity; for
+    // UPDATE a is the ID and b the severity; for REMOVE a is the ID. result is
+    // the ID returned (ADD, TREAT, PEEK) or 1/0 (UPDATE, REMOVE).
+    static final class Trace
+    {
+        int count;
+        byte[] ops = new byte[1024];
+        int[] a = new int[1024], b = new int[1024], result = new int[1024];
+        long[] millis = new long[1024];
+        final List<String> names = new ArrayList<>();
+        int maxId;
+
+        void add(byte op, int a, int b, int result, long millis)
+        {
+            if (count == ops.length) {
+                int n = count * 2;
+                ops = Arrays.copyOf(ops, n);
+                this.a = Arrays.copyOf(this.a, n);
+                this.b = Arrays.copyOf(this.b, n);
+                this.result = Arrays.copyOf(this.result, n);
+                this.millis = Arrays.copyOf(this.millis, n);
+            }
+            ops[count] = op;
+            this.a[count] = a;
+            this.b[count] = b;
+            this.result[count] = result;
+            this.millis[count] = millis;
+            count++;
+        }
+    }
+
+    // What one replay found.
+    static final class Outcome
+    {
+        long nanos;
+        int mismatches;
+        int firstMismatch = -1;
+        String firstDetail;
+
+        double opsPerSecond(int ops)
+        {
+            return nanos == 0 ? 0 : ops * 1e9 / nanos;
+        }
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length == 0) {
+            System.out.println("Usage: TraceReplayer file [engine...]");
+            return;
+        }
+        long t0 = System.nanoTime();
+        Trace trace = read(new File(args[0]));
+        System.out.printf("%,d records, %,d names, read in %d ms%n", trace.count, trace.names.size(), (System.nanoTime() - t0) / 1_000_000);
+        String[] engines = args.length > 1 ? Arrays.copyOfRange(args, 1, args.length) : ENGINES;
+
+        System.out.printf("%-11s %12s %12s  %s%n", "engine", "ops/sec", "best ms", "results");
+        for (String engine : engines) {
+            Outcome best = null;
+            for (int round = 0; round < ROUNDS; round++) {
+                Outcome o = replay(trace, engine);
+                if (best == null || o.nanos < best.nanos) best = o;
+            }
+            String verdict = best.mismatches == 0 ? "identical"
+                    : String.format("%,d differ, first at record %,d (%s)", best.mismatches, best.firstMismatch, best.firstDetail);
+            System.out.printf("%-11s %,12.0f %12.1f  %s%n", engine, best.opsPerSecond(trace.count), best.nanos / 1e6, verdict);
+        }
+    }
+
+    static Trace read(File file) throws IOException
+    {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16)))
+        {
+            if (in.readInt() != TraceRecorder.MAGIC) throw new IOException("Not a trace file: " + file);
+            long millis = in.readLong();
+            Trace trace = new Trace();
+            while (true) {
+                int op = in.read();
+                if (op < 0) return trace;
+                millis += TraceRecorder.readVarLong(in);
+                switch (op) {
+                    case TraceRecorder.ADD -> {
+                        int ref = varInt(in);
+                        if (ref == trace.names.size()) trace.names.add(NameDictionary.SHARED.canonical(in.readUTF()));
+                        else if (ref > trace.names.size() || ref < 0) throw new IOException("Bad name reference in trace: " + ref);
+                        int severity = varInt(in);
+                        int id = varInt(in);
+                        trace.maxId = Math.max(trace.maxId, id);
+                        trace.add(TraceRecorder.ADD, ref, severity, id, millis);
+                    }
+                    case TraceRecorder.TREAT, TraceRecorder.PEEK -> trace.add((byte) op, 0, 0, varInt(in), millis);
+                    case TraceRecorder.UPDATE -> {
+                        int id = varInt(in);
+                        int severity = varInt(in);
+                        trace.add(TraceRecorder.UPDATE, id, severity, in.readBoolean() ? 1 : 0, millis);
+                    }
+                    case TraceRecorder.REMOVE -> {
+                        int id = varInt(in);
+                        trace.add(TraceRecorder.REMOVE, id, 0, in.readBoolean() ? 1 : 0, millis);
+                    }
+                    default -> throw new IOException("Unknown record type " + op + " after " + trace.count + " records");
+                }
+            }
+        }
+        catch (EOFException e)
+        {
+            throw new IOException("Trace ends inside a record: " + file);
+        }
+    }
+
+    static Outcome replay(Trace trace, String engine)
+    {
+        ManualClock clock = new ManualClock();
+        TriageEngine er = create(engine, clock);
+        String[] names = trace.names.toArray(new String[0]);
+        // trace ID -> this engine's ID, and back for reporting
+        int[] ids = new int[trace.maxId + 1];
+        int[] traceIds = new int[trace.maxId + 2];
+        Outcome o = new Outcome();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < trace.count; i++) {
+            clock.setMillis(trace.millis[i]);
+            int expected = trace.result[i];
+            switch (trace.ops[i]) {
+                case TraceRecorder.ADD -> {
+                    int id = er.addPatient(names[trace.a[i]], trace.b[i]);
+                    if (expected > 0) ids[expected] = id;
+                    if (id > 0 && id < traceIds.length) traceIds[id] = expected;
+                }
+                case TraceRecorder.TREAT -> {
+                    int id = er.treatNext();
+                    if (id != mapped(ids, expected)) mismatch(o, i, "treated " + traceId(traceIds, id) + ", recorded " + expected);
+                }
+                case TraceRecorder.PEEK -> {
+                    int id = er.peekNext();
+                    if (id != mapped(ids, expected)) mismatch(o, i, "next " + traceId(traceIds, id) + ", recorded " + expected);
+                }
+                case TraceRecorder.UPDATE -> {
+                    boolean updated = er.updateSeverity(mapped(ids, trace.a[i]), trace.b[i]);
+                    if (updated != (expected == 1)) mismatch(o, i, "re-triage of " + trace.a[i] + " " + (updated ? "applied" : "failed"));
+                }
+                case TraceRecorder.REMOVE -> {
+                    boolean removed = er.removePatient(mapped(ids, trace.a[i]));
+                    if (removed != (expected == 1)) mismatch(o, i, "removal of " + trace.a[i] + " " + (removed ? "applied" : "failed"));
+                }
+            }
+        }
+        o.nanos = System.nanoTime() - start;
+        return o;
+    }
+
+    // -1 (nobody) stays -1; IDs the trace never admitted become -1 as well.
+    private static int mapped(int[] ids, int traceId)
+    {
+        return traceId <= 0 || traceId >= ids.length || ids[traceId] == 0 ? -1 : ids[traceId];
+    }
+
+    private static int traceId(int[] traceIds, int id)
+    {
+        return id <= 0 || id >= traceIds.length ? id : traceIds[id];
+    }
+
+    private static void mismatch(Outcome o, int record, String detail)
+    {
+        if (o.mismatches++ == 0) {
+            o.firstMismatch = record;
+            o.firstDetail = detail;
+        }
+    }
+
+    private static int varInt(DataInput in) throws IOException
+    {
+        return (int) TraceRecorder.readVarLong(in);
+    }
+
+    static TriageEngine create(String engine, ManualClock clock)
+    {
+        switch (engine) {
+            case "primitive":
+                return new PrimitivePatientStore();
+            case "offheap":
+                return new OffHeapPatientStore();
+            case "concurrent":
+                return new ConcurrentHospitalER();
+            default:
+                HospitalER er = new HospitalER(TriagePolicy.parse(engine).newQueue(), false);
+                er.setQuiet(true);
+                er.setClock(clock);
+                return er;
+        }
+    }
+}
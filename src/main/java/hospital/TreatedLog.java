@@ -0,0 +1,84 @@
+package hospital;
+
+import java.util.HashMap;
+
+// Record format of treated_log.txt, one line per patient leaving the queue:
+//
+//   T,id,severity,arrivalMillis,leftMillis,#code   treated
+//   R,id,severity,arrivalMillis,leftMillis,#code   removed without treatment
+//   N,code,name                                    defines a name code
+//
+// Times are epoch milliseconds, so the wait is leftMillis - arrivalMillis and
+// no timestamp has to be parsed to analyze a log. A name is written out once
+// per file, in an N line ahead of the first record that uses its code; a
+// reader keeps the latest N line for each code. Codes are the writer's own,
+// not NameDictionary's, and only meaningful within the file (and writer
+// session) that defines them, so every rotated archive reads on its own.
+// Earlier logs end each record with the name itself; logs older still hold
+// lines such as "Treated: [ID:3, Cara, Severity:9, Arrived:...]", which
+// TreatedLogAnalyzer counts without a wait time.
+class TreatedLog
+{
+    static final char TREATED = 'T', REMOVED = 'R', NAME = 'N';
+
+    static String treated(Patient p, long leftMillis)
+    {
+        return record(TREATED, p, leftMillis);
+    }
+
+    static String removed(Patient p, long leftMillis)
+    {
+        return record(REMOVED, p, leftMillis);
+    }
+
+    // The name goes to the writer as is and NameDefinitions turns it into the
+    // file's code for it, so nothing here depends on the patient still
+    // holding a NameDictionary code by the time the record is written.
+    private static String record(char action, Patient p, long leftMillis)
+    {
+        return action + "," + p.id + "," + p.severity + "," + p.arrivalMillis + "," + leftMillis + ",#" + p.name;
+    }
+
+    // Runs on the log's writer thread: replaces the name at the end of each
+    // record with a code local to the file, numbered in order of first use,
+    // and puts an N line for it ahead of the first record that uses it. After
+    // a restart the writer appends with a fresh set, which simply redefines
+    // codes before they are used again.
+    static final class NameDefinitions implements AsyncLogWriter.FileEncoder
+    {
+        private final HashMap<String, Integer> codes = new HashMap<>();
+
+        public void startFile()
+        {
+            codes.clear();
+        }
+
+        public String encode(String entry)
+        {
+            String separator = System.lineSeparator();
+            StringBuilder out = new StringBuilder(entry.length() + 16);
+            for (int start = 0; start < entry.length(); ) {
+                int end = entry.indexOf(separator, start);
+                if (end < 0) end = entry.length();
+                // the name follows the fifth comma
+                int at = start;
+                for (int commas = 0; commas < 5 && at >= 0; commas++) at = entry.indexOf(',', at + 1);
+                if (at < 0 || at >= end || at + 1 >= end || entry.charAt(at + 1) != '#') {
+                    out.append(entry, start, end);
+                } else {
+                    String name = entry.substring(at + 2, end);
+                    Integer code = codes.get(name);
+                    if (code == null) {
+                        code = codes.size();
+                        codes.put(name, code);
+                        out.append(NAME).append(',').append(code).append(',').append(name).append(separator);
+                    }
+                    out.append(entry, start, at + 2).append(code);
+                }
+                if (end < entry.length()) out.append(separator);
+                start = end + separator.length();
+            }
+            return out.toString();
+        }
+    }
+}
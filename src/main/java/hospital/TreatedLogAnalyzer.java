@@ -0,0 +1,255 @@
+package hospital;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.*;
+import java.util.*;
+import java.util.regex.*;
+import java.util.zip.GZIPInputStream;
+
+// One-pass report over treated_log.txt and its rotated archives (plain or
+// .gz): patients treated per hour, wait-time percentiles per severity and how
+// many patients were removed rather than treated. Memory stays fixed whatever
+// the log volume: per-severity counters and wait histograms, a 24-slot
+// hour-of-day profile and a running per-hour counter (logs are chronological).
+//
+//   gradle run -PmainClass=hospital.TreatedLogAnalyzer --args="[files or dirs ...]"
+//   gradle run -PmainClass=hospital.TreatedLogAnalyzer --args="--synthesize dir records"
+//
+// A directory contributes its treated_log*.txt and treated_log*.txt.gz files
+// in rotation order: archives by their stamp and then clash number (-2, -3
+// ...), the live file last. --synthesize
+// writes a synthetic history through a rotating AsyncLogWriter, for trying the
+// rotation and the analyzer on gigabytes of log.
+public class TreatedLogAnalyzer
+{
+    private static final int LEVELS = 10;
+    private static final long HOUR = 3_600_000L;
+    // base-yyyyMMdd-HHmmss[-n].txt[.gz], as AsyncLogWriter names its archives
+    private static final Pattern ARCHIVE = Pattern.compile(".*-(\\d{8}-\\d{6})(?:-(\\d{1,9}))?\\.txt(?:\\.gz)?");
+
+    private final long[] treated = new long[LEVELS + 1];
+    private final long[] removed = new long[LEVELS + 1];
+    private final LogHistogram[] waitMillis = new LogHistogram[LEVELS + 1];
+    private long legacy, malformed, lines, bytes;
+
+    // hour-of-day profile, and the hour currently being counted
+    private final long offsetMillis = ZoneId.systemDefault().getRules().getOffset(Instant.now()).getTotalSeconds() * 1000L;
+    private final long[] treatedAtHourOfDay = new long[24];
+    private final long[] hoursSeenAtHourOfDay = new long[24];
+    private long currentHour = Long.MIN_VALUE, currentHourTreated;
+    private long activeHours, peakHour = Long.MIN_VALUE, peakHourTreated;
+    private long firstMillis = Long.MAX_VALUE, lastMillis = Long.MIN_VALUE;
+
+    TreatedLogAnalyzer()
+    {
+        for (int s = 1; s <= LEVELS; s++) waitMillis[s] = new LogHistogram();
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length == 3 && args[0].equals("--synthesize")) {
+            synthesize(new File(args[1]), Long.parseLong(args[2]));
+            return;
+        }
+        List<File> files = new ArrayList<>();
+        for (String arg : args.length == 0 ? new String[] {"."} : args) files.addAll(logFiles(new File(arg)));
+        if (files.isEmpty()) {
+            System.out.println("No treated_log files found.");
+            return;
+        }
+
+        TreatedLogAnalyzer analyzer = new TreatedLogAnalyzer();
+        long t0 = System.nanoTime();
+        for (File f : files) analyzer.read(f);
+        analyzer.endHour();
+        double secs = (System.nanoTime() - t0) / 1e9;
+        System.out.printf("%d files, %.1f MB on disk, %,d lines in %.2f s (%.0f MB/s, %.0f lines/s)%n",
+                files.size(), analyzer.bytes / 1e6, analyzer.lines, secs, analyzer.bytes / 1e6 / secs, analyzer.lines / secs);
+        analyzer.report(System.out);
+    }
+
+    static List<File> logFiles(File path)
+    {
+        if (!path.isDirectory()) return List.of(path);
+        File[] found = path.listFiles((dir, name) -> name.startsWith("treated_log") && (name.endsWith(".txt") || name.endsWith(".txt.gz")));
+        if (found == null) return List.of();
+        Arrays.sort(found, Comparator.comparing((File f) -> rotationKey(f.getName())).thenComparing(File::getName));
+        return Arrays.asList(found);
+    }
+
+    // Sorts archives by stamp, then clash number, and the live file after
+    // them. The bare name would put stamp-2.txt before the stamp.txt it
+    // clashed with, since '-' sorts before '.'.
+    static String rotationKey(String name)
+    {
+        Matcher m = ARCHIVE.matcher(name);
+        if (!m.matches()) return "~";
+        int clash = m.group(2) == null ? 1 : Integer.parseInt(m.group(2));
+        return m.group(1) + String.format("-%09d", clash);
+    }
+
+    void read(File file) throws IOException
+    {
+        bytes += file.length();
+        InputStream in = new FileInputStream(file);
+        if (file.getName().endsWith(".gz")) in = new GZIPInputStream(in, 1 << 16);
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                lines++;
+                if (!line.isEmpty()) accept(line);
+            }
+        }
+    }
+
+    // T|R,id,severity,arrivalMillis,leftMillis,#code or ,name; N lines (name
+    // definitions) are skipped; or a legacy "Treated: [...]" line.
+    void accept(String line)
+    {
+        char action = line.charAt(0);
+        if (action == TreatedLog.NAME) return;
+        if (line.length() < 2 || line.charAt(1) != ',') {
+            acceptLegacy(line);
+            return;
+        }
+        try {
+            int c1 = line.indexOf(',', 2);
+            int c2 = line.indexOf(',', c1 + 1);
+            int c3 = line.indexOf(',', c2 + 1);
+            int c4 = line.indexOf(',', c3 + 1);
+            if (c4 < 0) throw new NumberFormatException();
+            int severity = Integer.parseInt(line, c1 + 1, c2, 10);
+            long arrival = Long.parseLong(line, c2 + 1, c3, 10);
+            long left = Long.parseLong(line, c3 + 1, c4, 10);
+            if (severity < 1 || severity > LEVELS) throw new NumberFormatException();
+            if (action == TreatedLog.TREATED) {
+                treated[severity]++;
+                waitMillis[severity].record(Math.max(0, left - arrival));
+                countTreatedAt(left);
+            } else if (action == TreatedLog.REMOVED) {
+                removed[severity]++;
+            } else {
+                malformed++;
+            }
+        } catch (RuntimeException e) {
+            malformed++;
+        }
+    }
+
+    private void acceptLegacy(String line)
+    {
+        int at = line.indexOf("Severity:");
+        int end = at < 0 ? -1 : line.indexOf(',', at);
+        if (end < 0) {
+            malformed++;
+            return;
+        }
+        try {
+            int severity = Math.max(1, Math.min(Integer.parseInt(line, at + 9, end, 10), LEVELS));
+            if (line.startsWith("Treated:")) treated[severity]++;
+            else if (line.startsWith("Removed:")) removed[severity]++;
+            else {
+                malformed++;
+                return;
+            }
+            legacy++;
+        } catch (NumberFormatException e) {
+            malformed++;
+        }
+    }
+
+    private void countTreatedAt(long millis)
+    {
+        firstMillis = Math.min(firstMillis, millis);
+        lastMillis = Math.max(lastMillis, millis);
+        long hour = Math.floorDiv(millis + offsetMillis, HOUR);
+        if (hour != currentHour) {
+            endHour();
+            currentHour = hour;
+        }
+        currentHourTreated++;
+    }
+
+    private void endHour()
+    {
+        if (currentHour == Long.MIN_VALUE) return;
+        int hourOfDay = (int) Math.floorMod(currentHour, 24L);
+        treatedAtHourOfDay[hourOfDay] += currentHourTreated;
+        hoursSeenAtHourOfDay[hourOfDay]++;
+        activeHours++;
+        if (currentHourTreated > peakHourTreated) {
+            peakHourTreated = currentHourTreated;
+            peakHour = currentHour;
+        }
+        currentHour = Long.MIN_VALUE;
+        currentHourTreated = 0;
+    }
+
+    void report(PrintStream out)
+    {
+        if (malformed > 0 || legacy > 0) out.printf("%,d malformed lines skipped, %,d old-format lines (no wait time)%n", malformed, legacy);
+
+        out.printf("%n%-9s %10s %10s %9s %10s %10s %10s %10s%n", "severity", "treated", "removed", "removed%", "p50 wait", "p90 wait", "p99 wait", "max wait");
+        long allTreated = 0, allRemoved = 0;
+        for (int s = LEVELS; s >= 1; s--) {
+            LogHistogram h = waitMillis[s];
+            out.printf("%-9d %10d %10d %8.1f%% %10s %10s %10s %10s%n", s, treated[s], removed[s], percent(removed[s], treated[s] + removed[s]),
+                    minutes(h.percentile(0.50)), minutes(h.percentile(0.90)), minutes(h.percentile(0.99)), minutes(h.max()));
+            allTreated += treated[s];
+            allRemoved += removed[s];
+        }
+        out.printf("%-9s %10d %10d %8.1f%%   remove:treat = 1:%.1f%n", "all", allTreated, allRemoved,
+                percent(allRemoved, allTreated + allRemoved), allRemoved == 0 ? 0.0 : (double) allTreated / allRemoved);
+
+        if (activeHours == 0) return;
+        double spanHours = Math.max(1, (lastMillis - firstMillis) / (double) HOUR);
+        LocalDateTime peak = LocalDateTime.ofEpochSecond(peakHour * 3600, 0, ZoneOffset.UTC);
+        out.printf("%nThroughput: %.1f treated/hour over %.0f hours (%d with treatments), peak %d in the hour from %s%n",
+                (double) allTreated / spanHours, spanHours, activeHours, peakHourTreated, peak);
+        out.println("Average treated per hour, by hour of day:");
+        StringBuilder sb = new StringBuilder();
+        for (int h = 0; h < 24; h++) {
+            double avg = hoursSeenAtHourOfDay[h] == 0 ? 0 : (double) treatedAtHourOfDay[h] / hoursSeenAtHourOfDay[h];
+            sb.append(String.format("  %02d:00 %8.1f", h, avg));
+            if (h % 6 == 5) sb.append(System.lineSeparator());
+        }
+        out.print(sb);
+    }
+
+    private static double percent(long part, long whole)
+    {
+        return whole == 0 ? 0 : 100.0 * part / whole;
+    }
+
+    private static String minutes(long millis)
+    {
+        return String.format("%.1f min", millis / 60_000.0);
+    }
+
+
+    // ===================== SYNTHETIC HISTORY =====================
+    // About thirty patients an hour from 2025-01-01 on, written through the
+    // rotating writer HospitalER uses but with 16 MB files, so rotation and
+    // compression happen many times.
+    private static void synthesize(File dir, long records)
+    {
+        dir.mkdirs();
+        Random rand = new Random(11);
+        AsyncLogWriter.Rotation rotation = new AsyncLogWriter.Rotation(16L << 20, Duration.ofDays(1), true);
+        AsyncLogWriter writer = new AsyncLogWriter(new File(dir, "treated_log.txt"), 65536, 1024, 50, AsyncLogWriter.Durability.NONE, rotation,
+                new TreatedLog.NameDefinitions());
+        String[] names = {"Aarav", "Isha", "Rohan", "Simran", "Kabir", "Ananya", "Dev", "Meera"};
+        long now = LocalDateTime.of(2025, 1, 1, 0, 0).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        for (long i = 1; i <= records; i++) {
+            now += 1000L * rand.nextInt(240);
+            Patient p = new Patient((int) i, names[rand.nextInt(names.length)], rand.nextInt(10) + 1);
+            // sicker patients wait less: up to (11 - severity) * 12 minutes
+            p.arrivalMillis = now - 60_000L * rand.nextInt((11 - p.severity) * 12 + 1);
+            p.arrivalTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(p.arrivalMillis), ZoneId.systemDefault());
+            writer.log(rand.nextInt(20) == 0 ? TreatedLog.removed(p, now) : TreatedLog.treated(p, now));
+        }
+        writer.close();
+        System.out.println("Wrote " + records + " records under " + dir);
+    }
+}
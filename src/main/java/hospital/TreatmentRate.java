@@ -0,0 +1,42 @@
+package hospital;
+
+// Exponentially weighted moving average of the time between treatments, the
+// basis of HospitalER.estimatedWait. Each treated patient is one sample; k
+// patients treated together count as k samples of a k-th of the gap. A gap
+// that began with an empty waiting room measures arrivals rather than the
+// doctors, so it is skipped.
+class TreatmentRate
+{
+    // Weight of the newest sample: roughly the last 20 treatments matter.
+    static final double ALPHA = 0.1;
+
+    private long lastNanos = -1;
+    private double nanosPerPatient = Double.NaN;
+
+    void treated(int count, long nowNanos, boolean emptyAfter)
+    {
+        if (count <= 0) return;
+        if (lastNanos >= 0) {
+            double sample = (double) (nowNanos - lastNanos) / count;
+            double weight = 1 - Math.pow(1 - ALPHA, count);
+            nanosPerPatient = Double.isNaN(nanosPerPatient) ? sample : nanosPerPatient + weight * (sample - nanosPerPatient);
+        }
+        lastNanos = emptyAfter ? -1 : nowNanos;
+    }
+
+    // NaN until a gap between two treatments has been seen.
+    double nanosPerPatient()
+    {
+        return nanosPerPatient;
+    }
+
+    // Expected nanoseconds until a patient with ahead patients in front of
+    // them is treated, counting the time since the last treatment as already
+    // served; -1 without a rate yet.
+    long estimateNanos(int ahead, long nowNanos)
+    {
+        if (Double.isNaN(nanosPerPatient)) return -1;
+        long served = lastNanos < 0 ? 0 : nowNanos - lastNanos;
+        return Math.max(0, Math.round((ahead + 1) * nanosPerPatient) - served);
+    }
+}
@@ -0,0 +1,28 @@
+package hospital;
+
+// The core waiting-room operations in primitive terms, so simulations,
+// benchmarks and replays can run against any backing: the object-based
+// HospitalER, the struct-of-arrays PrimitivePatientStore or the lock-free
+// ConcurrentHospitalER. IDs start at 1; -1 means "nobody".
+interface TriageEngine 
+{
+    // Admits a patient and returns their ID.
+    int addPatient(String name, int severity);
+
+    // Treats the next patient and returns their ID, or -1 when nobody waits.
+    int treatNext();
+
+    // ID of the patient who would be treated next, or -1.
+    int peekNext();
+
+    boolean updateSeverity(int id, int newSeverity);
+
+    boolean removePatient(int id);
+
+    int size();
+
+    default boolean isEmpty() 
+    {
+        return size() == 0;
+    }
+}
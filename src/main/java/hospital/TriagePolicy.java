@@ -0,0 +1,39 @@
+package hospital;
+
+import java.time.Duration;
+import java.util.Locale;
+
+// How HospitalER picks the next patient; chosen when the ER is constructed.
+enum TriagePolicy 
+{
+    // Highest severity first, exact FIFO within a severity (IndexedHeap).
+    STRICT,
+    // Same order through O(1) per-severity buckets; re-triage joins the back of the level.
+    BUCKETED,
+    // Waiting time raises priority so low-severity patients cannot starve.
+    AGING;
+
+    // Waiting this long is worth one severity level under AGING.
+    static final Duration AGING_STEP = Duration.ofMinutes(15);
+
+    TriageQueue newQueue() 
+    {
+        return switch (this) {
+            case STRICT -> new IndexedHeap();
+            case BUCKETED -> new SeverityBuckets();
+            case AGING -> new AgingTriageQueue(AGING_STEP);
+        };
+    }
+
+    // The policy whose queue this is.
+    static TriagePolicy of(TriageQueue queue) 
+    {
+        if (queue instanceof AgingTriageQueue) return AGING;
+        return queue instanceof SeverityBuckets ? BUCKETED : STRICT;
+    }
+
+    static TriagePolicy parse(String name) 
+    {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+}
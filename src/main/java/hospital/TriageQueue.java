@@ -0,0 +1,38 @@
+package hospital;
+
+import java.util.*;
+
+// Ordering structure behind HospitalER: decides who is treated next.
+// Nodes are handed in by HospitalER, which owns the linked list and the ID map.
+interface TriageQueue 
+{
+    boolean isEmpty();
+
+    int size();
+
+    Node peek();
+
+    void offer(Node node);
+
+    // Bulk offer, e.g. a whole snapshot at startup; equal keys keep list order.
+    default void offerAll(List<Node> nodes) 
+    {
+        for (Node node : nodes) offer(node);
+    }
+
+    Node poll();
+
+    boolean remove(Node node);
+
+    // Called after node.patient.severity changed while the node was queued.
+    void update(Node node);
+
+    // update() for several nodes whose severities all changed.
+    default void updateAll(List<Node> nodes) 
+    {
+        for (Node node : nodes) update(node);
+    }
+
+    // Waiting patients, next-to-treat first.
+    List<Patient> inOrder();
+}
@@ -0,0 +1,588 @@
+package hospital;
+
+import java.io.*;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.sun.net.httpserver.*;
+
+// HTTP/JSON front door for intake kiosks and doctors' screens, on the JDK's
+// built-in server. Parameters come from the query string or a flat JSON body
+// ({"name":"Isha","severity":7}); answers are JSON. Names with control
+// characters (line breaks included) are refused with a 400.
+//
+//   POST   /patients                 name, severity    201 {"id":..}
+//   POST   /patients/emergency       name, severity    201 {"id":..}
+//   GET    /patients/{id}                              patient, or 404
+//   GET    /patients/{id}/position                     rank, ahead, estimated wait, or 404
+//   GET    /patients?name=..                           exact-name matches
+//   GET    /patients?prefix=..&limit=..                type-ahead matches
+//   PUT    /patients/{id}/severity   severity          re-triage, or 404
+//   DELETE /patients/{id}                              204, or 404
+//   POST   /treat[?count=k]                            treated patient(s), 204 if none
+//   GET    /next                                       next to treat, 204 if none
+//   GET    /stats                                      {"waiting":..,"bySeverity":{..}}
+//   GET    /changes                                    server-sent events, see below
+//
+// /changes streams the ER's ChangeFeed: first a "snapshot" event with the
+// waiting list in treatment order, then one event per change ("admitted",
+// "retriaged", "removed", "treated"), each carrying the snapshot version it
+// belongs to. A client that falls behind has its changes coalesced and, far
+// enough behind, gets a fresh snapshot. Each stream asks the feed for a few
+// events at a time and writes them from its own thread, so a slow client
+// never holds up the feed or triage.
+//
+// Requests run one per virtual thread when the JDK has them (21+) and on a
+// fixed pool otherwise. HospitalER is single-threaded, so every call takes one
+// ReentrantLock; unlike synchronized it does not pin a virtual thread to its
+// carrier while blocked. The lock is held only for the in-memory operation and
+// the journal append, never for socket I/O.
+//
+//   gradle run -PmainClass=hospital.TriageService --args="[port] [policy] [--memory]"
+public class TriageService implements Closeable
+{
+    // The server writes headers and body separately; with Nagle on, every reply
+    // that has a body waits ~40 ms for the client's delayed ACK. Read once when
+    // the server implementation loads, so set it before the first create().
+    static {
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final HospitalER er;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private volatile boolean closed;
+
+    // Serves er on port (0 picks a free one). The service owns er's console
+    // output: it switches the ER to quiet.
+    TriageService(HospitalER er, InetSocketAddress address) throws IOException
+    {
+        this.er = er;
+        er.setQuiet(true);
+        server = HttpServer.create(address, 1024);
+        executor = requestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/patients", this::patients);
+        server.createContext("/treat", this::treat);
+        server.createContext("/next", this::next);
+        server.createContext("/stats", this::stats);
+        server.createContext("/changes", this::changes);
+        server.start();
+    }
+
+    public int port()
+    {
+        return server.getAddress().getPort();
+    }
+
+    public void close()
+    {
+        closed = true;
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() when available; looked up
+    // reflectively so the build stays on Java 17.
+    static ExecutorService requestExecutor()
+    {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            int threads = Math.max(32, 8 * Runtime.getRuntime().availableProcessors());
+            return Executors.newFixedThreadPool(threads, r -> {
+                Thread t = new Thread(r, "triage-http");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    static boolean virtualThreads()
+    {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        TriagePolicy policy = args.length > 1 ? TriagePolicy.parse(args[1]) : TriagePolicy.STRICT;
+        boolean memory = Arrays.asList(args).contains("--memory");
+
+        HospitalER er = new HospitalER(policy.newQueue(), !memory);
+        er.loadFromFile();
+        TriageService service = new TriageService(er, new InetSocketAddress(port));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            service.close();
+            service.locked(() -> {
+                er.close();
+                return null;
+            });
+        }));
+        System.out.println("Triage service on port " + service.port() + " (" + policy + ", "
+                + (virtualThreads() ? "virtual threads" : "thread pool") + ", " + er.size() + " waiting)");
+    }
+
+
+    // ===================== HANDLERS =====================
+
+    private void patients(HttpExchange ex) throws IOException
+    {
+        handle(ex, () -> {
+            String[] path = segments(ex, "/patients");
+            String method = ex.getRequestMethod();
+            Map<String, String> params = params(ex);
+
+            if (path.length == 0 && method.equals("POST")) {
+                String name = HospitalER.checkName(required(params, "name"));
+                int severity = requiredInt(params, "severity");
+                int id = locked(() -> er.addPatient(name, severity));
+                reply(ex, 201, "{\"id\":" + id + "}");
+                return;
+            }
+            if (path.length == 1 && path[0].equals("emergency") && method.equals("POST")) {
+                String name = HospitalER.checkName(required(params, "name"));
+                int severity = intParam(params, "severity", 10);
+                int id = locked(() -> er.addEmergencyPatient(name, severity));
+                reply(ex, 201, "{\"id\":" + id + "}");
+                return;
+            }
+            if (path.length == 0 && method.equals("GET")) {
+                List<Patient> found;
+                if (params.containsKey("name")) {
+                    String name = params.get("name");
+                    found = locked(() -> copies(er.searchPatientByName(name)));
+                } else {
+                    String prefix = required(params, "prefix");
+                    int limit = Math.max(1, Math.min(intParam(params, "limit", 20), 1000));
+                    found = locked(() -> copies(er.searchPatientsByPrefix(prefix, limit)));
+                }
+                reply(ex, 200, toJson(found));
+                return;
+            }
+
+            int id = path.length > 0 ? parseId(path[0]) : -1;
+            if (path.length == 1 && method.equals("GET")) {
+                Patient p = locked(() -> copy(er.searchPatientById(id)));
+                if (p == null) notFound(ex, id);
+                else reply(ex, 200, toJson(p));
+                return;
+            }
+            if (path.length == 2 && path[1].equals("position") && method.equals("GET")) {
+                String position = locked(() -> positionJson(id));
+                if (position == null) notFound(ex, id);
+                else reply(ex, 200, position);
+                return;
+            }
+            if (path.length == 1 && method.equals("DELETE")) {
+                if (locked(() -> er.removePatient(id))) reply(ex, 204, null);
+                else notFound(ex, id);
+                return;
+            }
+            if (path.length == 2 && path[1].equals("severity") && (method.equals("PUT") || method.equals("POST"))) {
+                int severity = requiredInt(params, "severity");
+                if (locked(() -> er.updateSeverity(id, severity))) reply(ex, 200, "{\"id\":" + id + ",\"severity\":" + Math.max(1, Math.min(severity, 10)) + "}");
+                else notFound(ex, id);
+                return;
+            }
+            reply(ex, path.length <= 2 ? 405 : 404, "{\"error\":\"unsupported " + method + " " + ex.getRequestURI().getPath() + "\"}");
+        });
+    }
+
+    private void treat(HttpExchange ex) throws IOException
+    {
+        handle(ex, () -> {
+            if (!ex.getRequestMethod().equals("POST")) {
+                reply(ex, 405, "{\"error\":\"use POST\"}");
+                return;
+            }
+            Map<String, String> params = params(ex);
+            if (params.containsKey("count")) {
+                int k = Math.max(0, Math.min(intParam(params, "count", 1), 1000));
+                List<Patient> treated = locked(() -> er.treatNext(k));
+                if (treated.isEmpty()) reply(ex, 204, null);
+                else reply(ex, 200, toJson(treated));
+                return;
+            }
+            Patient p = locked(er::treatNextPatient);
+            if (p == null) reply(ex, 204, null);
+            else reply(ex, 200, toJson(p));
+        });
+    }
+
+    private void next(HttpExchange ex) throws IOException
+    {
+        handle(ex, () -> {
+            if (!ex.getRequestMethod().equals("GET")) {
+                reply(ex, 405, "{\"error\":\"use GET\"}");
+                return;
+            }
+            Patient p = locked(() -> copy(er.viewNextToTreat()));
+            if (p == null) reply(ex, 204, null);
+            else reply(ex, 200, toJson(p));
+        });
+    }
+
+    private void stats(HttpExchange ex) throws IOException
+    {
+        handle(ex, () -> reply(ex, 200, locked(() -> {
+            StringBuilder sb = new StringBuilder("{\"waiting\":").append(er.size()).append(",\"bySeverity\":{");
+            for (int s = 10; s >= 1; s--) {
+                sb.append('"').append(s).append("\":").append(er.waitingAtSeverity(s));
+                if (s > 1) sb.append(',');
+            }
+            return sb.append("}}").toString();
+        })));
+    }
+
+    private void changes(HttpExchange ex) throws IOException
+    {
+        if (!ex.getRequestMethod().equals("GET")) {
+            handle(ex, () -> reply(ex, 405, "{\"error\":\"use GET\"}"));
+            return;
+        }
+        ChangeFeed feed = locked(er::changeFeed);
+        ex.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+        ex.getResponseHeaders().set("Cache-Control", "no-cache");
+        ex.sendResponseHeaders(200, 0);
+        // a stream lasts as long as the client; keep it off the fixed pool
+        if (virtualThreads()) streamChanges(ex, feed);
+        else {
+            Thread t = new Thread(() -> streamChanges(ex, feed), "triage-changes");
+            t.setDaemon(true);
+            t.start();
+        }
+    }
+
+    private void streamChanges(HttpExchange ex, ChangeFeed feed)
+    {
+        ChangeStream stream = new ChangeStream();
+        feed.subscribe(stream);
+        try (OutputStream out = ex.getResponseBody())
+        {
+            while (!closed) {
+                ErChange c = stream.items.poll(15, TimeUnit.SECONDS);
+                if (c == null) {
+                    // heartbeat; also notices clients that went away
+                    out.write(": keep-alive\n\n".getBytes(StandardCharsets.UTF_8));
+                } else if (c == ChangeStream.END) {
+                    break;
+                } else {
+                    out.write(("event: " + c.kind.name().toLowerCase() + "\ndata: " + toJson(c) + "\n\n").getBytes(StandardCharsets.UTF_8));
+                    stream.subscription.request(1);
+                }
+                out.flush();
+            }
+        }
+        catch (IOException | InterruptedException e)
+        {
+            // client disconnected or server stopping
+        }
+        finally
+        {
+            stream.subscription.cancel();
+            ex.close();
+        }
+    }
+
+    // Hands feed items to the stream's own thread. At most WINDOW items are
+    // ever requested and not yet written, so offer always fits.
+    private static final class ChangeStream implements Flow.Subscriber<ErChange>
+    {
+        static final int WINDOW = 16;
+        static final ErChange END = ErChange.snapshot(ErSnapshot.EMPTY);
+
+        final BlockingQueue<ErChange> items = new ArrayBlockingQueue<>(WINDOW + 1);
+        volatile Flow.Subscription subscription;
+
+        public void onSubscribe(Flow.Subscription subscription)
+        {
+            this.subscription = subscription;
+            subscription.request(WINDOW);
+        }
+
+        public void onNext(ErChange item)
+        {
+            items.offer(item);
+        }
+
+        public void onError(Throwable e)
+        {
+            System.out.println("Error in change stream: " + e.getMessage());
+            items.offer(END);
+        }
+
+        public void onComplete()
+        {
+            items.offer(END);
+        }
+    }
+
+    // Called under the lock; null when the ID is not waiting.
+    private String positionJson(int id)
+    {
+        int ahead = er.countAhead(id);
+        if (ahead < 0) return null;
+        Patient p = er.searchPatientById(id);
+        Duration wait = er.estimatedWait(id);
+        return "{\"id\":" + id + ",\"rank\":" + (ahead + 1) + ",\"ahead\":" + ahead
+                + ",\"severity\":" + p.severity + ",\"waitingAtSeverity\":" + er.waitingAtSeverity(p.severity)
+                + ",\"estimatedWaitSeconds\":" + (wait == null ? "null" : String.valueOf(wait.toSeconds())) + "}";
+    }
+
+
+    // ===================== PLUMBING =====================
+
+    private interface Handler
+    {
+        void run() throws IOException;
+    }
+
+    // Bad input is a 400; anything else a 500 that keeps the server up.
+    private static void handle(HttpExchange ex, Handler handler) throws IOException
+    {
+        try {
+            handler.run();
+        } catch (IllegalArgumentException e) {
+            reply(ex, 400, "{\"error\":" + quote(e.getMessage()) + "}");
+        } catch (RuntimeException e) {
+            System.out.println("Error handling " + ex.getRequestURI() + ": " + e);
+            reply(ex, 500, "{\"error\":\"internal error\"}");
+        } finally {
+            ex.close();
+        }
+    }
+
+    private <T> T locked(Callable<T> call)
+    {
+        lock.lock();
+        try {
+            return call.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void reply(HttpExchange ex, int status, String json) throws IOException
+    {
+        if (json == null) {
+            ex.sendResponseHeaders(status, -1);
+            return;
+        }
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.sendResponseHeaders(status, body.length);
+        ex.getResponseBody().write(body);
+    }
+
+    private static void notFound(HttpExchange ex, int id) throws IOException
+    {
+        reply(ex, 404, "{\"error\":\"no patient with id " + id + "\"}");
+    }
+
+    private static String[] segments(HttpExchange ex, String context)
+    {
+        String rest = ex.getRequestURI().getPath().substring(context.length());
+        List<String> parts = new ArrayList<>();
+        for (String s : rest.split("/")) if (!s.isEmpty()) parts.add(s);
+        return parts.toArray(new String[0]);
+    }
+
+    private static int parseId(String s)
+    {
+        try {
+            return Integer.parseInt(s);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("bad patient id: " + s);
+        }
+    }
+
+    private static String required(Map<String, String> params, String key)
+    {
+        String value = params.get(key);
+        if (value == null || value.isBlank()) throw new IllegalArgumentException("missing " + key);
+        return value;
+    }
+
+    private static int requiredInt(Map<String, String> params, String key)
+    {
+        required(params, key);
+        return intParam(params, key, 0);
+    }
+
+    private static int intParam(Map<String, String> params, String key, int fallback)
+    {
+        String value = params.get(key);
+        if (value == null) return fallback;
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("bad " + key + ": " + value);
+        }
+    }
+
+    // Query string, then a flat JSON object body on top of it.
+    static Map<String, String> params(HttpExchange ex) throws IOException
+    {
+        Map<String, String> params = new HashMap<>();
+        String query = ex.getRequestURI().getRawQuery();
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                int eq = pair.indexOf('=');
+                if (eq <= 0) continue;
+                params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8), URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        byte[] body = ex.getRequestBody().readNBytes(64 * 1024);
+        if (body.length > 0) parseFlatJson(new String(body, StandardCharsets.UTF_8), params);
+        return params;
+    }
+
+    // {"key": "string" | number | true | false | null, ...}; no nesting.
+    static void parseFlatJson(String s, Map<String, String> into)
+    {
+        int[] pos = {skipSpace(s, 0)};
+        expect(s, pos, '{');
+        if (peek(s, pos) == '}') return;
+        while (true) {
+            String key = readString(s, pos);
+            expect(s, pos, ':');
+            String value;
+            if (peek(s, pos) == '"') {
+                value = readString(s, pos);
+            } else {
+                int start = pos[0];
+                while (pos[0] < s.length() && ",} \t\r\n".indexOf(s.charAt(pos[0])) < 0) pos[0]++;
+                value = s.substring(start, pos[0]);
+                if (value.isEmpty()) throw new IllegalArgumentException("bad JSON value for " + key);
+                if (value.equals("null")) value = null;
+            }
+            if (value != null) into.put(key, value);
+            char c = peek(s, pos);
+            pos[0]++;
+            if (c == '}') return;
+            if (c != ',') throw new IllegalArgumentException("bad JSON body");
+        }
+    }
+
+    private static char peek(String s, int[] pos)
+    {
+        pos[0] = skipSpace(s, pos[0]);
+        if (pos[0] >= s.length()) throw new IllegalArgumentException("truncated JSON body");
+        return s.charAt(pos[0]);
+    }
+
+    private static void expect(String s, int[] pos, char c)
+    {
+        if (peek(s, pos) != c) throw new IllegalArgumentException("bad JSON body: expected " + c);
+        pos[0]++;
+    }
+
+    private static String readString(String s, int[] pos)
+    {
+        expect(s, pos, '"');
+        StringBuilder sb = new StringBuilder();
+        while (true) {
+            if (pos[0] >= s.length()) throw new IllegalArgumentException("truncated JSON string");
+            char c = s.charAt(pos[0]++);
+            if (c == '"') return sb.toString();
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            if (pos[0] >= s.length()) throw new IllegalArgumentException("truncated JSON string");
+            char e = s.charAt(pos[0]++);
+            switch (e) {
+                case 'n' -> sb.append('\n');
+                case 't' -> sb.append('\t');
+                case 'r' -> sb.append('\r');
+                case 'b' -> sb.append('\b');
+                case 'f' -> sb.append('\f');
+                case 'u' -> {
+                    if (pos[0] + 4 > s.length()) throw new IllegalArgumentException("truncated JSON string");
+                    sb.append((char) Integer.parseInt(s, pos[0], pos[0] + 4, 16));
+                    pos[0] += 4;
+                }
+                default -> sb.append(e);
+            }
+        }
+    }
+
+    private static int skipSpace(String s, int i)
+    {
+        while (i < s.length() && Character.isWhitespace(s.charAt(i))) i++;
+        return i;
+    }
+
+    // Patients are rendered outside the lock, so hand out copies taken inside it.
+    private static Patient copy(Patient p)
+    {
+        return p == null ? null : p.frozenCopy();
+    }
+
+    private static List<Patient> copies(List<Patient> found)
+    {
+        List<Patient> copies = new ArrayList<>(found.size());
+        for (Patient p : found) copies.add(copy(p));
+        return copies;
+    }
+
+    static String toJson(Patient p)
+    {
+        return "{\"id\":" + p.id + ",\"name\":" + quote(p.name) + ",\"severity\":" + p.severity
+                + ",\"arrival\":\"" + p.arrivalTime.format(HospitalER.FORMATTER) + "\"}";
+    }
+
+    static String toJson(ErChange c)
+    {
+        if (c.kind == ErChange.Kind.SNAPSHOT) {
+            return "{\"version\":" + c.version + ",\"waiting\":" + toJson(c.snapshot.severityOrder()) + "}";
+        }
+        return "{\"version\":" + c.version + ",\"patient\":" + toJson(c.patient)
+                + (c.kind == ErChange.Kind.RETRIAGED ? ",\"oldSeverity\":" + c.oldSeverity : "") + "}";
+    }
+
+    static String toJson(Iterable<Patient> list)
+    {
+        StringBuilder sb = new StringBuilder("[");
+        for (Patient p : list) {
+            if (sb.length() > 1) sb.append(',');
+            sb.append(toJson(p));
+        }
+        return sb.append(']').toString();
+    }
+
+    static String quote(String s)
+    {
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
@@ -0,0 +1,73 @@
+package hospital;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.*;
+import java.util.*;
+import org.junit.jupiter.api.Test;
+
+// Seeded admissions, re-triages and treatments under AGING with a manual
+// clock: every treatment must take the smallest aging key (ties to the higher
+// severity), and countAhead must match the position in the queue's order.
+class AgingTriageQueueTest
+{
+    private static final long STEP = TriagePolicy.AGING_STEP.toMillis();
+
+    @Test
+    void retriagedPatientsKeepKeyOrderAndExactPositions()
+    {
+        ManualClock clock = new ManualClock();
+        HospitalER er = new HospitalER(TriagePolicy.AGING.newQueue(), false);
+        er.setQuiet(true);
+        er.setClock(clock);
+        SplittableRandom rand = new SplittableRandom(7);
+        List<Integer> ids = new ArrayList<>();
+        for (int op = 0; op < 5000; op++) {
+            clock.advance(rand.nextInt(120_000));
+            int k = rand.nextInt(10);
+            if (k < 5 || ids.isEmpty()) {
+                ids.add(er.addPatient("P", rand.nextInt(10) + 1));
+            } else if (k < 8) {
+                er.updateSeverity(ids.get(rand.nextInt(ids.size())), rand.nextInt(10) + 1);
+            } else {
+                Patient p = er.treatNextPatient();
+                ids.remove((Integer) p.id);
+                for (Patient q : er.viewWaitingList()) {
+                    assertFalse(key(q) < key(p) || (key(q) == key(p) && q.severity > p.severity),
+                            "treated " + p + " before " + q);
+                }
+            }
+            if (op % 100 == 0) {
+                List<Patient> order = er.viewSeverityOrder();
+                for (int i = 0; i < order.size(); i++) assertEquals(i, er.countAhead(order.get(i).id));
+            }
+        }
+    }
+
+    // When clocks fall back, a later arrival shows an earlier wall-clock time;
+    // it must still age from its real arrival and queue behind.
+    @Test
+    void fallBackDoesNotReorderArrivals()
+    {
+        ZoneId zone = ZoneId.of("America/New_York");
+        long beforeFallBack = ZonedDateTime.of(2025, 11, 2, 1, 50, 0, 0, zone).toInstant().toEpochMilli();
+        ManualClock clock = new ManualClock(beforeFallBack, zone);
+        HospitalER er = new HospitalER(TriagePolicy.AGING.newQueue(), false);
+        er.setQuiet(true);
+        er.setClock(clock);
+
+        int first = er.addPatient("Isha", 4);
+        clock.advance(Duration.ofMinutes(20).toMillis());
+        int second = er.addPatient("Rohan", 4);
+        assertTrue(er.searchPatientById(second).arrivalTime.isBefore(er.searchPatientById(first).arrivalTime));
+
+        assertEquals(0, er.countAhead(first));
+        assertEquals(1, er.countAhead(second));
+        assertEquals(first, er.treatNextPatient().id);
+    }
+
+    private static long key(Patient p)
+    {
+        return p.arrivalMillis - p.severity * STEP;
+    }
+}
@@ -0,0 +1,68 @@
+package hospital;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.Test;
+
+class AsyncPrinterTest
+{
+    // A message that cannot render must not take the printer thread down:
+    // with a tiny queue, callers would otherwise block for good.
+    @Test
+    void failingMessageDoesNotStopThePrinter()
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        AsyncPrinter printer = new AsyncPrinter(new PrintStream(bytes, true, StandardCharsets.UTF_8), 4);
+        printer.print(new Object() {
+            public String toString()
+            {
+                throw new IllegalStateException("broken");
+            }
+        });
+        for (int i = 0; i < 100; i++) printer.print("line " + i);
+        printer.close();
+
+        String[] lines = bytes.toString(StandardCharsets.UTF_8).split(System.lineSeparator());
+        assertEquals(101, lines.length);
+        assertTrue(lines[0].startsWith("Error printing message: "), lines[0]);
+        assertEquals("line 99", lines[100]);
+    }
+
+    // A caller interrupted while the queue is full never queues its message,
+    // so flush() must not wait for it.
+    @Test
+    void interruptedPrintDoesNotHoldUpFlush() throws Exception
+    {
+        CountDownLatch rendering = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AsyncPrinter printer = new AsyncPrinter(new PrintStream(OutputStream.nullOutputStream()), 1);
+        printer.print(new Object() {
+            public String toString()
+            {
+                rendering.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "slow";
+            }
+        });
+        rendering.await();
+        printer.print("fills the queue");
+
+        Thread.currentThread().interrupt();
+        printer.print("never queued");
+        assertTrue(Thread.interrupted());
+        release.countDown();
+
+        Thread flusher = new Thread(printer::flush);
+        flusher.start();
+        flusher.join(5000);
+        assertFalse(flusher.isAlive(), "flush() is still waiting");
+        printer.close();
+    }
+}
@@ -0,0 +1,49 @@
+package hospital;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.*;
+import java.util.*;
+import org.junit.jupiter.api.Test;
+
+class BatchIntakeTest
+{
+    @Test
+    void batchArrivalsComeFromTheErClock()
+    {
+        ManualClock clock = new ManualClock(0, ZoneOffset.UTC);
+        HospitalER er = new HospitalER(TriagePolicy.STRICT.newQueue(), false);
+        er.setQuiet(true);
+        er.setClock(clock);
+        clock.advance(Duration.ofHours(1).toMillis());
+
+        er.addPatients(List.of(new Patient(0, "Aarav", 3), new Patient(0, "Isha", 7)));
+        er.addPatient("Rohan", 5);
+
+        LocalDateTime expected = LocalDateTime.of(1970, 1, 1, 1, 0);
+        for (Patient p : er.viewWaitingList()) assertEquals(expected, p.arrivalTime, p.name);
+    }
+
+    @Test
+    void intakeObjectsAreLeftAlone()
+    {
+        HospitalER er = new HospitalER(TriagePolicy.STRICT.newQueue(), false);
+        er.setQuiet(true);
+        er.setClock(new ManualClock(0, ZoneOffset.UTC));
+        Patient isha = new Patient(0, "Isha", 7);
+        LocalDateTime written = isha.arrivalTime;
+
+        int[] ids = er.addPatients(List.of(isha));
+        assertEquals(0, isha.id);
+        assertEquals(0, isha.seq);
+        assertEquals(written, isha.arrivalTime);
+        assertNotSame(isha, er.searchPatientById(ids[0]));
+
+        er.addPatient("Rohan", 5);
+        er.enableSnapshots();
+        List<Patient> treated = er.treatNext(2);
+        assertEquals(List.of(ids[0], ids[0] + 1), List.of(treated.get(0).id, treated.get(1).id));
+        assertEquals(0, er.size());
+        assertEquals(0, er.enableSnapshots().current().size);
+    }
+}
@@ -0,0 +1,150 @@
+package hospital;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.LockSupport;
+import org.junit.jupiter.api.Test;
+
+// A seeded triage workload (TraceRecorder.record) against an ER with a couple
+// of hundred ChangeFeed subscribers, a tenth of them slow: every subscriber's
+// picture of the waiting list (SNAPSHOT, then deltas in order) must end up
+// equal to the ER's.
+class ChangeFeedTest
+{
+    private static final int STEADY = 10_000;
+
+    // Rebuilds id -> severity from what it is sent. A slow one only asks for
+    // one item per millisecond, like a display on a poor link.
+    private static final class Dashboard implements Flow.Subscriber<ErChange>
+    {
+        final boolean slow;
+        final HashMap<Integer, Integer> waiting = new HashMap<>();
+        volatile Flow.Subscription subscription;
+        long lastVersion = -1;
+        long outOfOrder;
+
+        Dashboard(boolean slow)
+        {
+            this.slow = slow;
+        }
+
+        public void onSubscribe(Flow.Subscription subscription)
+        {
+            this.subscription = subscription;
+            subscription.request(slow ? 1 : Long.MAX_VALUE);
+        }
+
+        public synchronized void onNext(ErChange c)
+        {
+            if (c.kind == ErChange.Kind.SNAPSHOT) {
+                waiting.clear();
+                for (Patient p : c.snapshot.arrivalOrder()) waiting.put(p.id, p.severity);
+            } else if (c.version <= lastVersion) {
+                outOfOrder++;
+            }
+            switch (c.kind) {
+                case ADMITTED, RETRIAGED -> waiting.put(c.patient.id, c.patient.severity);
+                case REMOVED, TREATED -> waiting.remove(c.patient.id);
+                default -> {}
+            }
+            lastVersion = c.version;
+        }
+
+        public void onError(Throwable e)
+        {
+            fail("dashboard failed: " + e);
+        }
+
+        public void onComplete() {}
+
+        synchronized boolean matches(Map<Integer, Integer> expected)
+        {
+            return waiting.equals(expected);
+        }
+    }
+
+    @Test
+    void everySubscriberConvergesOnTheWaitingList() throws Exception
+    {
+        ManualClock clock = new ManualClock();
+        HospitalER er = new HospitalER(TriagePolicy.STRICT.newQueue(), false);
+        er.setQuiet(true);
+        er.setClock(clock);
+        ChangeFeed feed = er.changeFeed();
+        List<Dashboard> dashboards = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Dashboard d = new Dashboard(i % 10 == 0);
+            dashboards.add(d);
+            feed.subscribe(d);
+        }
+        Thread ticker = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                LockSupport.parkNanos(1_000_000);
+                for (Dashboard d : dashboards) if (d.slow && d.subscription != null) d.subscription.request(1);
+            }
+        }, "slow-dashboards");
+        ticker.setDaemon(true);
+        ticker.start();
+
+        try {
+            // in 1 ms slices, so deltas are coalesced rather than all replaced by snapshots
+            SplittableRandom rand = new SplittableRandom(42);
+            for (int slice = 0; slice < 200; slice++) {
+                TraceRecorder.record(er, clock, rand, 500, STEADY);
+                LockSupport.parkNanos(1_000_000);
+            }
+
+            Map<Integer, Integer> expected = new HashMap<>();
+            for (Patient p : er.viewWaitingList()) expected.put(p.id, p.severity);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+            int behind;
+            do {
+                Thread.sleep(50);
+                behind = 0;
+                for (Dashboard d : dashboards) if (!d.matches(expected)) behind++;
+            } while (behind > 0 && System.nanoTime() < deadline);
+
+            assertEquals(0, behind, "dashboards that differ from the ER");
+            for (Dashboard d : dashboards) assertEquals(0, d.outOfOrder, "deltas out of order");
+        } finally {
+            ticker.interrupt();
+            feed.close();
+        }
+    }
+
+    @Test
+    void pendingChangesCoalescePerPatient()
+    {
+        Patient p = new Patient(7, "Meera", 3, LocalDateTime.of(2025, 1, 1, 9, 0), 0);
+        ErChange admitted = ErChange.delta(ErChange.Kind.ADMITTED, 1, p, 3);
+        p.severity = 6;
+        ErChange first = ErChange.delta(ErChange.Kind.RETRIAGED, 2, p, 3);
+        p.severity = 9;
+        ErChange second = ErChange.delta(ErChange.Kind.RETRIAGED, 3, p, 6);
+        ErChange treated = ErChange.delta(ErChange.Kind.TREATED, 4, p, 9);
+        ErChange removed = ErChange.delta(ErChange.Kind.REMOVED, 4, p, 9);
+
+        // admitted, then re-triaged: one admission at the new severity
+        ErChange c = admitted.then(first);
+        assertEquals(ErChange.Kind.ADMITTED, c.kind);
+        assertEquals(2, c.version);
+        assertEquals(6, c.patient.severity);
+
+        // several re-triages: one, from the first old severity to the last
+        c = first.then(second);
+        assertEquals(ErChange.Kind.RETRIAGED, c.kind);
+        assertEquals(3, c.version);
+        assertEquals(3, c.oldSeverity);
+        assertEquals(9, c.patient.severity);
+
+        // admitted and gone before delivery: nothing
+        assertNull(admitted.then(first).then(treated));
+        assertNull(admitted.then(removed));
+
+        // re-triaged, then gone: only the departure
+        assertSame(treated, first.then(second).then(treated));
+    }
+}
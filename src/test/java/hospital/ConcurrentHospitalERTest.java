@@ -0,0 +1,122 @@
+package hospital;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import org.junit.jupiter.api.Test;
+
+// Multi-threaded stress for ConcurrentHospitalER: intake desks admit patients,
+// a charge nurse re-triages and discharges at random, and doctors treat until
+// every admitted patient has left the queue. No patient may be treated twice
+// or lost.
+class ConcurrentHospitalERTest
+{
+    private static final int PATIENTS = 200_000;
+
+    @Test
+    void oneDeskOneDoctor() throws Exception
+    {
+        run(1, 1);
+    }
+
+    @Test
+    void manyDesksManyDoctors() throws Exception
+    {
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        run(threads, threads);
+    }
+
+    // Re-triage with no doctor polling leaves a tombstone per move; the stripes
+    // must compact rather than grow with every re-triage.
+    @Test
+    void retriageWithoutTreatmentStaysBounded()
+    {
+        ConcurrentHospitalER er = new ConcurrentHospitalER();
+        int n = 1000;
+        for (int i = 0; i < n; i++) er.addPatient("P", i % 10 + 1);
+        SplittableRandom rand = new SplittableRandom(7);
+        for (int round = 0; round < 200; round++) {
+            for (int id = 1; id <= n; id++) er.updateSeverity(id, rand.nextInt(10) + 1);
+        }
+        for (int id = 1; id <= n; id += 2) er.removePatient(id);
+
+        assertTrue(er.queued() <= 2 * n + 10 * 64, "queued " + er.queued());
+        assertEquals(n / 2, er.size());
+        assertTrue(er.peekNextPatient() != null);
+        int treated = 0;
+        while (er.treatNextPatient() != null) treated++;
+        assertEquals(n / 2, treated);
+        assertEquals(0, er.queued());
+    }
+
+    private static void run(int desks, int doctors) throws Exception
+    {
+        ConcurrentHospitalER er = new ConcurrentHospitalER();
+        // slot per ID: how many times the patient left the queue (treated or removed)
+        AtomicIntegerArray departures = new AtomicIntegerArray(PATIENTS + 1);
+        AtomicInteger admitted = new AtomicInteger();
+        AtomicInteger departed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(desks + doctors + 1);
+        List<Future<?>> tasks = new ArrayList<>();
+
+        int perDesk = PATIENTS / desks;
+        for (int d = 0; d < desks; d++) {
+            int count = d == desks - 1 ? PATIENTS - perDesk * (desks - 1) : perDesk;
+            tasks.add(pool.submit(() -> {
+                start.await();
+                ThreadLocalRandom rand = ThreadLocalRandom.current();
+                for (int i = 0; i < count; i++) {
+                    er.addPatient("P", rand.nextInt(10) + 1);
+                    admitted.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        tasks.add(pool.submit(() -> {
+            start.await();
+            ThreadLocalRandom rand = ThreadLocalRandom.current();
+            while (departed.get() < PATIENTS) {
+                int id = rand.nextInt(Math.max(1, admitted.get())) + 1;
+                if (rand.nextInt(4) == 0) {
+                    if (er.removePatient(id)) {
+                        departures.incrementAndGet(id);
+                        departed.incrementAndGet();
+                    }
+                } else {
+                    er.updateSeverity(id, rand.nextInt(10) + 1);
+                }
+            }
+            return null;
+        }));
+        for (int d = 0; d < doctors; d++) {
+            tasks.add(pool.submit(() -> {
+                start.await();
+                while (departed.get() < PATIENTS) {
+                    Patient p = er.treatNextPatient();
+                    if (p == null) {
+                        Thread.onSpinWait();
+                        continue;
+                    }
+                    departures.incrementAndGet(p.id);
+                    departed.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        try {
+            for (Future<?> f : tasks) f.get(2, TimeUnit.MINUTES);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertTrue(er.isEmpty(), "patients left waiting");
+        for (int id = 1; id <= PATIENTS; id++) {
+            assertEquals(1, departures.get(id), "times patient " + id + " left the queue");
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package hospital;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class NameDictionaryTest
+{
+    @Test
+    void lastReleaseDropsTheNameAndFreesItsCode()
+    {
+        NameDictionary names = new NameDictionary();
+        int a = names.acquire("Simran");
+        assertEquals(a, names.acquire("Simran"));
+        // the folded form is held as well
+        assertEquals(2, names.size());
+        assertEquals("simran", names.name(names.folded(a)));
+
+        names.release(a);
+        assertEquals("Simran", names.canonical(new String("Simran")));
+        names.release(a);
+        assertEquals(0, names.size());
+        assertEquals(-1, names.codeOf("Simran"));
+
+        // codes are reused, so they stay dense
+        int b = names.acquire("kabir");
+        assertTrue(b <= 1, "code " + b);
+        assertEquals(b, names.folded(b));
+    }
+
+    @Test
+    void patientsReleaseTheirNamesWhenTheyLeave()
+    {
+        HospitalER er = new HospitalER(TriagePolicy.STRICT.newQueue(), false);
+        er.setQuiet(true);
+        int before = NameDictionary.SHARED.size();
+        for (int i = 0; i < 1000; i++) er.addPatient("Passing" + i, i % 9 + 2);
+        er.addPatient("  STAYS ", 1);
+        er.addPatient("stays", 1);
+        assertEquals(2, er.searchPatientByName("Stays").size());
+
+        List<Patient> intake = new ArrayList<>();
+        for (int i = 0; i < 10; i++) intake.add(new Patient(0, "Batch" + i, 4));
+        er.addPatients(intake);
+        er.treatNext(500);
+        while (er.size() > 2) er.treatNextPatient();
+
+        Patient gone = er.searchPatientByName("stays").get(0);
+        er.removePatient(gone.id);
+        assertEquals(-1, gone.nameCode);
+        assertEquals(1, er.searchPatientByName("STAYS").size());
+        // "  STAYS " arrived first and has left; "stays" is its own folded form
+        assertEquals("  STAYS ", gone.name);
+        assertEquals(before + 1, NameDictionary.SHARED.size());
+        er.treatNextPatient();
+        assertEquals(before, NameDictionary.SHARED.size());
+    }
+
+    @Test
+    void treatedLogDefinesItsOwnCodes(@TempDir Path dir) throws IOException
+    {
+        HospitalER er = new HospitalER(TriagePolicy.STRICT.newQueue(), dir.toFile());
+        er.setQuiet(true);
+        for (String name : new String[] {"Aarav", "Isha", "Aarav", "Rohan"}) er.addPatient(name, 5);
+        er.treatNextPatient();
+        er.treatNext(3);
+        er.close();
+
+        Map<String, String> defined = new HashMap<>();
+        List<String> treated = new ArrayList<>();
+        for (String line : Files.readAllLines(dir.resolve("treated_log.txt"))) {
+            String[] f = line.split(",", -1);
+            if (f[0].equals("N")) defined.put(f[1], f[2]);
+            else treated.add(defined.get(f[5].substring(1)));
+        }
+        assertEquals(List.of("Aarav", "Isha", "Aarav", "Rohan"), treated);
+        assertEquals(3, defined.size());
+    }
+}
@@ -0,0 +1,47 @@
+package hospital;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import org.junit.jupiter.api.Test;
+
+// Name lookups against a scan of the waiting list, through admissions,
+// removals and treatments of patients who share names in different cases.
+class NameIndexTest
+{
+    private static final String[] NAMES = { "Asha", "ASHA", "Ashok", "asher", "Dev", "Devika", "dev ", "Mira" };
+
+    @Test
+    void lookupsMatchAScanOfTheWaitingList()
+    {
+        HospitalER er = new HospitalER(TriagePolicy.STRICT.newQueue(), false);
+        er.setQuiet(true);
+        SplittableRandom rand = new SplittableRandom(4);
+        for (int op = 0; op < 5000; op++) {
+            switch (rand.nextInt(4)) {
+                case 0, 1 -> er.addPatient(NAMES[rand.nextInt(NAMES.length)], rand.nextInt(10) + 1);
+                case 2 -> er.removePatient(rand.nextInt(er.nextId()) + 1);
+                default -> er.treatNext();
+            }
+            if (op % 50 != 0) continue;
+            List<Patient> waiting = er.viewWaitingList();
+            for (String name : NAMES) {
+                List<Integer> expected = new ArrayList<>();
+                for (Patient p : waiting) if (NameDictionary.fold(p.name).equals(NameDictionary.fold(name))) expected.add(p.id);
+                assertEquals(expected, ids(er.searchPatientByName(name)), name);
+            }
+            for (String prefix : new String[] { "a", "ASH", "dev", "m", "x" }) {
+                Set<Integer> expected = new HashSet<>();
+                for (Patient p : waiting) if (NameDictionary.fold(p.name).startsWith(NameDictionary.fold(prefix))) expected.add(p.id);
+                assertEquals(expected, new HashSet<>(ids(er.searchPatientsByPrefix(prefix, Integer.MAX_VALUE))), prefix);
+            }
+        }
+    }
+
+    private static List<Integer> ids(List<Patient> patients)
+    {
+        List<Integer> ids = new ArrayList<>();
+        for (Patient p : patients) ids.add(p.id);
+        return ids;
+    }
+}
@@ -0,0 +1,115 @@
+package hospital;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import org.junit.jupiter.api.Test;
+
+class OffHeapPatientStoreTest
+{
+    @Test
+    void zeroAndUnknownIdsLeaveTheBoardAlone()
+    {
+        OffHeapPatientStore store = new OffHeapPatientStore(16);
+        int first = store.addPatient("Asha", 3);
+        int second = store.addPatient("Dev", 5);
+        // treat and re-admit so the map holds a freed cell with a stale value
+        assertEquals(second, store.treatNext());
+        int third = store.addPatient("Mira", 4);
+
+        for (int id : new int[] { 0, -1, 999 }) {
+            assertFalse(store.updateSeverity(id, 9), "update " + id);
+            assertFalse(store.removePatient(id), "remove " + id);
+            assertFalse(store.contains(id));
+            assertEquals(-1, store.severityOf(id));
+        }
+
+        assertEquals(2, store.size());
+        assertEquals(3, store.severityOf(first));
+        assertEquals(4, store.severityOf(third));
+        assertArrayEquals(new int[] { third, first }, store.idsInSeverityOrder());
+        assertArrayEquals(new int[] { first, third }, store.idsInArrivalOrder());
+    }
+
+    // Enough keys to grow past the 64k-cell minimum, plus keys <= 0.
+    @Test
+    void slotMapMatchesAHashMap()
+    {
+        OffHeapSlotMap map = new OffHeapSlotMap(4);
+        HashMap<Integer, Integer> expected = new HashMap<>();
+        SplittableRandom rand = new SplittableRandom(9);
+        for (int op = 0; op < 300_000; op++) {
+            int key = rand.nextInt(100_000) - 2;
+            switch (rand.nextInt(3)) {
+                case 0 -> {
+                    if (key <= 0) {
+                        assertThrows(IllegalArgumentException.class, () -> map.put(key, 1));
+                    } else {
+                        map.put(key, op);
+                        expected.put(key, op);
+                    }
+                }
+                case 1 -> assertEquals((int) expected.getOrDefault(key, -1), map.get(key), "get " + key);
+                default -> assertEquals((int) Objects.requireNonNullElse(expected.remove(key), -1), map.remove(key), "remove " + key);
+            }
+        }
+        assertEquals(expected.size(), map.size());
+    }
+
+    // Fields of records on both sides of a chunk boundary, across growth.
+    @Test
+    void tableMatchesHeapArrays()
+    {
+        OffHeapTable table = new OffHeapTable(16, 1);
+        int[] ints = new int[200_000];
+        long[] longs = new long[200_000];
+        SplittableRandom rand = new SplittableRandom(5);
+        for (int i = 0; i < ints.length; i++) {
+            table.ensureCapacity(i + 1L);
+            ints[i] = rand.nextInt();
+            longs[i] = rand.nextLong();
+            table.putInt(i, 0, ints[i]);
+            table.putLong(i, 8, longs[i]);
+        }
+        for (int op = 0; op < 100_000; op++) {
+            int i = rand.nextInt(ints.length);
+            if (rand.nextBoolean()) {
+                longs[i] = rand.nextLong();
+                table.putLong(i, 8, longs[i]);
+            }
+            assertEquals(ints[i], table.getInt(i, 0));
+            assertEquals(longs[i], table.getLong(i, 8));
+        }
+    }
+
+    // The store keeps IndexedHeap order, so it must agree with a STRICT
+    // HospitalER call for call.
+    @Test
+    void matchesHospitalERUnderStrict()
+    {
+        HospitalER er = new HospitalER(TriagePolicy.STRICT.newQueue(), false);
+        er.setQuiet(true);
+        OffHeapPatientStore store = new OffHeapPatientStore(16);
+        SplittableRandom rand = new SplittableRandom(3);
+        for (int op = 0; op < 20_000; op++) {
+            // IDs that were never handed out, or have left, come up as well
+            int id = rand.nextInt(er.nextId() + 2);
+            int severity = rand.nextInt(12);
+            switch (rand.nextInt(10)) {
+                case 0, 1, 2, 3 -> assertEquals(er.addPatient("P" + op, severity), store.addPatient("P" + op, severity));
+                case 4, 5 -> assertEquals(er.updateSeverity(id, severity), store.updateSeverity(id, severity), "update " + id);
+                case 6 -> assertEquals(er.removePatient(id), store.removePatient(id), "remove " + id);
+                default -> assertEquals(er.treatNext(), store.treatNext());
+            }
+            assertEquals(er.size(), store.size());
+            assertEquals(er.peekNext(), store.peekNext());
+        }
+        assertArrayEquals(ids(er.viewSeverityOrder()), store.idsInSeverityOrder());
+        assertArrayEquals(ids(er.viewWaitingList()), store.idsInArrivalOrder());
+    }
+
+    private static int[] ids(List<Patient> patients)
+    {
+        return patients.stream().mapToInt(p -> p.id).toArray();
+    }
+}
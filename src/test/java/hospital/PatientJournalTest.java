@@ -0,0 +1,78 @@
+package hospital;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PatientJournalTest
+{
+    private static HospitalER open(Path dir)
+    {
+        HospitalER er = new HospitalER(TriagePolicy.STRICT.newQueue(), dir.toFile());
+        er.setQuiet(true);
+        er.loadFromFile();
+        return er;
+    }
+
+    private static List<String> names(HospitalER er)
+    {
+        List<String> names = new ArrayList<>();
+        for (Patient p : er.viewWaitingList()) names.add(p.name);
+        return names;
+    }
+
+    @Test
+    void nonAsciiNamesSurviveReplayAndCompaction(@TempDir Path dir) throws IOException
+    {
+        HospitalER er = open(dir);
+        er.addPatient("José", 2);
+        er.addPatient("Zoë", 5);
+        er.addPatient("Ananya", 8);
+        er.close();
+
+        er = open(dir);
+        assertEquals(List.of("José", "Zoë", "Ananya"), names(er));
+        assertEquals(1, er.searchPatientByName("José").size());
+
+        er.saveToFile();
+        er.close();
+        String snapshot = new String(Files.readAllBytes(dir.resolve("patients.txt")), StandardCharsets.UTF_8);
+        assertTrue(snapshot.contains("José") && snapshot.contains("Zoë"), snapshot);
+        assertEquals(0, Files.size(dir.resolve("patients.journal")));
+
+        er = open(dir);
+        assertEquals(List.of("José", "Zoë", "Ananya"), names(er));
+        assertEquals(1, er.searchPatientByName("zoë").size());
+        er.close();
+    }
+
+    @Test
+    void crashLeavesAReplayableJournal(@TempDir Path dir) throws IOException
+    {
+        HospitalER er = open(dir);
+        int kabir = er.addPatient("Kabir", 6);
+        int meera = er.addPatient("Meera", 4);
+        er.addPatient("Dev", 9);
+        er.updateSeverity(kabir, 1);
+        er.removePatient(meera);
+        er.treatNextPatient();
+        // no close(): every record is flushed as it is written; a torn tail is skipped
+        Files.write(dir.resolve("patients.journal"), "A,99,3,2026-".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        er = open(dir);
+        assertEquals(List.of("Kabir"), names(er));
+        assertEquals(1, er.viewWaitingList().get(0).severity);
+        int tara = er.addPatient("Tara", 5);
+        assertTrue(tara > kabir + 2, "id " + tara);
+        er.close();
+
+        er = open(dir);
+        assertEquals(List.of("Kabir", "Tara"), names(er));
+        er.close();
+    }
+}
@@ -0,0 +1,70 @@
+package hospital;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import org.junit.jupiter.api.Test;
+
+class QueuePositionsTest
+{
+    @Test
+    void batchRetriageSurvivesACompactionPartWay()
+    {
+        HospitalER er = new HospitalER(TriagePolicy.BUCKETED.newQueue(), false);
+        er.setQuiet(true);
+        for (int i = 0; i < 1000; i++) er.addPatient("P" + i, 1 + i % 5);
+        assertRanksMatchQueue(er);
+
+        // 1000 slots left of 2000; single re-triages use up 700 of them
+        for (int id = 1; id <= 700; id++) er.updateSeverity(id, 6 + id % 3);
+        // so this batch runs out of slots part way through
+        Map<Integer, Integer> batch = new LinkedHashMap<>();
+        for (int id = 601; id <= 1000; id++) batch.put(id, 9 + id % 2);
+        assertEquals(400, er.updateSeverities(batch));
+
+        assertRanksMatchQueue(er);
+    }
+
+    // Every kind of change, singly and in batches, against the queue's own
+    // order; the ER is small enough that slots run out and get compacted.
+    @Test
+    void countAheadMatchesTheQueueUnderEveryPolicy()
+    {
+        for (TriagePolicy policy : TriagePolicy.values()) {
+            HospitalER er = new HospitalER(policy.newQueue(), false);
+            er.setQuiet(true);
+            SplittableRandom rand = new SplittableRandom(11);
+            for (int i = 0; i < 100; i++) er.addPatient("P", rand.nextInt(10) + 1);
+            assertRanksMatchQueue(er);
+            for (int op = 0; op < 20_000; op++) {
+                int id = rand.nextInt(er.nextId()) + 1;
+                switch (rand.nextInt(8)) {
+                    case 0, 1 -> er.addPatient("P", rand.nextInt(10) + 1);
+                    case 2 -> er.addPatients(List.of(new Patient(0, "Q", rand.nextInt(10) + 1), new Patient(0, "R", rand.nextInt(10) + 1)));
+                    case 3, 4 -> er.updateSeverity(id, rand.nextInt(10) + 1);
+                    case 5 -> {
+                        Map<Integer, Integer> batch = new LinkedHashMap<>();
+                        for (int i = 0; i < 8; i++) batch.put(rand.nextInt(er.nextId()) + 1, rand.nextInt(10) + 1);
+                        er.updateSeverities(batch);
+                    }
+                    case 6 -> er.removePatient(id);
+                    default -> er.treatNext(rand.nextInt(3) + 1);
+                }
+                if (op % 100 == 0) assertRanksMatchQueue(er);
+            }
+            assertRanksMatchQueue(er);
+            for (int s = 1; s <= 10; s++) {
+                int level = s;
+                assertEquals(er.viewSeverityOrder().stream().filter(p -> p.severity == level).count(), er.waitingAtSeverity(s));
+            }
+        }
+    }
+
+    private static void assertRanksMatchQueue(HospitalER er)
+    {
+        List<Patient> order = er.viewSeverityOrder();
+        for (int i = 0; i < order.size(); i++) {
+            assertEquals(i, er.countAhead(order.get(i).id), er.policy() + " patient " + order.get(i).id);
+        }
+    }
+}
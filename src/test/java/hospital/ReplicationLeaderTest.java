@@ -0,0 +1,107 @@
+package hospital;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.net.*;
+import java.util.*;
+import java.util.concurrent.*;
+import org.junit.jupiter.api.Test;
+
+class ReplicationLeaderTest
+{
+    // Followers that never read must not slow triage down: each is dropped as
+    // soon as its queue fills, and a fresh follower is seeded afterwards.
+    @Test
+    void stalledFollowersNeverBlockTheLeader() throws Exception
+    {
+        HospitalER er = new HospitalER(TriagePolicy.STRICT.newQueue(), false);
+        er.setQuiet(true);
+        ReplicationLeader leader = new ReplicationLeader(er, 0);
+        List<Socket> stalled = new ArrayList<>();
+        try {
+            for (int i = 0; i < 3; i++) stalled.add(new Socket(InetAddress.getLoopbackAddress(), leader.port()));
+            long deadline = System.currentTimeMillis() + 5000;
+            while (leader.followerCount() < 3 && System.currentTimeMillis() < deadline) Thread.sleep(1);
+            assertEquals(3, leader.followerCount());
+
+            String name = "Patient-" + "x".repeat(200);
+            long slowest = 0;
+            for (int i = 0; i < 100_000; i++) {
+                long start = System.nanoTime();
+                er.addPatient(name, i % 10 + 1);
+                if (i % 2 == 1) er.treatNextPatient();
+                slowest = Math.max(slowest, System.nanoTime() - start);
+            }
+            assertEquals(0, leader.followerCount());
+            // a follower used to be given 2 s to drain before being dropped
+            assertTrue(slowest < 1_000_000_000L, "slowest call " + slowest / 1_000_000 + " ms");
+
+            ReplicationFollower follower = new ReplicationFollower("localhost", leader.port());
+            while (leader.followerCount() < 1 && System.currentTimeMillis() < deadline + 5000) Thread.sleep(1);
+            er.addPatient("Meera", 5);
+            assertTrue(follower.awaitLsn(leader.lsn(), 10_000));
+            assertEquals(er.size(), follower.size());
+            follower.close();
+        } finally {
+            for (Socket s : stalled) s.close();
+            leader.close();
+        }
+    }
+
+    // A BUCKETED leader's re-triaged patient queues behind the level, which a
+    // STRICT follower would not; and the follower's change feed gets each
+    // replicated record as a delta rather than a fresh snapshot.
+    @Test
+    void followerTriagesByTheLeadersPolicy() throws Exception
+    {
+        HospitalER er = new HospitalER(TriagePolicy.BUCKETED.newQueue(), false);
+        er.setQuiet(true);
+        int first = er.addPatient("Asha", 3);
+        er.addPatient("Dev", 5);
+        ReplicationLeader leader = new ReplicationLeader(er, 0);
+        try {
+            HospitalER strict = new HospitalER(TriagePolicy.STRICT.newQueue(), false);
+            assertThrows(IOException.class, () -> new ReplicationFollower("localhost", leader.port(), strict));
+
+            HospitalER copy = new HospitalER(TriagePolicy.BUCKETED.newQueue(), false);
+            copy.setQuiet(true);
+            List<ErChange.Kind> kinds = new CopyOnWriteArrayList<>();
+            copy.changeFeed().subscribe(new Flow.Subscriber<ErChange>() {
+                public void onSubscribe(Flow.Subscription s)
+                {
+                    s.request(Long.MAX_VALUE);
+                }
+
+                public void onNext(ErChange c)
+                {
+                    kinds.add(c.kind);
+                }
+
+                public void onError(Throwable e) {}
+
+                public void onComplete() {}
+            });
+            ReplicationFollower follower = new ReplicationFollower("localhost", leader.port(), copy);
+            er.updateSeverity(first, 5);
+            er.addPatient("Mira", 5);
+            er.treatNextPatient();
+            assertTrue(follower.awaitLsn(leader.lsn(), 10_000));
+
+            List<Integer> expected = new ArrayList<>();
+            for (Patient p : er.viewSeverityOrder()) expected.add(p.id);
+            List<Integer> actual = new ArrayList<>();
+            for (Patient p : follower.viewSeverityOrder()) actual.add(p.id);
+            assertEquals(expected, actual);
+
+            // seed (2 admissions) and 3 live records
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (kinds.size() < 6 && System.currentTimeMillis() < deadline) Thread.sleep(1);
+            assertEquals(ErChange.Kind.SNAPSHOT, kinds.get(0));
+            assertEquals(1, Collections.frequency(kinds, ErChange.Kind.SNAPSHOT), kinds.toString());
+            follower.close();
+        } finally {
+            leader.close();
+        }
+    }
+}
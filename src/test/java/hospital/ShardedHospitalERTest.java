@@ -0,0 +1,123 @@
+package hospital;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import org.junit.jupiter.api.Test;
+
+// One thread per department admits into its own shard and treats as its
+// doctor, stealing once its shard runs dry; the skewed runs send every
+// admission to the first department, so the other doctors only ever steal.
+// Every patient must be treated exactly once.
+class ShardedHospitalERTest
+{
+    private static final int PATIENTS = 200_000;
+
+    @Test
+    void oneShard() throws Exception
+    {
+        run(1, false);
+    }
+
+    @Test
+    void manyShards() throws Exception
+    {
+        run(shards(), false);
+    }
+
+    @Test
+    void manyShardsSkewedIntake() throws Exception
+    {
+        run(shards(), true);
+    }
+
+    // Racing admissions into one level of one shard: FIFO within the level must
+    // agree with the sequence numbers the journal and STRICT order by.
+    @Test
+    void bucketOrderFollowsSequenceNumbers() throws Exception
+    {
+        ShardedHospitalER er = new ShardedHospitalER(TriagePolicy.BUCKETED, 2);
+        int threads = shards();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> tasks = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            tasks.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < 20_000; i++) er.addPatient(0, "P", 5);
+                return null;
+            }));
+        }
+        start.countDown();
+        try {
+            for (Future<?> f : tasks) f.get(2, TimeUnit.MINUTES);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        long last = -1;
+        for (Patient p; (p = er.treatNextPatient(0)) != null; last = p.seq) {
+            assertTrue(p.seq > last, "seq " + p.seq + " treated after " + last);
+        }
+    }
+
+    private static int shards()
+    {
+        return Math.max(4, Runtime.getRuntime().availableProcessors());
+    }
+
+    private static void run(int shards, boolean skewed) throws Exception
+    {
+        ShardedHospitalER er = new ShardedHospitalER(TriagePolicy.STRICT, shards);
+        // IDs encode the shard, so with skewed intake they run up to PATIENTS * shards
+        int maxId = (skewed ? PATIENTS * shards : PATIENTS) + shards;
+        AtomicIntegerArray treated = new AtomicIntegerArray(maxId + 1);
+        AtomicInteger departed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(shards);
+        List<Future<?>> tasks = new ArrayList<>();
+
+        int perShard = PATIENTS / shards;
+        for (int t = 0; t < shards; t++) {
+            int shard = t;
+            int count = t == shards - 1 ? PATIENTS - perShard * (shards - 1) : perShard;
+            tasks.add(pool.submit(() -> {
+                start.await();
+                ThreadLocalRandom rand = ThreadLocalRandom.current();
+                for (int i = 0; i < count; i++) {
+                    er.addPatient(skewed ? 0 : shard, "P", rand.nextInt(10) + 1);
+                    // treat one for every two admitted, then drain below
+                    if ((i & 1) == 1) treat(er, shard, treated, departed);
+                }
+                while (departed.get() < PATIENTS) {
+                    if (!treat(er, shard, treated, departed)) Thread.onSpinWait();
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        try {
+            for (Future<?> f : tasks) f.get(2, TimeUnit.MINUTES);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertTrue(er.isEmpty(), "patients left waiting");
+        assertEquals(PATIENTS, departed.get());
+        for (int id = 1; id <= maxId; id++) {
+            if (treated.get(id) > 1) fail("patient " + id + " treated " + treated.get(id) + " times");
+        }
+    }
+
+    private static boolean treat(ShardedHospitalER er, int shard, AtomicIntegerArray treated, AtomicInteger departed)
+    {
+        Patient p = er.treatNextPatient(shard);
+        if (p == null) return false;
+        treated.incrementAndGet(p.id);
+        departed.incrementAndGet();
+        return true;
+    }
+}
@@ -0,0 +1,46 @@
+package hospital;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import org.junit.jupiter.api.Test;
+
+// The snapshot must list patients in the order the live queue treats them,
+// under every policy, including re-triages made singly and in batches.
+class SnapshotPublisherTest
+{
+    @Test
+    void severityOrderMatchesTheQueue()
+    {
+        for (TriagePolicy policy : TriagePolicy.values()) {
+            HospitalER er = new HospitalER(policy.newQueue(), false);
+            er.setQuiet(true);
+            SplittableRandom rand = new SplittableRandom(1);
+            List<Integer> ids = new ArrayList<>();
+            for (int i = 0; i < 50; i++) ids.add(er.addPatient("P" + i, rand.nextInt(10) + 1));
+            // start part way, so the initial filing is checked too
+            for (int i = 0; i < 20; i++) er.updateSeverity(ids.get(rand.nextInt(ids.size())), rand.nextInt(10) + 1);
+            SnapshotPublisher snapshots = er.enableSnapshots();
+
+            for (int op = 0; op < 2000; op++) {
+                int k = rand.nextInt(10);
+                if (k < 4 || ids.isEmpty()) {
+                    ids.add(er.addPatient("P", rand.nextInt(10) + 1));
+                } else if (k < 7) {
+                    er.updateSeverity(ids.get(rand.nextInt(ids.size())), rand.nextInt(10) + 1);
+                } else if (k < 8) {
+                    Map<Integer, Integer> batch = new LinkedHashMap<>();
+                    for (int i = 0; i < 5; i++) batch.put(ids.get(rand.nextInt(ids.size())), rand.nextInt(10) + 1);
+                    er.updateSeverities(batch);
+                } else {
+                    ids.remove((Integer) er.treatNextPatient().id);
+                }
+                List<Integer> snapshot = new ArrayList<>();
+                for (Patient p : snapshots.current().severityOrder()) snapshot.add(p.id);
+                List<Integer> queue = new ArrayList<>();
+                for (Patient p : er.viewSeverityOrder()) queue.add(p.id);
+                assertEquals(queue, snapshot, policy + " after op " + op);
+            }
+        }
+    }
+}
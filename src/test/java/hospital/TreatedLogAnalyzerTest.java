@@ -0,0 +1,62 @@
+package hospital;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.nio.file.*;
+import java.time.Duration;
+import java.util.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TreatedLogAnalyzerTest
+{
+    // Same-second rotations are named stamp-2, stamp-3 ...; they follow the
+    // archive they clashed with, and the live file comes last.
+    @Test
+    void logFilesComeInRotationOrder(@TempDir Path dir) throws IOException
+    {
+        String[] names = {
+            "treated_log.txt",
+            "treated_log-20260101-120000-2.txt.gz",
+            "treated_log-20260101-120000-10.txt",
+            "treated_log-20260101-120000.txt.gz",
+            "treated_log-20251231-235959.txt.gz",
+            "treated_log-20260101-120000-3.txt",
+        };
+        for (String name : names) Files.createFile(dir.resolve(name));
+
+        List<String> order = new ArrayList<>();
+        for (File f : TreatedLogAnalyzer.logFiles(dir.toFile())) order.add(f.getName());
+        assertEquals(List.of(
+                "treated_log-20251231-235959.txt.gz",
+                "treated_log-20260101-120000.txt.gz",
+                "treated_log-20260101-120000-2.txt.gz",
+                "treated_log-20260101-120000-3.txt",
+                "treated_log-20260101-120000-10.txt",
+                "treated_log.txt"), order);
+    }
+
+    // The ER hands its durability and rotation to the treated log, and the
+    // analyzer reads every rotated file back.
+    @Test
+    void erRotatesItsTreatedLogAsConfigured(@TempDir Path dir) throws IOException
+    {
+        AsyncLogWriter.Rotation small = new AsyncLogWriter.Rotation(1024, Duration.ofDays(1), false);
+        HospitalER er = new HospitalER(TriagePolicy.STRICT.newQueue(), dir.toFile(), AsyncLogWriter.Durability.FSYNC, small);
+        er.setQuiet(true);
+        for (int i = 0; i < 500; i++) {
+            er.addPatient("Patient " + i, i % 10 + 1);
+            er.treatNextPatient();
+        }
+        er.close();
+
+        List<File> files = TreatedLogAnalyzer.logFiles(dir.toFile());
+        assertTrue(files.size() > 2, files.toString());
+        long treated = 0;
+        for (File f : files) {
+            for (String line : Files.readAllLines(f.toPath())) if (line.startsWith("T,")) treated++;
+        }
+        assertEquals(500, treated);
+    }
+}
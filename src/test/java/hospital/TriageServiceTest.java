@@ -0,0 +1,103 @@
+package hospital;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.*;
+import java.net.http.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import org.junit.jupiter.api.Test;
+
+// Concurrent kiosks and doctors' screens against an in-process TriageService:
+// every request must be answered as documented, and the ER must account for
+// every admission, treatment and removal the clients saw succeed.
+class TriageServiceTest
+{
+    private static final String[] NAMES = {"Aarav", "Isha", "Rohan", "Simran", "Kabir", "Ananya", "Dev", "Meera"};
+
+    @Test
+    void concurrentClientsKeepTheRoomConsistent() throws Exception
+    {
+        HospitalER er = new HospitalER(TriagePolicy.STRICT.newQueue(), false);
+        er.setQuiet(true);
+        for (int i = 0; i < 1000; i++) er.addPatient(NAMES[i % NAMES.length], i % 10 + 1);
+        TriageService service = new TriageService(er, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        URI base = URI.create("http://127.0.0.1:" + service.port());
+        HttpClient http = HttpClient.newHttpClient();
+        AtomicInteger lastId = new AtomicInteger(1000);
+        AtomicInteger admitted = new AtomicInteger(), treated = new AtomicInteger(), removed = new AtomicInteger();
+        List<String> failures = new CopyOnWriteArrayList<>();
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        List<Future<?>> clients = new ArrayList<>();
+        for (int c = 0; c < 16; c++) {
+            long seed = c;
+            clients.add(pool.submit(() -> {
+                SplittableRandom rand = new SplittableRandom(seed);
+                for (int i = 0; i < 300; i++) {
+                    int someone = Math.max(1, lastId.get() - rand.nextInt(500));
+                    int severity = rand.nextInt(10) + 1;
+                    int roll = rand.nextInt(100);
+                    HttpRequest.Builder req;
+                    if (roll < 35) req = request(base, "/patients").POST(json("{\"name\":\"" + NAMES[rand.nextInt(NAMES.length)] + "\",\"severity\":" + severity + "}"));
+                    else if (roll < 65) req = request(base, "/treat").POST(HttpRequest.BodyPublishers.noBody());
+                    else if (roll < 80) req = request(base, "/next").GET();
+                    else if (roll < 90) req = request(base, "/patients/" + someone + "/severity").PUT(json("{\"severity\":" + severity + "}"));
+                    else if (roll < 95) req = request(base, "/patients/" + someone).GET();
+                    else req = request(base, "/patients/" + someone).DELETE();
+                    HttpResponse<String> res = http.send(req.build(), HttpResponse.BodyHandlers.ofString());
+
+                    int status = res.statusCode();
+                    if (roll < 35 && status == 201) {
+                        admitted.incrementAndGet();
+                        lastId.accumulateAndGet(Integer.parseInt(res.body().replaceAll("\\D", "")), Math::max);
+                    } else if (roll >= 35 && roll < 65 && status == 200) {
+                        treated.incrementAndGet();
+                    } else if (roll >= 95 && status == 204) {
+                        removed.incrementAndGet();
+                    } else if (!(status < 300 || (status == 404 && roll >= 80))) {
+                        failures.add(status + " " + res.request().method() + " " + res.request().uri().getPath() + " " + res.body());
+                    }
+                }
+                return null;
+            }));
+        }
+        try {
+            for (Future<?> f : clients) f.get(2, TimeUnit.MINUTES);
+        } finally {
+            pool.shutdownNow();
+            service.close();
+        }
+
+        assertEquals(List.of(), failures);
+        assertEquals(1000 + admitted.get() - treated.get() - removed.get(), er.size());
+    }
+
+    @Test
+    void admissionNeedsNameAndSeverity() throws Exception
+    {
+        HospitalER er = new HospitalER(TriagePolicy.STRICT.newQueue(), false);
+        TriageService service = new TriageService(er, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        URI base = URI.create("http://127.0.0.1:" + service.port());
+        HttpClient http = HttpClient.newHttpClient();
+        try {
+            assertEquals(400, http.send(request(base, "/patients").POST(json("{\"name\":\"Isha\"}")).build(), HttpResponse.BodyHandlers.ofString()).statusCode());
+            assertEquals(400, http.send(request(base, "/patients").POST(json("{\"name\":\"Is\\nha\",\"severity\":3}")).build(), HttpResponse.BodyHandlers.ofString()).statusCode());
+            assertEquals(201, http.send(request(base, "/patients").POST(json("{\"name\":\"Isha\",\"severity\":3}")).build(), HttpResponse.BodyHandlers.ofString()).statusCode());
+        } finally {
+            service.close();
+        }
+        assertEquals(1, er.size());
+    }
+
+    private static HttpRequest.Builder request(URI base, String path)
+    {
+        return HttpRequest.newBuilder(base.resolve(path)).header("Content-Type", "application/json");
+    }
+
+    private static HttpRequest.BodyPublisher json(String body)
+    {
+        return HttpRequest.BodyPublishers.ofString(body);
+    }
+}